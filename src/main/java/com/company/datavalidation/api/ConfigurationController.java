@@ -78,6 +78,7 @@ public class ConfigurationController {
             configToUpdate.setTableName(config.getTableName());
             configToUpdate.setEnabled(config.isEnabled());
             configToUpdate.setDescription(config.getDescription());
+            configToUpdate.setDatasourceName(config.getDatasourceName());
             configToUpdate.setLastModifiedDate(LocalDateTime.now());
             configToUpdate.setLastModifiedBy("api-user"); // This should come from authentication
 
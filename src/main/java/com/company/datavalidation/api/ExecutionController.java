@@ -36,12 +36,17 @@ public class ExecutionController {
             Long id,
             String tableName,
             String columnName,
+            String rowKey,
+            String discrepancyType,
             String comparisonType,
             String actualValue,
             String expectedValue,
             String differenceValue,
             String differencePercentage,
-            boolean thresholdExceeded
+            boolean thresholdExceeded,
+            boolean estimated,
+            String actualMarginOfError,
+            String expectedMarginOfError
     ) {}
 
     @PostMapping
@@ -115,13 +120,18 @@ public class ExecutionController {
                         detail.getId(),
                         detail.getValidationResult().getComparisonConfig().getTableName(),
                         detail.getColumnComparisonConfig().getColumnName(),
+                        detail.getRowKey(),
+                        detail.getDiscrepancyType() != null ? detail.getDiscrepancyType().toString() : null,
                         detail.getColumnComparisonConfig().getComparisonType().toString(),
                         detail.getActualValue() != null ? detail.getActualValue().toString() : "null",
                         detail.getExpectedValue() != null ? detail.getExpectedValue().toString() : "null",
                         detail.getDifferenceValue() != null ? detail.getDifferenceValue().toString() : "null",
                         detail.getDifferencePercentage() != null ?
                                 detail.getDifferencePercentage().toString() + "%" : "null",
-                        detail.isThresholdExceeded()
+                        detail.isThresholdExceeded(),
+                        detail.isEstimated(),
+                        detail.getActualMarginOfError() != null ? detail.getActualMarginOfError().toString() : "null",
+                        detail.getExpectedMarginOfError() != null ? detail.getExpectedMarginOfError().toString() : "null"
                 ))
                 .toList();
 
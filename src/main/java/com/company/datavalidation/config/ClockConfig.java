@@ -0,0 +1,25 @@
+package com.company.datavalidation.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * Configuration of the clock that decides the current day of day-over-day validations.
+ * The comparator and the snapshot service share this bean, so they agree on today
+ * and on when a day has ended.
+ */
+@Configuration
+public class ClockConfig {
+
+    /**
+     * Provides the clock of the system default time zone.
+     *
+     * @return the system clock
+     */
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
@@ -0,0 +1,127 @@
+package com.company.datavalidation.config;
+
+import com.company.datavalidation.repository.SourceDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps source table scans and metadata access on separate connection pools, so long scans never
+ * hold the connections needed to read configurations and write results.
+ * The metadata store uses spring.datasource; every source database under datavalidation.datasources
+ * gets a pool of its own.
+ */
+@Configuration
+@EnableConfigurationProperties(SourceDataSourceProperties.class)
+@Slf4j
+public class SourceDataSourceConfig {
+
+    /**
+     * Connection settings of the metadata store
+     *
+     * @return the metadata datasource properties
+     */
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    /**
+     * Connection pool of the metadata store, used by JPA and Flyway
+     *
+     * @param dataSourceProperties the metadata datasource properties
+     * @return the metadata datasource
+     */
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Routes source queries to the pool of the datasource named on the current thread
+     *
+     * @param properties the source datasource settings
+     * @return the source datasource
+     */
+    @Bean
+    public DataSource sourceDataSource(SourceDataSourceProperties properties) {
+        Map<Object, Object> pools = new HashMap<>();
+        properties.getDatasources().forEach((name, source) -> pools.put(name, createPool(name, source)));
+        if (!pools.containsKey(SourceDataSource.DEFAULT)) {
+            throw new IllegalStateException("No source datasource named '" + SourceDataSource.DEFAULT
+                    + "' configured under datavalidation.datasources");
+        }
+        log.info("Configured source datasources: {}", pools.keySet());
+
+        return new SourceRoutingDataSource(pools);
+    }
+
+    /**
+     * Template for source table queries
+     *
+     * @param sourceDataSource the source datasource
+     * @return the source JDBC template
+     */
+    @Bean
+    public JdbcTemplate sourceJdbcTemplate(@Qualifier("sourceDataSource") DataSource sourceDataSource) {
+        return new JdbcTemplate(sourceDataSource);
+    }
+
+    /**
+     * Routing datasource that owns the source pools and closes them on shutdown
+     */
+    static class SourceRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+        private final Map<Object, Object> pools;
+
+        SourceRoutingDataSource(Map<Object, Object> pools) {
+            this.pools = pools;
+            setTargetDataSources(pools);
+            setDefaultTargetDataSource(pools.get(SourceDataSource.DEFAULT));
+            // Fail on unknown names instead of silently reading the default source
+            setLenientFallback(false);
+            initialize();
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return SourceDataSource.current();
+        }
+
+        @Override
+        public void close() {
+            pools.values().forEach(pool -> ((HikariDataSource) pool).close());
+        }
+    }
+
+    private HikariDataSource createPool(String name, SourceDataSourceProperties.Source source) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("source-" + name);
+        pool.setJdbcUrl(source.getUrl());
+        pool.setUsername(source.getUsername());
+        pool.setPassword(source.getPassword());
+        if (source.getDriverClassName() != null) {
+            pool.setDriverClassName(source.getDriverClassName());
+        }
+        pool.setMaximumPoolSize(source.getMaximumPoolSize());
+        pool.setMinimumIdle(source.getMinimumIdle());
+        pool.setReadOnly(true);
+        return pool;
+    }
+}
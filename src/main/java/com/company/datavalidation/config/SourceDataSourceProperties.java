@@ -0,0 +1,39 @@
+package com.company.datavalidation.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Source databases read by validations, keyed by the name comparison configurations refer to
+ */
+@ConfigurationProperties(prefix = "datavalidation")
+@Getter
+@Setter
+public class SourceDataSourceProperties {
+
+    private Map<String, Source> datasources = new LinkedHashMap<>();
+
+    /**
+     * Connection settings and pool size of one source database
+     */
+    @Getter
+    @Setter
+    public static class Source {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private String driverClassName;
+
+        private int maximumPoolSize = 10;
+
+        private int minimumIdle = 1;
+    }
+}
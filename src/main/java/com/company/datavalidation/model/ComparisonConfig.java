@@ -37,6 +37,9 @@ public class ComparisonConfig {
     @Column(name = "description")
     private String description;
 
+    @Column(name = "datasource_name")
+    private String datasourceName;
+
     @CreationTimestamp
     @Column(name = "created_date", nullable = false, updatable = false)
     private LocalDateTime createdDate;
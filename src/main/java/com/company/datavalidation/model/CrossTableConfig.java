@@ -29,7 +29,45 @@ public class CrossTableConfig {
     @Column(name = "join_condition", nullable = false)
     private String joinCondition;
 
+    @Column(name = "key_column")
+    private String keyColumn;
+
+    @Column(name = "target_datasource_name")
+    private String targetDatasourceName;
+
+    @Column(name = "target_key_column")
+    private String targetKeyColumn;
+
+    @Column(name = "fingerprint_comparison", nullable = false)
+    private boolean fingerprintComparison;
+
+    @Column(name = "checksum_fanout")
+    private Integer checksumFanout;
+
+    @Column(name = "aggregate_first", nullable = false)
+    private boolean aggregateFirst;
+
+    @Column(name = "key_existence_check", nullable = false)
+    private boolean keyExistenceCheck;
+
     @Column(name = "enabled", nullable = false)
     @Builder.Default
     private boolean enabled = true;
+
+    /**
+     * Check whether the target table is read from another datasource than the source table
+     * @return True if a target datasource is configured
+     */
+    public boolean isCrossDatasource() {
+        return targetDatasourceName != null && !targetDatasourceName.isBlank();
+    }
+
+    /**
+     * Check whether differing rows are localised with a tree of key-bucket checksums before
+     * any row is read
+     * @return True if a checksum fan-out above 1 is configured
+     */
+    public boolean isChecksumTree() {
+        return checksumFanout != null && checksumFanout > 1;
+    }
 }
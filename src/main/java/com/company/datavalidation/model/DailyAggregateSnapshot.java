@@ -0,0 +1,49 @@
+package com.company.datavalidation.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "daily_aggregate_snapshot")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@EqualsAndHashCode(of = "id")
+public class DailyAggregateSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "column_comparison_config_id", nullable = false)
+    @ToString.Exclude
+    private ColumnComparisonConfig columnComparisonConfig;
+
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate;
+
+    @Column(name = "aggregate_definition", nullable = false)
+    private String aggregateDefinition;
+
+    @Column(name = "aggregate_value", precision = 38, scale = 10)
+    private BigDecimal aggregateValue;
+
+    @Column(name = "captured_at", nullable = false)
+    private LocalDateTime capturedAt;
+
+    /**
+     * Check whether the snapshot was captured after its day ended, so no later rows can change it
+     * @return True if the snapshot is final
+     */
+    public boolean isFinal() {
+        return capturedAt.toLocalDate().isAfter(snapshotDate);
+    }
+}
@@ -3,6 +3,8 @@ package com.company.datavalidation.model;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.math.BigDecimal;
+
 @Entity
 @Table(name = "day_over_day_config")
 @Getter
@@ -29,4 +31,51 @@ public class DayOverDayConfig {
 
     @Column(name = "exclusion_condition")
     private String exclusionCondition;
+
+    @Column(name = "partition_column")
+    private String partitionColumn;
+
+    @Column(name = "partition_count")
+    private Integer partitionCount;
+
+    @Column(name = "partition_strategy")
+    @Enumerated(EnumType.STRING)
+    private PartitionStrategy partitionStrategy;
+
+    @Column(name = "watermark_column")
+    private String watermarkColumn;
+
+    @Column(name = "sample_percent", precision = 5, scale = 2)
+    private BigDecimal samplePercent;
+
+    @Column(name = "sample_key_column")
+    private String sampleKeyColumn;
+
+    /**
+     * Check whether scans of the source table are split into parallel partitions
+     * @return True if a partition column and more than one partition are configured
+     */
+    public boolean isPartitioned() {
+        return partitionColumn != null && !partitionColumn.isBlank()
+                && partitionCount != null && partitionCount > 1;
+    }
+
+    /**
+     * Check whether today's values are updated incrementally from the rows landed since the last run.
+     * The watermark column must grow with every inserted row, and rows must not be updated or
+     * deleted once loaded, since rows behind the watermark are never scanned again that day.
+     * @return True if a watermark column is configured
+     */
+    public boolean isIncremental() {
+        return watermarkColumn != null && !watermarkColumn.isBlank();
+    }
+
+    /**
+     * Check whether the values are estimated from a sample of the source table instead of computed exactly
+     * @return True if a sample percentage between 0 and 100 (exclusive) is configured
+     */
+    public boolean isSampled() {
+        return samplePercent != null
+                && samplePercent.signum() > 0 && samplePercent.compareTo(BigDecimal.valueOf(100)) < 0;
+    }
 }
@@ -0,0 +1,42 @@
+package com.company.datavalidation.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Stores a list of nullable decimals as one semicolon-separated column; nulls are stored as empty entries
+ */
+@Converter
+public class DecimalListConverter implements AttributeConverter<List<BigDecimal>, String> {
+
+    private static final String SEPARATOR = ";";
+
+    @Override
+    public String convertToDatabaseColumn(List<BigDecimal> values) {
+        if (values == null) {
+            return null;
+        }
+        return values.stream()
+                .map(value -> value == null ? "" : value.toPlainString())
+                .collect(Collectors.joining(SEPARATOR));
+    }
+
+    @Override
+    public List<BigDecimal> convertToEntityAttribute(String column) {
+        if (column == null) {
+            return null;
+        }
+        if (column.isEmpty()) {
+            return List.of();
+        }
+        // Keep trailing empty entries, which are trailing nulls
+        return Arrays.stream(column.split(SEPARATOR, -1))
+                .map(value -> value.isEmpty() ? null : new BigDecimal(value))
+                .toList();
+    }
+}
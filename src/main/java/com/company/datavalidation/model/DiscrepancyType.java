@@ -0,0 +1,44 @@
+package com.company.datavalidation.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Kinds of discrepancy a cross-table comparison reports between its source and target rows
+ */
+@Getter
+@Slf4j
+@RequiredArgsConstructor
+@ToString
+public enum DiscrepancyType {
+
+    VALUE_MISMATCH("Row exists on both sides with differing values"),
+    SOURCE_ONLY("Row exists in the source table only"),
+    TARGET_ONLY("Row exists in the target table only");
+
+    private final String description;
+
+    // Constructor is handled by @RequiredArgsConstructor
+
+    /**
+     * Get a discrepancy type by name, with a default fallback
+     *
+     * @param name The discrepancy type name
+     * @param defaultType The default type if not found
+     * @return The discrepancy type
+     */
+    public static DiscrepancyType fromName(String name, DiscrepancyType defaultType) {
+        if (name == null || name.isBlank()) {
+            return defaultType;
+        }
+
+        try {
+            return DiscrepancyType.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown discrepancy type: {}, using default: {}", name, defaultType);
+            return defaultType;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.company.datavalidation.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Entity
+@Table(name = "incremental_aggregate_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@EqualsAndHashCode(of = "id")
+public class IncrementalAggregateState {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "day_over_day_config_id", nullable = false)
+    @ToString.Exclude
+    private DayOverDayConfig dayOverDayConfig;
+
+    @Column(name = "aggregate_date", nullable = false)
+    private LocalDate aggregateDate;
+
+    @Column(name = "aggregate_definition", nullable = false)
+    private String aggregateDefinition;
+
+    @Column(name = "watermark", nullable = false)
+    private Long watermark;
+
+    /**
+     * Partial aggregates of the rows up to the watermark, followed by the sums of the row-level columns
+     */
+    @Column(name = "partial_values", nullable = false)
+    @Convert(converter = DecimalListConverter.class)
+    private List<BigDecimal> partialValues;
+
+    @Column(name = "captured_at", nullable = false)
+    private LocalDateTime capturedAt;
+}
@@ -0,0 +1,43 @@
+package com.company.datavalidation.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Strategies for splitting a source table scan into disjoint partitions
+ */
+@Getter
+@Slf4j
+@RequiredArgsConstructor
+@ToString
+public enum PartitionStrategy {
+
+    HASH("Slice rows by the key modulo the partition count"),
+    RANGE("Slice the key range of the scanned days into contiguous intervals");
+
+    private final String description;
+
+    // Constructor is handled by @RequiredArgsConstructor
+
+    /**
+     * Get a partition strategy by name, with a default fallback
+     *
+     * @param name The strategy name
+     * @param defaultStrategy The default strategy if not found
+     * @return The partition strategy
+     */
+    public static PartitionStrategy fromName(String name, PartitionStrategy defaultStrategy) {
+        if (name == null || name.isBlank()) {
+            return defaultStrategy;
+        }
+
+        try {
+            return PartitionStrategy.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown partition strategy: {}, using default: {}", name, defaultStrategy);
+            return defaultStrategy;
+        }
+    }
+}
@@ -30,6 +30,13 @@ public class ValidationDetailResult {
     @ToString.Exclude
     private ColumnComparisonConfig columnComparisonConfig;
 
+    @Column(name = "row_key")
+    private String rowKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "discrepancy_type")
+    private DiscrepancyType discrepancyType;
+
     @Column(name = "threshold_exceeded", nullable = false)
     private boolean thresholdExceeded;
 
@@ -44,4 +51,13 @@ public class ValidationDetailResult {
 
     @Column(name = "difference_percentage", precision = 18, scale = 4)
     private BigDecimal differencePercentage;
+
+    @Column(name = "estimated", nullable = false)
+    private boolean estimated;
+
+    @Column(name = "actual_margin_of_error", precision = 18, scale = 4)
+    private BigDecimal actualMarginOfError;
+
+    @Column(name = "expected_margin_of_error", precision = 18, scale = 4)
+    private BigDecimal expectedMarginOfError;
 }
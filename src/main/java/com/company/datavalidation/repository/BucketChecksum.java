@@ -0,0 +1,20 @@
+package com.company.datavalidation.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Row count and order-independent checksum of the rows in one key bucket
+ * @param rowCount Rows in the bucket
+ * @param checksum Sum of the fingerprints of the rows
+ */
+public record BucketChecksum(long rowCount, BigDecimal checksum) {
+
+    /**
+     * Check whether two buckets hold the same rows, as far as their checksums tell
+     * @param other Checksum of the other bucket, or null if it is empty
+     * @return True if the row counts and checksums are equal
+     */
+    public boolean matches(BucketChecksum other) {
+        return other != null && rowCount == other.rowCount && checksum.compareTo(other.checksum) == 0;
+    }
+}
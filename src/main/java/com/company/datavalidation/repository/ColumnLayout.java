@@ -0,0 +1,228 @@
+package com.company.datavalidation.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Column names, ordinals, JDBC types and typed getters of a result set, resolved once
+ * from its metadata and reused for every row of the query.
+ */
+@Slf4j
+public final class ColumnLayout {
+
+    /**
+     * Reads one column of the current row
+     */
+    @FunctionalInterface
+    public interface ColumnReader {
+        Object read(ResultSet rs, int ordinal) throws SQLException;
+    }
+
+    /**
+     * Reads one column of the current row into a batch cell
+     */
+    @FunctionalInterface
+    public interface CellReader {
+        void read(ResultSet rs, int ordinal, ColumnarRowBatch batch, int column, int row) throws SQLException;
+    }
+
+    private final String[] names;
+    private final int[] ordinals;
+    private final int[] jdbcTypes;
+    private final ColumnReader[] readers;
+
+    private ColumnLayout(String[] names, int[] ordinals, int[] jdbcTypes, ColumnReader[] readers) {
+        this.names = names;
+        this.ordinals = ordinals;
+        this.jdbcTypes = jdbcTypes;
+        this.readers = readers;
+    }
+
+    /**
+     * Resolve the layout of a result set. Columns with a duplicate label keep their first occurrence.
+     * @param metaData Result set metadata
+     * @return Column layout
+     */
+    public static ColumnLayout resolve(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        List<String> names = new ArrayList<>(columnCount);
+        List<Integer> ordinals = new ArrayList<>(columnCount);
+        List<Integer> jdbcTypes = new ArrayList<>(columnCount);
+        Set<String> seen = new HashSet<>();
+
+        for (int ordinal = 1; ordinal <= columnCount; ordinal++) {
+            String name = metaData.getColumnLabel(ordinal);
+            if (!seen.add(name)) {
+                log.warn("Duplicate column name {} found in result set, using first value", name);
+                continue;
+            }
+            names.add(name);
+            ordinals.add(ordinal);
+            jdbcTypes.add(metaData.getColumnType(ordinal));
+        }
+
+        ColumnReader[] readers = jdbcTypes.stream().map(ColumnLayout::readerFor).toArray(ColumnReader[]::new);
+        return new ColumnLayout(
+                names.toArray(String[]::new),
+                ordinals.stream().mapToInt(Integer::intValue).toArray(),
+                jdbcTypes.stream().mapToInt(Integer::intValue).toArray(),
+                readers);
+    }
+
+    /**
+     * Choose the getter for a JDBC type, falling back to getObject
+     * @param jdbcType JDBC type from {@link Types}
+     * @return Column reader
+     */
+    private static ColumnReader readerFor(int jdbcType) {
+        return switch (jdbcType) {
+            case Types.DECIMAL, Types.NUMERIC -> ResultSet::getBigDecimal;
+            case Types.INTEGER -> (rs, ordinal) -> {
+                int value = rs.getInt(ordinal);
+                return rs.wasNull() ? null : value;
+            };
+            case Types.BIGINT -> (rs, ordinal) -> {
+                long value = rs.getLong(ordinal);
+                return rs.wasNull() ? null : value;
+            };
+            case Types.DOUBLE, Types.FLOAT -> (rs, ordinal) -> {
+                double value = rs.getDouble(ordinal);
+                return rs.wasNull() ? null : value;
+            };
+            case Types.CHAR, Types.VARCHAR, Types.NCHAR, Types.NVARCHAR -> ResultSet::getString;
+            default -> ResultSet::getObject;
+        };
+    }
+
+    /**
+     * Resolve the batch cell readers of a result set, one per column in select-list order
+     * @param metaData Result set metadata
+     * @return Cell readers indexed by ordinal - 1
+     */
+    public static CellReader[] cellReaders(ResultSetMetaData metaData) throws SQLException {
+        CellReader[] readers = new CellReader[metaData.getColumnCount()];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = cellReaderFor(metaData.getColumnType(i + 1));
+        }
+        return readers;
+    }
+
+    /**
+     * Choose the primitive getter for a JDBC type, so integral and floating-point cells are stored
+     * without boxing; other types fall back to getObject
+     * @param jdbcType JDBC type from {@link Types}
+     * @return Cell reader
+     */
+    private static CellReader cellReaderFor(int jdbcType) {
+        return switch (jdbcType) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> (rs, ordinal, batch, column, row) -> {
+                long value = rs.getLong(ordinal);
+                if (rs.wasNull()) {
+                    batch.setNull(column, row);
+                } else {
+                    batch.setLong(column, row, value);
+                }
+            };
+            case Types.DOUBLE, Types.FLOAT -> (rs, ordinal, batch, column, row) -> {
+                double value = rs.getDouble(ordinal);
+                if (rs.wasNull()) {
+                    batch.setNull(column, row);
+                } else {
+                    batch.setDouble(column, row, value);
+                }
+            };
+            case Types.DECIMAL, Types.NUMERIC -> (rs, ordinal, batch, column, row) ->
+                    batch.setDecimal(column, row, rs.getBigDecimal(ordinal));
+            case Types.CHAR, Types.VARCHAR, Types.NCHAR, Types.NVARCHAR -> (rs, ordinal, batch, column, row) ->
+                    batch.setString(column, row, rs.getString(ordinal));
+            default -> (rs, ordinal, batch, column, row) -> batch.set(column, row, rs.getObject(ordinal));
+        };
+    }
+
+    /**
+     * Create a row mapper that resolves the layout from the first row and reuses it for the rest.
+     * A new mapper must be created for each query.
+     * @return Row mapper producing a map of column name to value
+     */
+    public static RowMapper<Map<String, Object>> rowMapper() {
+        return new RowMapper<>() {
+            private ColumnLayout layout;
+
+            @Override
+            public Map<String, Object> mapRow(ResultSet rs, int rowNum) throws SQLException {
+                if (layout == null) {
+                    layout = resolve(rs.getMetaData());
+                }
+                return layout.mapRow(rs);
+            }
+        };
+    }
+
+    /**
+     * Map the current row using this layout
+     * @param rs Result set positioned on a row
+     * @return Map of column name to value
+     */
+    public Map<String, Object> mapRow(ResultSet rs) throws SQLException {
+        Map<String, Object> row = HashMap.newHashMap(names.length);
+        for (int i = 0; i < names.length; i++) {
+            row.put(names[i], readers[i].read(rs, ordinals[i]));
+        }
+        return row;
+    }
+
+    /**
+     * Number of distinct columns in the layout
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Get the name of a column
+     * @param index Column index in the layout
+     * @return Column label
+     */
+    public String name(int index) {
+        return names[index];
+    }
+
+    /**
+     * Get the result set ordinal of a column
+     * @param index Column index in the layout
+     * @return 1-based ordinal
+     */
+    public int ordinal(int index) {
+        return ordinals[index];
+    }
+
+    /**
+     * Get the JDBC type of a column
+     * @param index Column index in the layout
+     * @return JDBC type from {@link Types}
+     */
+    public int jdbcType(int index) {
+        return jdbcTypes[index];
+    }
+
+    /**
+     * Read a column of the current row with its typed getter
+     * @param rs Result set positioned on a row
+     * @param index Column index in the layout
+     * @return Column value
+     */
+    public Object read(ResultSet rs, int index) throws SQLException {
+        return readers[index].read(rs, ordinals[index]);
+    }
+}
@@ -0,0 +1,258 @@
+package com.company.datavalidation.repository;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Fixed-size, reusable batch of rows stored column by column in primitive arrays.
+ * Numeric cells are held as longs scaled to {@link #SCALE} decimal places, matching the
+ * DECIMAL(18,4) precision of stored results. A per-column bitmap marks the cells that are
+ * not plain scaled values (null, blank, N/A, unparseable or too large to scale), so
+ * consumers can sum a clean 64-row word without looking at each cell's state.
+ * Columns are addressed by their position in the select list.
+ */
+public final class ColumnarRowBatch {
+
+    public static final int SCALE = ScaledDecimal.SCALE;
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * State of a cell that is not a plain scaled value
+     */
+    public enum CellState {
+        VALUE,
+        NULL,
+        BLANK,
+        NOT_AVAILABLE,
+        INVALID,
+        DECIMAL
+    }
+
+    private static final CellState[] STATES = CellState.values();
+
+    private final int capacity;
+    private final long[][] scaledValues;
+    private final long[][] specialBits;
+    private final byte[][] states;
+    private final BigDecimal[][] decimals;
+    private int size;
+
+    public ColumnarRowBatch(int columnCount, int capacity) {
+        this.capacity = capacity;
+        this.scaledValues = new long[columnCount][capacity];
+        this.specialBits = new long[columnCount][(capacity + 63) >>> 6];
+        this.states = new byte[columnCount][capacity];
+        this.decimals = new BigDecimal[columnCount][];
+    }
+
+    /**
+     * Add an empty row to the batch
+     * @return Index of the new row
+     * @throws IllegalStateException if the batch is full
+     */
+    public int addRow() {
+        if (size == capacity) {
+            throw new IllegalStateException("Batch is full: " + capacity + " rows");
+        }
+        return size++;
+    }
+
+    /**
+     * Store a JDBC value in a cell, classifying it as a scaled value or a special cell
+     * @param column Column position
+     * @param row Row index
+     * @param value Value read from the result set
+     */
+    public void set(int column, int row, Object value) {
+        switch (value) {
+            case null -> setNull(column, row);
+            case Long l -> setLong(column, row, l);
+            case Integer i -> setLong(column, row, i);
+            case Short s -> setLong(column, row, s);
+            case Byte b -> setLong(column, row, b);
+            case BigDecimal bd -> setDecimal(column, row, bd);
+            case Double d -> setDouble(column, row, d);
+            case Number n -> setDecimal(column, row, new BigDecimal(n.toString()));
+            case String s -> setString(column, row, s);
+            default -> markSpecial(column, row, CellState.INVALID);
+        }
+    }
+
+    /**
+     * Store a SQL null in a cell
+     * @param column Column position
+     * @param row Row index
+     */
+    public void setNull(int column, int row) {
+        markSpecial(column, row, CellState.NULL);
+    }
+
+    /**
+     * Store an integral value in a cell
+     * @param column Column position
+     * @param row Row index
+     * @param value Value read from the result set
+     */
+    public void setLong(int column, int row, long value) {
+        long scaled = ScaledDecimal.of(value);
+        if (scaled != ScaledDecimal.NOT_SCALED) {
+            setScaled(column, row, scaled);
+        } else {
+            setDecimal(column, row, BigDecimal.valueOf(value));
+        }
+    }
+
+    /**
+     * Store a floating-point value in a cell; NaN and infinities are invalid. Only values with
+     * more decimal places or integer digits than fit are converted to decimals.
+     * @param column Column position
+     * @param row Row index
+     * @param value Value read from the result set
+     */
+    public void setDouble(int column, int row, double value) {
+        if (!Double.isFinite(value)) {
+            markSpecial(column, row, CellState.INVALID);
+            return;
+        }
+        long scaled = ScaledDecimal.of(value);
+        if (scaled != ScaledDecimal.NOT_SCALED) {
+            setScaled(column, row, scaled);
+        } else {
+            setDecimal(column, row, BigDecimal.valueOf(value));
+        }
+    }
+
+    /**
+     * Store a decimal value in a cell
+     * @param column Column position
+     * @param row Row index
+     * @param value Value read from the result set, or null
+     */
+    public void setDecimal(int column, int row, BigDecimal value) {
+        if (value == null) {
+            setNull(column, row);
+            return;
+        }
+        long scaled = ScaledDecimal.of(value);
+        if (scaled != ScaledDecimal.NOT_SCALED) {
+            setScaled(column, row, scaled);
+        } else {
+            // Keep values that would lose digits as exact decimals
+            if (decimals[column] == null) {
+                decimals[column] = new BigDecimal[capacity];
+            }
+            decimals[column][row] = value;
+            markSpecial(column, row, CellState.DECIMAL);
+        }
+    }
+
+    /**
+     * Store a text value in a cell, classifying blank and N/A text as special cells
+     * @param column Column position
+     * @param row Row index
+     * @param value Value read from the result set, or null
+     */
+    public void setString(int column, int row, String value) {
+        if (value == null) {
+            setNull(column, row);
+        } else if (value.trim().isEmpty()) {
+            markSpecial(column, row, CellState.BLANK);
+        } else if (value.equalsIgnoreCase("N/A")) {
+            markSpecial(column, row, CellState.NOT_AVAILABLE);
+        } else {
+            try {
+                setDecimal(column, row, new BigDecimal(value.trim()));
+            } catch (NumberFormatException e) {
+                markSpecial(column, row, CellState.INVALID);
+            }
+        }
+    }
+
+    private void setScaled(int column, int row, long scaled) {
+        scaledValues[column][row] = scaled;
+        specialBits[column][row >>> 6] &= ~(1L << row);
+    }
+
+    private void markSpecial(int column, int row, CellState state) {
+        scaledValues[column][row] = 0L;
+        states[column][row] = (byte) state.ordinal();
+        specialBits[column][row >>> 6] |= 1L << row;
+    }
+
+    /**
+     * Number of rows in the batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of columns in the batch
+     */
+    public int columnCount() {
+        return scaledValues.length;
+    }
+
+    /**
+     * Check whether the batch has reached its capacity
+     */
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * Reset the batch for reuse without releasing its arrays
+     */
+    public void clear() {
+        for (int column = 0; column < scaledValues.length; column++) {
+            Arrays.fill(specialBits[column], 0L);
+            if (decimals[column] != null) {
+                Arrays.fill(decimals[column], 0, size, null);
+            }
+        }
+        size = 0;
+    }
+
+    /**
+     * Get the scaled values of a column. Only the first {@link #size()} entries are valid,
+     * and entries whose special bit is set hold zero.
+     * @param column Column position
+     * @return Backing array of scaled values
+     */
+    public long[] scaledValues(int column) {
+        return scaledValues[column];
+    }
+
+    /**
+     * Get one 64-row word of a column's special-cell bitmap
+     * @param column Column position
+     * @param word Word index (row / 64)
+     * @return Bitmap word; zero if all 64 rows hold plain scaled values
+     */
+    public long specialWord(int column, int word) {
+        return specialBits[column][word];
+    }
+
+    /**
+     * Get the state of a cell
+     * @param column Column position
+     * @param row Row index
+     * @return Cell state
+     */
+    public CellState state(int column, int row) {
+        return (specialBits[column][row >>> 6] & (1L << row)) == 0
+                ? CellState.VALUE
+                : STATES[states[column][row]];
+    }
+
+    /**
+     * Get the exact value of a cell stored as {@link CellState#DECIMAL}
+     * @param column Column position
+     * @param row Row index
+     * @return Exact decimal value
+     */
+    public BigDecimal decimal(int column, int row) {
+        return decimals[column][row];
+    }
+}
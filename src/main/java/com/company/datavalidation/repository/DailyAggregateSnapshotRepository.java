@@ -0,0 +1,16 @@
+package com.company.datavalidation.repository;
+
+import com.company.datavalidation.model.DailyAggregateSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailyAggregateSnapshotRepository extends JpaRepository<DailyAggregateSnapshot, Long> {
+
+    List<DailyAggregateSnapshot> findByColumnComparisonConfigIdInAndSnapshotDate(Collection<Long> columnConfigIds,
+                                                                                 LocalDate snapshotDate);
+}
@@ -0,0 +1,70 @@
+package com.company.datavalidation.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Builds date filters as half-open ranges on the bare column ({@code col >= ? AND col < ?}).
+ * Unlike {@code CONVERT(date, col) = ?}, a range leaves the column untouched, so the database
+ * can seek an index on it instead of scanning the whole table.
+ */
+public final class DatePredicateBuilder {
+
+    private final SqlDialect dialect;
+
+    public DatePredicateBuilder(SqlDialect dialect) {
+        this.dialect = dialect;
+    }
+
+    /**
+     * Get the dialect the predicates are written for
+     * @return SQL dialect
+     */
+    public SqlDialect dialect() {
+        return dialect;
+    }
+
+    /**
+     * Date filter together with the parameters it binds
+     * @param sql Predicate SQL with positional parameters
+     * @param parameters Parameter values in order
+     */
+    public record DatePredicate(String sql, List<Object> parameters) {
+
+        public Object[] parameterArray() {
+            return parameters.toArray();
+        }
+    }
+
+    /**
+     * Match rows on a single day
+     * @param column Date or datetime column
+     * @param date Day to match
+     * @return Predicate for [date, date + 1)
+     */
+    public DatePredicate onDate(String column, LocalDate date) {
+        return between(column, date, date.plusDays(1));
+    }
+
+    /**
+     * Match rows within a range of days
+     * @param column Date or datetime column
+     * @param fromDate First day of the range (inclusive)
+     * @param toDate Last day of the range (exclusive)
+     * @return Predicate for [fromDate, toDate)
+     */
+    public DatePredicate between(String column, LocalDate fromDate, LocalDate toDate) {
+        return new DatePredicate("%s >= ? AND %s < ?".formatted(column, column), List.of(fromDate, toDate));
+    }
+
+    /**
+     * Match rows on the database server's current day
+     * @param column Date or datetime column
+     * @return Predicate for [today, today + 1) using the server clock
+     */
+    public DatePredicate onCurrentDate(String column) {
+        String today = dialect.getCurrentDateExpression();
+        return new DatePredicate("%s >= %s AND %s < %s".formatted(column, today, column, dialect.addDays(today, 1)),
+                List.of());
+    }
+}
@@ -1,27 +1,75 @@
 package com.company.datavalidation.repository;
 
-import lombok.RequiredArgsConstructor;
+import com.company.datavalidation.model.DiscrepancyType;
+import com.company.datavalidation.model.PartitionStrategy;
+import com.company.datavalidation.repository.DatePredicateBuilder.DatePredicate;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 @Repository
-@RequiredArgsConstructor
 @Slf4j
 public class DynamicTableRepository {
 
     private final JdbcTemplate jdbcTemplate;
 
+    @Value("${datavalidation.query.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${datavalidation.query.batch-size:1024}")
+    private int batchSize = ColumnarRowBatch.DEFAULT_CAPACITY;
+
+    @Value("${datavalidation.cross-table.chunk-size:1000}")
+    private int crossTableChunkSize = 1000;
+
+    @Value("${datavalidation.cross-table.max-buffered-rows:10000}")
+    private int crossTableMaxBufferedRows = 10000;
+
+    private final Map<String, DatePredicateBuilder> datePredicateBuilders = new ConcurrentHashMap<>();
+
+    public DynamicTableRepository(@Qualifier("sourceJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
     /**
      * Get data from a table for the current day
      * @param tableName Name of the table
@@ -47,26 +95,162 @@ public class DynamicTableRepository {
      */
     public List<Map<String, Object>> getDataForDate(String tableName, List<String> columnNames,
                                                     String dateColumn, LocalDate date, String exclusionCondition) {
+        DatePredicate datePredicate = datePredicates().onDate(dateColumn, date);
+        String query = buildDateQuery(tableName, columnNames, datePredicate, PartitionPredicate.WHOLE_TABLE,
+                exclusionCondition);
+
+        log.debug("Executing query for date {}: {}", date, query);
+        return jdbcTemplate.query(query, ColumnLayout.rowMapper(), datePredicate.parameterArray());
+    }
+
+    /**
+     * Stream data from a table for a specific date without materialising the result set.
+     * Each row is pushed to the handler while the cursor is open, so memory use does not
+     * grow with the number of rows returned.
+     * @param tableName Name of the table
+     * @param columnNames Columns to select
+     * @param dateColumn Date column to filter on
+     * @param date Date to filter on
+     * @param exclusionCondition Optional exclusion condition
+     * @param rowCallbackHandler Handler invoked once per row
+     */
+    public void streamDataForDate(String tableName, List<String> columnNames, String dateColumn,
+                                  LocalDate date, String exclusionCondition, RowCallbackHandler rowCallbackHandler) {
+        streamDataForDate(tableName, columnNames, dateColumn, date, PartitionPredicate.WHOLE_TABLE,
+                exclusionCondition, rowCallbackHandler);
+    }
+
+    /**
+     * Stream one partition of a table for a specific date without materialising the result set
+     * @param tableName Name of the table
+     * @param columnNames Columns to select
+     * @param dateColumn Date column to filter on
+     * @param date Date to filter on
+     * @param partition Partition of the table to scan
+     * @param exclusionCondition Optional exclusion condition
+     * @param rowCallbackHandler Handler invoked once per row
+     */
+    public void streamDataForDate(String tableName, List<String> columnNames, String dateColumn, LocalDate date,
+                                  PartitionPredicate partition, String exclusionCondition,
+                                  RowCallbackHandler rowCallbackHandler) {
+        DatePredicate datePredicate = datePredicates().onDate(dateColumn, date);
+        String query = buildDateQuery(tableName, columnNames, datePredicate, partition, exclusionCondition);
+        Object[] parameters = parameters(datePredicate, partition);
+
+        log.debug("Streaming query for date {} with fetch size {}: {}", date, fetchSize, query);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            return statement;
+        }, rowCallbackHandler);
+    }
+
+    /**
+     * Stream rows of a table for a specific date as columnar batches.
+     * A single batch is refilled and handed to the consumer each time it is full, so the
+     * consumer must not retain it. Columns are positioned in the order of columnNames.
+     * @param tableName Name of the table
+     * @param columnNames Columns to select
+     * @param dateColumn Date column to filter on
+     * @param date Date to filter on
+     * @param exclusionCondition Optional exclusion condition
+     * @param batchConsumer Consumer invoked with each filled batch
+     */
+    public void streamBatchesForDate(String tableName, List<String> columnNames, String dateColumn,
+                                     LocalDate date, String exclusionCondition,
+                                     Consumer<ColumnarRowBatch> batchConsumer) {
+        streamBatchesForDate(tableName, columnNames, dateColumn, date, PartitionPredicate.WHOLE_TABLE,
+                exclusionCondition, batchConsumer);
+    }
+
+    /**
+     * Stream one partition of a table for a specific date as columnar batches
+     * @param tableName Name of the table
+     * @param columnNames Columns to select
+     * @param dateColumn Date column to filter on
+     * @param date Date to filter on
+     * @param partition Partition of the table to scan
+     * @param exclusionCondition Optional exclusion condition
+     * @param batchConsumer Consumer invoked with each filled batch
+     */
+    public void streamBatchesForDate(String tableName, List<String> columnNames, String dateColumn, LocalDate date,
+                                     PartitionPredicate partition, String exclusionCondition,
+                                     Consumer<ColumnarRowBatch> batchConsumer) {
+        int columnCount = columnNames.size();
+        ColumnarRowBatch batch = new ColumnarRowBatch(columnCount, batchSize);
+        streamDataForDate(tableName, columnNames, dateColumn, date, partition, exclusionCondition,
+                new RowCallbackHandler() {
+                    private ColumnLayout.CellReader[] readers;
+
+                    @Override
+                    public void processRow(ResultSet rs) throws SQLException {
+                        // Choose each column's typed getter from the first row's metadata
+                        if (readers == null) {
+                            readers = ColumnLayout.cellReaders(rs.getMetaData());
+                        }
+                        int row = batch.addRow();
+                        for (int column = 0; column < columnCount; column++) {
+                            readers[column].read(rs, column + 1, batch, column, row);
+                        }
+                        if (batch.isFull()) {
+                            batchConsumer.accept(batch);
+                            batch.clear();
+                        }
+                    }
+                });
+
+        // Flush the final partial batch
+        if (batch.size() > 0) {
+            batchConsumer.accept(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Build a query selecting columns of a table filtered by a date predicate
+     * @param tableName Name of the table
+     * @param columnNames Columns to select
+     * @param datePredicate Date predicate to filter on
+     * @param exclusionCondition Optional exclusion condition
+     * @return Query binding the parameters of the date predicate
+     */
+    private String buildDateQuery(String tableName, List<String> columnNames, DatePredicate datePredicate,
+                                  PartitionPredicate partition, String exclusionCondition) {
         // Format columns for select clause
         String columnsClause = columnNames.stream().collect(Collectors.joining(", "));
 
         // Build query with modern text block
-        String query = """
+        return """
             SELECT %s
             FROM %s
-            WHERE CONVERT(date, %s) = ?
+            WHERE %s
+            %s
             %s
             """.formatted(
                 columnsClause,
                 tableName,
-                dateColumn,
+                datePredicate.sql(),
+                partition.isWholeTable() ? "" : "AND " + partition.sql(),
                 exclusionCondition != null && !exclusionCondition.isEmpty()
                         ? "AND " + exclusionCondition
                         : ""
         );
+    }
 
-        log.debug("Executing query for date {}: {}", date, query);
-        return jdbcTemplate.query(query, this::mapRowWithColumns, date);
+    /**
+     * Combine the parameters of a date predicate and a partition in binding order
+     * @param datePredicate Date predicate
+     * @param partition Partition predicate
+     * @return Parameters to bind
+     */
+    private Object[] parameters(DatePredicate datePredicate, PartitionPredicate partition) {
+        List<Object> parameters = new ArrayList<>(datePredicate.parameters());
+        parameters.addAll(partition.parameters());
+        return parameters.toArray();
     }
 
     /**
@@ -98,6 +282,249 @@ public class DynamicTableRepository {
                                                             List<String> sourceColumns, List<String> targetColumns,
                                                             String joinCondition, String dateColumn,
                                                             String exclusionCondition) {
+        String columnsClause = crossTableColumnsClause(sourceColumns, targetColumns);
+
+        // Filter on the server's current day
+        DatePredicate datePredicate = datePredicates().onCurrentDate("s." + dateColumn);
+
+        // Build query with modern text block
+        String query = """
+            SELECT %s
+            FROM %s s
+            JOIN %s t ON %s
+            WHERE %s
+            %s
+            """.formatted(
+                columnsClause,
+                sourceTable,
+                targetTable,
+                joinCondition,
+                datePredicate.sql(),
+                exclusionCondition != null && !exclusionCondition.isEmpty()
+                        ? "AND " + exclusionCondition
+                        : ""
+        );
+
+        log.debug("Executing cross-table query: {}", query);
+        return jdbcTemplate.query(query, ColumnLayout.rowMapper(), datePredicate.parameterArray());
+    }
+
+    /**
+     * Stream the server's current day of a cross-table comparison query in chunks paged on a source key
+     * @param sourceTable Source table name
+     * @param targetTable Target table name
+     * @param sourceColumns Source columns to select
+     * @param targetColumns Target columns to select
+     * @param joinCondition Join condition between tables
+     * @param keyColumn Source key column to page on
+     * @param dateColumn Date column to filter on
+     * @param exclusionCondition Optional exclusion condition
+     * @param rowConsumer Consumer invoked once per row, in key order
+     * @see #streamCrossTableQueryByKey(String, String, List, List, String, String, String, LocalDate, String, Consumer)
+     */
+    public void streamCrossTableQueryByKey(String sourceTable, String targetTable,
+                                           List<String> sourceColumns, List<String> targetColumns,
+                                           String joinCondition, String keyColumn, String dateColumn,
+                                           String exclusionCondition, Consumer<Map<String, Object>> rowConsumer) {
+        streamCrossTableQueryByKey(sourceTable, targetTable, sourceColumns, targetColumns, joinCondition,
+                keyColumn, datePredicates().onCurrentDate("s." + dateColumn), exclusionCondition, rowConsumer);
+    }
+
+    /**
+     * Stream a day of a cross-table comparison query in chunks paged on a source key.
+     * A virtual thread fetches chunks with keyset pagination ({@code s.key >= ? ORDER BY s.key})
+     * into a bounded queue while the calling thread consumes rows, so fetching overlaps with
+     * comparison and at most maxBufferedRows rows are held in the queue. The key must identify
+     * a single row of the join result: each chunk re-reads the last key of the previous one, and
+     * a key seen twice (e.g. a one-to-many join) fails the stream instead of silently skipping rows.
+     * @param sourceTable Source table name
+     * @param targetTable Target table name
+     * @param sourceColumns Source columns to select
+     * @param targetColumns Target columns to select
+     * @param joinCondition Join condition between tables
+     * @param keyColumn Source key column to page on
+     * @param dateColumn Date column to filter on
+     * @param date Day to stream
+     * @param exclusionCondition Optional exclusion condition
+     * @param rowConsumer Consumer invoked once per row, in key order
+     * @throws IllegalStateException if the key is null or not unique in the join result
+     */
+    public void streamCrossTableQueryByKey(String sourceTable, String targetTable,
+                                           List<String> sourceColumns, List<String> targetColumns,
+                                           String joinCondition, String keyColumn, String dateColumn,
+                                           LocalDate date, String exclusionCondition,
+                                           Consumer<Map<String, Object>> rowConsumer) {
+        streamCrossTableQueryByKey(sourceTable, targetTable, sourceColumns, targetColumns, joinCondition,
+                keyColumn, datePredicates().onDate("s." + dateColumn, date), exclusionCondition, rowConsumer);
+    }
+
+    private void streamCrossTableQueryByKey(String sourceTable, String targetTable,
+                                            List<String> sourceColumns, List<String> targetColumns,
+                                            String joinCondition, String keyColumn, DatePredicate datePredicate,
+                                            String exclusionCondition, Consumer<Map<String, Object>> rowConsumer) {
+        int chunkSize = Math.max(1, crossTableChunkSize);
+        BlockingQueue<List<Map<String, Object>>> chunks =
+                new ArrayBlockingQueue<>(Math.max(1, crossTableMaxBufferedRows / chunkSize));
+        List<Map<String, Object>> endOfRows = new ArrayList<>();
+        AtomicReference<RuntimeException> fetchFailure = new AtomicReference<>();
+
+        String firstQuery = buildCrossTableChunkQuery(sourceTable, targetTable, sourceColumns, targetColumns,
+                joinCondition, keyColumn, datePredicate, false, exclusionCondition);
+        String nextQuery = buildCrossTableChunkQuery(sourceTable, targetTable, sourceColumns, targetColumns,
+                joinCondition, keyColumn, datePredicate, true, exclusionCondition);
+        log.debug("Streaming cross-table query in chunks of {}: {}", chunkSize, nextQuery);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> fetch = executor.submit(() -> {
+                try {
+                    Object lastKey = null;
+                    while (true) {
+                        CrossTableChunk chunk = lastKey == null
+                                ? fetchCrossTableChunk(firstQuery, datePredicate, null, keyColumn, chunkSize)
+                                : fetchCrossTableChunk(nextQuery, datePredicate, lastKey, keyColumn, chunkSize);
+                        if (!chunk.rows().isEmpty()) {
+                            chunks.put(chunk.rows());
+                        }
+                        if (chunk.last()) {
+                            break;
+                        }
+                        if (chunk.lastKey() == null) {
+                            throw new IllegalStateException("Key column " + keyColumn + " returned a null key");
+                        }
+                        lastKey = chunk.lastKey();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    fetchFailure.set(e);
+                } finally {
+                    // Block rather than offer: a full queue must not lose the marker the consumer waits for.
+                    // Only the consumer cancels the fetch, and once it has it no longer takes from the queue.
+                    try {
+                        chunks.put(endOfRows);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+
+            try {
+                for (List<Map<String, Object>> chunk = chunks.take(); chunk != endOfRows; chunk = chunks.take()) {
+                    chunk.forEach(rowConsumer);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while streaming cross-table rows", e);
+            } finally {
+                // Stop fetching if the consumer failed before the last chunk
+                fetch.cancel(true);
+                chunks.clear();
+            }
+        }
+
+        if (fetchFailure.get() != null) {
+            throw fetchFailure.get();
+        }
+    }
+
+    /**
+     * Build a keyset-paginated cross-table query ordered by the key, with the key selected first
+     * @param sourceTable Source table name
+     * @param targetTable Target table name
+     * @param sourceColumns Source columns to select
+     * @param targetColumns Target columns to select
+     * @param joinCondition Join condition between tables
+     * @param keyColumn Source key column to page on
+     * @param datePredicate Date predicate on the source table
+     * @param afterKey True to return only rows from a bound key on, false for the first chunk
+     * @param exclusionCondition Optional exclusion condition
+     * @return Query binding the date parameters, the key if afterKey is set, and the row limit
+     */
+    private String buildCrossTableChunkQuery(String sourceTable, String targetTable,
+                                             List<String> sourceColumns, List<String> targetColumns,
+                                             String joinCondition, String keyColumn, DatePredicate datePredicate,
+                                             boolean afterKey, String exclusionCondition) {
+        return """
+            SELECT s.%s AS row_key, %s
+            FROM %s s
+            JOIN %s t ON %s
+            WHERE %s
+            %s
+            %s
+            ORDER BY s.%s
+            OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY
+            """.formatted(
+                keyColumn,
+                crossTableColumnsClause(sourceColumns, targetColumns),
+                sourceTable,
+                targetTable,
+                joinCondition,
+                datePredicate.sql(),
+                afterKey ? "AND s." + keyColumn + " >= ?" : "",
+                exclusionCondition != null && !exclusionCondition.isEmpty()
+                        ? "AND " + exclusionCondition
+                        : "",
+                keyColumn
+        );
+    }
+
+    /**
+     * Fetch one chunk of a keyset-paginated cross-table query. A continuation chunk reads one row
+     * more than the chunk size, since its first row repeats the last row of the previous chunk.
+     * @param query Chunk query
+     * @param datePredicate Date predicate of the query
+     * @param afterKey Last key of the previous chunk, or null for the first chunk
+     * @param keyColumn Source key column, for error messages
+     * @param chunkSize Maximum new rows in the chunk
+     * @return Rows of the chunk, the key of its last row and whether it was the last chunk
+     * @throws IllegalStateException if a key repeats
+     */
+    private CrossTableChunk fetchCrossTableChunk(String query, DatePredicate datePredicate, Object afterKey,
+                                                 String keyColumn, int chunkSize) {
+        int limit = afterKey == null ? chunkSize : chunkSize + 1;
+        List<Object> parameters = new ArrayList<>(datePredicate.parameters());
+        if (afterKey != null) {
+            parameters.add(afterKey);
+        }
+        parameters.add(limit);
+
+        return jdbcTemplate.query(query, rs -> {
+            List<Map<String, Object>> rows = new ArrayList<>(chunkSize);
+            ColumnLayout layout = null;
+            Object lastKey = afterKey;
+            int fetched = 0;
+            while (rs.next()) {
+                Object key = rs.getObject(1);
+                if (fetched++ == 0 && afterKey != null && afterKey.equals(key)) {
+                    // The row already delivered by the previous chunk
+                    continue;
+                }
+                if (key != null && key.equals(lastKey)) {
+                    throw new IllegalStateException("Key column " + keyColumn + " is not unique in the join: "
+                            + "key " + key + " matches more than one row");
+                }
+                if (layout == null) {
+                    layout = ColumnLayout.resolve(rs.getMetaData());
+                }
+                rows.add(layout.mapRow(rs));
+                lastKey = key;
+            }
+            return new CrossTableChunk(rows, lastKey, fetched < limit);
+        }, parameters.toArray());
+    }
+
+    /**
+     * Rows of one keyset page and the key to continue after
+     */
+    private record CrossTableChunk(List<Map<String, Object>> rows, Object lastKey, boolean last) {}
+
+    /**
+     * Build the select list of a cross-table query, prefixing source and target columns
+     * @param sourceColumns Source columns to select
+     * @param targetColumns Target columns to select
+     * @return Columns clause
+     */
+    private String crossTableColumnsClause(List<String> sourceColumns, List<String> targetColumns) {
         // Format source columns for select clause
         String sourceColumnsClause = sourceColumns.stream()
                 .map(col -> "s." + col + " AS s_" + col)
@@ -109,28 +536,615 @@ public class DynamicTableRepository {
                 .collect(Collectors.joining(", "));
 
         // Build the combined columns clause
-        String columnsClause = String.join(", ", sourceColumnsClause, targetColumnsClause);
+        return String.join(", ", sourceColumnsClause, targetColumnsClause);
+    }
 
-        // Build query with modern text block
+    /**
+     * Count the current day's rows of one side of a cross-table comparison that have no
+     * counterpart on the other side under the join condition. The count runs as a
+     * {@code NOT EXISTS} anti-join on the server, so no orphan row is transferred.
+     * The rows of the current day on either side are matched against the rows of any day on the
+     * other side, as the comparison join does, so a row whose counterpart is dated another day
+     * is not an orphan on either side.
+     * @param side SOURCE_ONLY to count source orphans, TARGET_ONLY to count target orphans
+     * @param sourceTable Source table name
+     * @param targetTable Target table name
+     * @param joinCondition Join condition between tables
+     * @param dateColumn Date column to filter on
+     * @return Number of rows missing from the other side
+     */
+    public long countMissingRows(DiscrepancyType side, String sourceTable, String targetTable,
+                                 String joinCondition, String dateColumn) {
+        MissingRowQuery missingRows = missingRowQuery(side, sourceTable, targetTable, joinCondition, dateColumn);
+        String query = "SELECT COUNT(*) " + missingRows.fromClause();
+
+        log.debug("Counting {} rows: {}", side, query);
+        Long count = jdbcTemplate.queryForObject(query, Long.class, missingRows.parameters().toArray());
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * Stream the keys of the current day's rows of one side of a cross-table comparison that have
+     * no counterpart on the other side, through a forward-only cursor so memory use does not
+     * grow with the number of orphans
+     * @param side SOURCE_ONLY to stream source orphans, TARGET_ONLY to stream target orphans
+     * @param sourceTable Source table name
+     * @param targetTable Target table name
+     * @param joinCondition Join condition between tables
+     * @param keyColumn Key column of the side being streamed
+     * @param dateColumn Date column to filter on
+     * @param keyConsumer Consumer invoked once per missing row's key
+     */
+    public void streamMissingRowKeys(DiscrepancyType side, String sourceTable, String targetTable,
+                                     String joinCondition, String keyColumn, String dateColumn,
+                                     Consumer<Object> keyConsumer) {
+        MissingRowQuery missingRows = missingRowQuery(side, sourceTable, targetTable, joinCondition, dateColumn);
+        String alias = side == DiscrepancyType.SOURCE_ONLY ? "s" : "t";
+        String query = "SELECT %s.%s %s".formatted(alias, keyColumn, missingRows.fromClause());
+        Object[] parameters = missingRows.parameters().toArray();
+
+        log.debug("Streaming {} keys with fetch size {}: {}", side, fetchSize, query);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> keyConsumer.accept(rs.getObject(1)));
+    }
+
+    /**
+     * Build the FROM and WHERE clauses of an anti-join selecting the rows of one side that have
+     * no counterpart on the other side
+     * @param side SOURCE_ONLY or TARGET_ONLY
+     * @param sourceTable Source table name
+     * @param targetTable Target table name
+     * @param joinCondition Join condition between tables
+     * @param dateColumn Date column to filter on
+     * @return Clauses and the parameters they bind, in order
+     */
+    private MissingRowQuery missingRowQuery(DiscrepancyType side, String sourceTable, String targetTable,
+                                            String joinCondition, String dateColumn) {
+        return switch (side) {
+            case SOURCE_ONLY -> {
+                DatePredicate sourceDate = datePredicates().onCurrentDate("s." + dateColumn);
+                yield new MissingRowQuery("""
+                    FROM %s s
+                    WHERE %s
+                    AND NOT EXISTS (SELECT 1 FROM %s t WHERE %s)
+                    """.formatted(sourceTable, sourceDate.sql(), targetTable, joinCondition),
+                        sourceDate.parameters());
+            }
+            case TARGET_ONLY -> {
+                DatePredicate targetDate = datePredicates().onCurrentDate("t." + dateColumn);
+                yield new MissingRowQuery("""
+                    FROM %s t
+                    WHERE %s
+                    AND NOT EXISTS (SELECT 1 FROM %s s WHERE %s)
+                    """.formatted(targetTable, targetDate.sql(), sourceTable, joinCondition),
+                        targetDate.parameters());
+            }
+            default -> throw new IllegalArgumentException("Not a missing-row discrepancy: " + side);
+        };
+    }
+
+    /**
+     * FROM and WHERE clauses of a missing-row anti-join and the parameters they bind
+     */
+    private record MissingRowQuery(String fromClause, List<Object> parameters) {}
+
+    /**
+     * Merge-join two tables by key in a single streaming pass. The tables may live on different
+     * source datasources: each side is read through its own connection with a forward-only cursor
+     * ordered by its key, and the cursors advance in step, so memory use does not grow with the
+     * number of rows. Keys must be unique within each side and sort the same way on both servers;
+     * string keys need a binary collation, otherwise the merge fails rather than misreport rows.
+     * @param source Source side
+     * @param target Target side
+     * @param handler Handler invoked once per key, in ascending key order
+     * @return Number of matched, source-only and target-only keys
+     */
+    public MergeJoinSummary mergeJoinByKey(KeyedTableScan source, KeyedTableScan target, MergeJoinHandler handler) {
+        return mergeJoinByKey(source, target, false, handler);
+    }
+
+    /**
+     * Merge-join two tables by key, reading only the key and a 64-bit fingerprint of the scanned
+     * columns of each row. Rows are handed to the handler with just the row_key and row_fingerprint
+     * columns; rows whose fingerprints differ can then be read in full with {@link #findRowsByKeys}.
+     * @param source Source side
+     * @param target Target side
+     * @param handler Handler invoked once per key, in ascending key order
+     * @return Number of matched, source-only and target-only keys
+     * @see SqlDialect#rowFingerprint
+     */
+    public MergeJoinSummary mergeJoinFingerprintsByKey(KeyedTableScan source, KeyedTableScan target,
+                                                       MergeJoinHandler handler) {
+        return mergeJoinByKey(source, target, true, handler);
+    }
+
+    private MergeJoinSummary mergeJoinByKey(KeyedTableScan source, KeyedTableScan target, boolean fingerprint,
+                                            MergeJoinHandler handler) {
+        try (KeyedCursor sourceCursor = openKeyedCursor(source, fingerprint);
+             KeyedCursor targetCursor = openKeyedCursor(target, fingerprint)) {
+            return mergeJoin(sourceCursor, targetCursor, handler);
+        } catch (SQLException e) {
+            throw translate("Merge join", null, e);
+        }
+    }
+
+    /**
+     * Read the current day's rows of a table with some keys, on the table's own datasource
+     * @param scan Table to read
+     * @param keys Keys to look up, at most a few hundred per call
+     * @return Rows found, each with its key in row_key, in no particular order
+     */
+    public List<Map<String, Object>> findRowsByKeys(KeyedTableScan scan, List<?> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+
+        return SourceDataSource.call(scan.datasourceName(), () -> {
+            DatePredicate datePredicate = datePredicates().onCurrentDate(scan.dateColumn());
+            String query = """
+                SELECT %s AS row_key, %s
+                FROM %s
+                WHERE %s
+                AND %s IN (%s)
+                """.formatted(
+                    scan.keyColumn(),
+                    String.join(", ", scan.columnNames()),
+                    scan.tableName(),
+                    datePredicate.sql(),
+                    scan.keyColumn(),
+                    String.join(", ", Collections.nCopies(keys.size(), "?"))
+            );
+            List<Object> parameters = new ArrayList<>(datePredicate.parameters());
+            parameters.addAll(keys);
+
+            log.debug("Reading {} rows by key from source {}: {}", keys.size(), SourceDataSource.current(), query);
+            return queryWithOwnConnection("Find rows by keys", query, parameters, rs -> {
+                List<Map<String, Object>> rows = new ArrayList<>(keys.size());
+                RowMapper<Map<String, Object>> rowMapper = ColumnLayout.rowMapper();
+                while (rs.next()) {
+                    rows.add(rowMapper.mapRow(rs, rows.size()));
+                }
+                return rows;
+            });
+        });
+    }
+
+    /**
+     * Stream the keys of the current day's rows of a table in no particular order, through a
+     * forward-only cursor on a connection of the table's datasource taken straight from its pool
+     * @param scan Table to read; its columns are not read
+     * @param keyConsumer Consumer invoked once per non-null key
+     */
+    public void streamKeys(KeyedTableScan scan, Consumer<Object> keyConsumer) {
+        SourceDataSource.call(scan.datasourceName(), () -> {
+            DatePredicate datePredicate = datePredicates().onCurrentDate(scan.dateColumn());
+            String query = """
+                SELECT %s
+                FROM %s
+                WHERE %s
+                AND %s IS NOT NULL
+                %s
+                """.formatted(
+                    scan.keyColumn(),
+                    scan.tableName(),
+                    datePredicate.sql(),
+                    scan.keyColumn(),
+                    scan.exclusionCondition() != null && !scan.exclusionCondition().isEmpty()
+                            ? "AND " + scan.exclusionCondition()
+                            : ""
+            );
+
+            log.debug("Streaming keys from source {} with fetch size {}: {}",
+                    SourceDataSource.current(), fetchSize, query);
+            return withOwnConnection("Stream keys", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    statement.setFetchSize(fetchSize);
+                    List<Object> parameters = datePredicate.parameters();
+                    for (int i = 0; i < parameters.size(); i++) {
+                        statement.setObject(i + 1, parameters.get(i));
+                    }
+                    long keys = 0;
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            keyConsumer.accept(rs.getObject(1));
+                            keys++;
+                        }
+                    }
+                    return keys;
+                }
+            });
+        });
+    }
+
+    /**
+     * Find which of the given keys exist among the current day's rows of a table
+     * @param scan Table to look in; its columns are not read
+     * @param keys Keys to look up
+     * @return Keys found, as read from the table
+     */
+    public List<Object> findExistingKeys(KeyedTableScan scan, List<?> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+
+        return SourceDataSource.call(scan.datasourceName(), () -> {
+            DatePredicate datePredicate = datePredicates().onCurrentDate(scan.dateColumn());
+            String query = """
+                SELECT %s
+                FROM %s
+                WHERE %s
+                AND %s IN (%s)
+                %s
+                """.formatted(
+                    scan.keyColumn(),
+                    scan.tableName(),
+                    datePredicate.sql(),
+                    scan.keyColumn(),
+                    String.join(", ", Collections.nCopies(keys.size(), "?")),
+                    scan.exclusionCondition() != null && !scan.exclusionCondition().isEmpty()
+                            ? "AND " + scan.exclusionCondition()
+                            : ""
+            );
+            List<Object> parameters = new ArrayList<>(datePredicate.parameters());
+            parameters.addAll(keys);
+
+            log.debug("Looking up {} keys in source {}: {}", keys.size(), SourceDataSource.current(), query);
+            return queryWithOwnConnection("Find existing keys", query, parameters, rs -> {
+                List<Object> found = new ArrayList<>();
+                while (rs.next()) {
+                    found.add(rs.getObject(1));
+                }
+                return found;
+            });
+        });
+    }
+
+    /**
+     * Find the columns of a table with a numeric SQL type, which the database can sum
+     * @param tableName Table name
+     * @param columnNames Columns to check
+     * @return The columns of an integer, decimal or floating-point type
+     */
+    public Set<String> findNumericColumns(String tableName, List<String> columnNames) {
+        List<Integer> jdbcTypes = findColumnTypes(tableName, columnNames);
+        Set<String> numericColumns = new HashSet<>();
+        for (int i = 0; i < columnNames.size(); i++) {
+            switch (jdbcTypes.get(i)) {
+                case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT,
+                     Types.DECIMAL, Types.NUMERIC, Types.REAL, Types.FLOAT, Types.DOUBLE ->
+                        numericColumns.add(columnNames.get(i));
+                default -> { }
+            }
+        }
+        return numericColumns;
+    }
+
+    /**
+     * Read the SQL types of some columns of a table, on a connection of the current source
+     * taken straight from its pool
+     * @param tableName Table name
+     * @param columnNames Columns to read
+     * @return JDBC types from {@link Types}, aligned with the columns
+     */
+    public List<Integer> findColumnTypes(String tableName, List<String> columnNames) {
+        String query = "SELECT %s FROM %s WHERE 1 = 0".formatted(String.join(", ", columnNames), tableName);
+        log.debug("Reading column types on source {}: {}", SourceDataSource.current(), query);
+        return queryWithOwnConnection("Read column types", query, List.of(), rs -> {
+            ResultSetMetaData metaData = rs.getMetaData();
+            List<Integer> jdbcTypes = new ArrayList<>(columnNames.size());
+            for (int i = 1; i <= columnNames.size(); i++) {
+                jdbcTypes.add(metaData.getColumnType(i));
+            }
+            return jdbcTypes;
+        });
+    }
+
+    /**
+     * Check whether the key column of a table holds integers that fit a long, as key ranges and
+     * bucket checksums need, on the table's own datasource
+     * @param scan Table to check
+     * @return True for integer columns and for decimal columns without a fraction of at most 18 digits
+     */
+    public boolean hasIntegralKey(KeyedTableScan scan) {
+        return SourceDataSource.call(scan.datasourceName(), () -> {
+            String query = "SELECT %s FROM %s WHERE 1 = 0".formatted(scan.keyColumn(), scan.tableName());
+            return queryWithOwnConnection("Check key type", query, List.of(), rs -> {
+                ResultSetMetaData metaData = rs.getMetaData();
+                return switch (metaData.getColumnType(1)) {
+                    case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT -> true;
+                    case Types.DECIMAL, Types.NUMERIC -> metaData.getScale(1) == 0 && metaData.getPrecision(1) <= 18;
+                    default -> false;
+                };
+            });
+        });
+    }
+
+    /**
+     * Find the smallest and largest integral key among the current day's rows of a table,
+     * on the table's own datasource
+     * @param scan Table to read
+     * @return Key range, or empty if the table has no rows for the day
+     * @see #hasIntegralKey
+     */
+    public Optional<KeyRange> findKeyRange(KeyedTableScan scan) {
+        return SourceDataSource.call(scan.datasourceName(), () -> {
+            DatePredicate datePredicate = datePredicates().onCurrentDate(scan.dateColumn());
+            String query = """
+                SELECT MIN(%s) AS min_key, MAX(%s) AS max_key
+                FROM %s
+                WHERE %s
+                %s
+                """.formatted(
+                    scan.keyColumn(),
+                    scan.keyColumn(),
+                    scan.tableName(),
+                    datePredicate.sql(),
+                    scan.exclusionCondition() != null && !scan.exclusionCondition().isEmpty()
+                            ? "AND " + scan.exclusionCondition()
+                            : ""
+            );
+
+            log.debug("Executing key range query on source {}: {}", SourceDataSource.current(), query);
+            return queryWithOwnConnection("Find key range", query, datePredicate.parameters(), rs -> {
+                rs.next();
+                long minKey = rs.getLong(1);
+                return rs.wasNull() ? Optional.<KeyRange>empty() : Optional.of(new KeyRange(minKey, rs.getLong(2)));
+            });
+        });
+    }
+
+    /**
+     * Count and checksum the current day's rows of a table in equal-width buckets of an integral
+     * key, on the table's own datasource. The checksum of a bucket is the sum of the fingerprints of
+     * its rows, so it does not depend on row order. The key is fingerprinted with the columns, so
+     * two rows of a bucket swapping their values change its checksum. The offset of each key is taken
+     * as a 38-digit decimal, so a key range spanning more than a long does not overflow, and the
+     * bucket number is floored so decimal keys fall into the same buckets as integer keys.
+     * @param scan Table to read
+     * @param keyRange Keys to include; the first bucket starts at its lower key
+     * @param bucketWidth Keys per bucket
+     * @return Bucket number to its row count and checksum, for non-empty buckets only
+     * @see SqlDialect#rowFingerprint
+     */
+    public Map<Long, BucketChecksum> bucketChecksums(KeyedTableScan scan, KeyRange keyRange, long bucketWidth) {
+        return SourceDataSource.call(scan.datasourceName(), () -> {
+            DatePredicate datePredicate = datePredicates().onCurrentDate(scan.dateColumn());
+            // Bounds are inlined so the grouped expression matches the selected one exactly
+            String bucket = "CAST(FLOOR((CAST(%s AS DECIMAL(38,0)) - (%d)) / %d) AS BIGINT)"
+                    .formatted(scan.keyColumn(), keyRange.lowerKey(), bucketWidth);
+            List<String> keyedColumns = new ArrayList<>(scan.columnNames().size() + 1);
+            keyedColumns.add(scan.keyColumn());
+            keyedColumns.addAll(scan.columnNames());
+            String query = """
+                SELECT %s AS bucket, COUNT(*) AS row_count, SUM(CAST(%s AS DECIMAL(38,0))) AS checksum
+                FROM %s
+                WHERE %s
+                AND %s >= ? AND %s <= ?
+                %s
+                GROUP BY %s
+                """.formatted(
+                    bucket,
+                    dialect().rowFingerprint(keyedColumns, findColumnTypes(scan.tableName(), keyedColumns)),
+                    scan.tableName(),
+                    datePredicate.sql(),
+                    scan.keyColumn(),
+                    scan.keyColumn(),
+                    scan.exclusionCondition() != null && !scan.exclusionCondition().isEmpty()
+                            ? "AND " + scan.exclusionCondition()
+                            : "",
+                    bucket
+            );
+            List<Object> parameters = new ArrayList<>(datePredicate.parameters());
+            parameters.add(keyRange.lowerKey());
+            parameters.add(keyRange.upperKey());
+
+            log.debug("Executing bucket checksum query on source {}: {}", SourceDataSource.current(), query);
+            return queryWithOwnConnection("Bucket checksums", query, parameters, rs -> {
+                Map<Long, BucketChecksum> checksums = new HashMap<>();
+                while (rs.next()) {
+                    checksums.put(rs.getLong(1), new BucketChecksum(rs.getLong(2), rs.getBigDecimal(3)));
+                }
+                return checksums;
+            });
+        });
+    }
+
+    /**
+     * Advance two key-ordered cursors in step, pairing rows with equal keys
+     * @param source Source cursor
+     * @param target Target cursor
+     * @param handler Handler invoked once per key
+     * @return Number of matched, source-only and target-only keys
+     */
+    private MergeJoinSummary mergeJoin(KeyedCursor source, KeyedCursor target, MergeJoinHandler handler)
+            throws SQLException {
+        long matched = 0;
+        long sourceOnly = 0;
+        long targetOnly = 0;
+
+        boolean hasSource = source.next();
+        boolean hasTarget = target.next();
+        while (hasSource || hasTarget) {
+            int order = !hasTarget ? -1 : !hasSource ? 1 : KeyedCursor.compareKeys(source.key(), target.key());
+            if (order == 0) {
+                handler.matched(source.key(), source.row(), target.row());
+                matched++;
+                hasSource = source.next();
+                hasTarget = target.next();
+            } else if (order < 0) {
+                handler.sourceOnly(source.key(), source.row());
+                sourceOnly++;
+                hasSource = source.next();
+            } else {
+                handler.targetOnly(target.key(), target.row());
+                targetOnly++;
+                hasTarget = target.next();
+            }
+        }
+
+        return new MergeJoinSummary(matched, sourceOnly, targetOnly);
+    }
+
+    /**
+     * Open a key-ordered cursor on the current day's rows of a table, on the table's own datasource
+     * @param scan Table to read
+     * @return Cursor positioned before the first row
+     */
+    private KeyedCursor openKeyedCursor(KeyedTableScan scan, boolean fingerprint) {
+        return SourceDataSource.call(scan.datasourceName(), () -> {
+            DatePredicate datePredicate = datePredicates().onCurrentDate(scan.dateColumn());
+            String columnsClause = fingerprint
+                    ? dialect().rowFingerprint(scan.columnNames(), findColumnTypes(scan.tableName(), scan.columnNames()))
+                            + " AS row_fingerprint"
+                    : String.join(", ", scan.columnNames());
+            String query = buildKeyOrderedQuery(scan, columnsClause, datePredicate);
+            log.debug("Opening key-ordered cursor on source {} with fetch size {}: {}",
+                    SourceDataSource.current(), fetchSize, query);
+
+            Connection connection = ownConnection();
+            try {
+                return KeyedCursor.open(scan.tableName(), connection, query, datePredicate.parameterArray(), fetchSize);
+            } catch (SQLException e) {
+                throw translate("Merge join", query, e);
+            }
+        });
+    }
+
+    /**
+     * Build a query selecting the key first and then some columns of a table, ordered by the key
+     * @param scan Table to read
+     * @param columnsClause Columns to select after the key
+     * @param datePredicate Date predicate to filter on
+     * @return Query binding the parameters of the date predicate
+     */
+    private String buildKeyOrderedQuery(KeyedTableScan scan, String columnsClause, DatePredicate datePredicate) {
+        return """
+            SELECT %s AS row_key, %s
+            FROM %s
+            WHERE %s
+            AND %s IS NOT NULL
+            %s
+            ORDER BY %s
+            """.formatted(
+                scan.keyColumn(),
+                columnsClause,
+                scan.tableName(),
+                datePredicate.sql(),
+                scan.keyColumn(),
+                scan.exclusionCondition() != null && !scan.exclusionCondition().isEmpty()
+                        ? "AND " + scan.exclusionCondition()
+                        : "",
+                scan.keyColumn()
+        );
+    }
+
+    /**
+     * Take a connection of the current source straight from its pool. Inside a transaction the
+     * template would keep handing out the connection bound first, whichever source is named later.
+     * @return Connection the caller must close
+     */
+    private Connection ownConnection() {
+        try {
+            return Objects.requireNonNull(jdbcTemplate.getDataSource()).getConnection();
+        } catch (SQLException e) {
+            throw new CannotGetJdbcConnectionException("Failed to obtain JDBC Connection", e);
+        }
+    }
+
+    /**
+     * Run an action on a connection of the current source taken straight from its pool
+     * @param task Description of the action, for exception messages
+     * @param action Action to run
+     * @return Result of the action
+     */
+    private <T> T withOwnConnection(String task, ConnectionCallback<T> action) {
+        Connection connection = ownConnection();
+        try {
+            return action.doInConnection(connection);
+        } catch (SQLException e) {
+            throw translate(task, null, e);
+        } finally {
+            JdbcUtils.closeConnection(connection);
+        }
+    }
+
+    /**
+     * Run a query on a connection of the current source taken straight from its pool
+     * @param task Description of the query, for exception messages
+     * @param query Query to run
+     * @param parameters Parameters to bind
+     * @param extractor Extractor reading the result set
+     * @return Extracted result
+     */
+    private <T> T queryWithOwnConnection(String task, String query, List<Object> parameters,
+                                         ResultSetExtractor<T> extractor) {
+        return withOwnConnection(task, connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(query)) {
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    return extractor.extractData(rs);
+                }
+            }
+        });
+    }
+
+    /**
+     * Translate a JDBC exception the way the template would
+     * @param task Description of the failed action
+     * @param query Query that failed, if known
+     * @param e JDBC exception
+     * @return Data access exception to throw
+     */
+    private DataAccessException translate(String task, String query, SQLException e) {
+        DataAccessException translated = jdbcTemplate.getExceptionTranslator().translate(task, query, e);
+        return translated != null ? translated : new UncategorizedSQLException(task, query, e);
+    }
+
+    /**
+     * Execute several aggregate expressions over the current day's rows of a table in one query,
+     * on a connection of the current source taken straight from its pool
+     * @param tableName Name of the table
+     * @param aggregateExpressions Aggregate SQL expressions, such as SUM(amount)
+     * @param dateColumn Date column to filter on
+     * @param exclusionCondition Optional exclusion condition
+     * @return Values aligned with the expressions; null where an aggregate has no input rows
+     */
+    public List<BigDecimal> executeCurrentDayAggregates(String tableName, List<String> aggregateExpressions,
+                                                        String dateColumn, String exclusionCondition) {
+        DatePredicate datePredicate = datePredicates().onCurrentDate(dateColumn);
         String query = """
             SELECT %s
-            FROM %s s
-            JOIN %s t ON %s
-            WHERE CONVERT(date, s.%s) = CAST(GETDATE() AS date)
+            FROM %s
+            WHERE %s
             %s
             """.formatted(
-                columnsClause,
-                sourceTable,
-                targetTable,
-                joinCondition,
-                dateColumn,
+                String.join(", ", aggregateExpressions),
+                tableName,
+                datePredicate.sql(),
                 exclusionCondition != null && !exclusionCondition.isEmpty()
                         ? "AND " + exclusionCondition
                         : ""
         );
 
-        log.debug("Executing cross-table query: {}", query);
-        return jdbcTemplate.query(query, this::mapRow);
+        log.debug("Executing current day aggregates on source {}: {}", SourceDataSource.current(), query);
+        return queryWithOwnConnection("Current day aggregates", query, datePredicate.parameters(), rs -> {
+            rs.next();
+            List<BigDecimal> values = new ArrayList<>(aggregateExpressions.size());
+            for (int i = 1; i <= aggregateExpressions.size(); i++) {
+                values.add(rs.getBigDecimal(i));
+            }
+            return values;
+        });
     }
 
     /**
@@ -145,88 +1159,251 @@ public class DynamicTableRepository {
      */
     public BigDecimal executeAggregateQuery(String tableName, String aggregateFunction, String columnName,
                                             String dateColumn, LocalDate date, String exclusionCondition) {
+        DatePredicate datePredicate = datePredicates().onDate(dateColumn, date);
+
         // Build query with modern text block
         String query = """
             SELECT %s(%s) AS result
             FROM %s
-            WHERE CONVERT(date, %s) = ?
+            WHERE %s
             %s
             """.formatted(
                 aggregateFunction,
                 columnName,
                 tableName,
-                dateColumn,
+                datePredicate.sql(),
                 exclusionCondition != null && !exclusionCondition.isEmpty()
                         ? "AND " + exclusionCondition
                         : ""
         );
 
         log.debug("Executing aggregate query for date {}: {}", date, query);
-        return jdbcTemplate.queryForObject(query, BigDecimal.class, date);
-    }
-
-    /**
-     * Row mapper for query results using Java streams
-     */
-    private Map<String, Object> mapRow(ResultSet rs, int rowNum) throws SQLException {
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnCount = metaData.getColumnCount();
-
-        // Use IntStream to iterate through column indices (1-based)
-        return IntStream.rangeClosed(1, columnCount)
-                .boxed()
-                .collect(Collectors.toMap(
-                        i -> {
-                            try {
-                                return metaData.getColumnName(i);
-                            } catch (SQLException e) {
-                                log.error("Error getting column name for index {}", i, e);
-                                return "column_" + i; // Fallback column name
-                            }
-                        },
-                        i -> {
-                            try {
-                                return rs.getObject(i);
-                            } catch (SQLException e) {
-                                log.error("Error getting column value for index {}", i, e);
-                                return null;
-                            }
-                        },
-                        // In case of duplicate keys (should not happen in SQL results)
-                        (existing, replacement) -> {
-                            log.warn("Duplicate column name found in result set, using first value");
-                            return existing;
-                        }
-                ));
-    }
-
-    /**
-     * Row mapper optimized for specified columns using Java streams
-     */
-    private Map<String, Object> mapRowWithColumns(ResultSet rs, int rowNum) throws SQLException {
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnCount = metaData.getColumnCount();
-
-        // Use IntStream to iterate through column indices (1-based)
-        return IntStream.rangeClosed(1, columnCount)
-                .boxed()
-                .collect(Collectors.toMap(
-                        i -> {
-                            try {
-                                return metaData.getColumnName(i);
-                            } catch (SQLException e) {
-                                log.error("Error getting column name for index {}", i, e);
-                                return "column_" + i; // Fallback column name
-                            }
-                        },
-                        i -> {
-                            try {
-                                return rs.getObject(i);
-                            } catch (SQLException e) {
-                                log.error("Error getting column value for index {}", i, e);
-                                return null;
-                            }
-                        }
-                ));
+        return jdbcTemplate.queryForObject(query, BigDecimal.class, datePredicate.parameterArray());
+    }
+
+    /**
+     * Execute several aggregate expressions over a date range in a single scan, grouped by day.
+     * Scanning [fromDate, toDate) once replaces one aggregate query per expression per day.
+     * @param tableName Name of the table
+     * @param aggregateExpressions Aggregate expressions to project (e.g., "SUM(amount)")
+     * @param dateColumn Date column to filter and group on
+     * @param fromDate First date of the range (inclusive)
+     * @param toDate Last date of the range (exclusive)
+     * @param exclusionCondition Optional exclusion condition
+     * @return Map of day to aggregate values aligned with the expressions; days without rows are absent
+     */
+    public Map<LocalDate, List<BigDecimal>> executeDailyAggregateQuery(String tableName, List<String> aggregateExpressions,
+                                                                       String dateColumn, LocalDate fromDate, LocalDate toDate,
+                                                                       String exclusionCondition) {
+        return executeDailyAggregateQuery(tableName, aggregateExpressions, dateColumn, fromDate, toDate,
+                PartitionPredicate.WHOLE_TABLE, exclusionCondition);
+    }
+
+    /**
+     * Execute several aggregate expressions over a date range for one partition of a table, grouped by day
+     * @param tableName Name of the table
+     * @param aggregateExpressions Aggregate expressions to project (e.g., "SUM(amount)")
+     * @param dateColumn Date column to filter and group on
+     * @param fromDate First date of the range (inclusive)
+     * @param toDate Last date of the range (exclusive)
+     * @param partition Partition of the table to scan
+     * @param exclusionCondition Optional exclusion condition
+     * @return Map of day to aggregate values aligned with the expressions; days without rows are absent
+     */
+    public Map<LocalDate, List<BigDecimal>> executeDailyAggregateQuery(String tableName, List<String> aggregateExpressions,
+                                                                       String dateColumn, LocalDate fromDate, LocalDate toDate,
+                                                                       PartitionPredicate partition, String exclusionCondition) {
+        return dailyAggregateQuery(tableName, aggregateExpressions, dateColumn, fromDate, toDate, partition,
+                exclusionCondition);
+    }
+
+    /**
+     * Execute several aggregate expressions over a uniform row-level sample of a table, grouped by day.
+     * Every dialect samples the key column by modulo, so the sampled rows are independent of how
+     * the table is laid out in pages.
+     * @param tableName Name of the table
+     * @param aggregateExpressions Aggregate expressions to project (e.g., "SUM(amount)")
+     * @param dateColumn Date column to filter and group on
+     * @param fromDate First date of the range (inclusive)
+     * @param toDate Last date of the range (exclusive)
+     * @param sample Sample of the table to scan
+     * @param exclusionCondition Optional exclusion condition
+     * @return Map of day to aggregate values over the sample; days without sampled rows are absent
+     */
+    public Map<LocalDate, List<BigDecimal>> executeSampledDailyAggregateQuery(String tableName, List<String> aggregateExpressions,
+                                                                              String dateColumn, LocalDate fromDate, LocalDate toDate,
+                                                                              TableSample sample, String exclusionCondition) {
+        return dailyAggregateQuery(tableName, aggregateExpressions, dateColumn, fromDate, toDate,
+                sample.keyPredicate(), exclusionCondition);
+    }
+
+    private Map<LocalDate, List<BigDecimal>> dailyAggregateQuery(String fromClause, List<String> aggregateExpressions,
+                                                                 String dateColumn, LocalDate fromDate, LocalDate toDate,
+                                                                 PartitionPredicate partition, String exclusionCondition) {
+        // Format aggregate expressions for select clause
+        String aggregatesClause = IntStream.range(0, aggregateExpressions.size())
+                .mapToObj(i -> aggregateExpressions.get(i) + " AS agg_" + i)
+                .collect(Collectors.joining(", "));
+
+        DatePredicate datePredicate = datePredicates().between(dateColumn, fromDate, toDate);
+        String dateBucket = dialect().dateBucket(dateColumn);
+
+        // Build query with modern text block
+        String query = """
+            SELECT %s AS bucket_date, %s
+            FROM %s
+            WHERE %s
+            %s
+            %s
+            GROUP BY %s
+            """.formatted(
+                dateBucket,
+                aggregatesClause,
+                fromClause,
+                datePredicate.sql(),
+                partition.isWholeTable() ? "" : "AND " + partition.sql(),
+                exclusionCondition != null && !exclusionCondition.isEmpty()
+                        ? "AND " + exclusionCondition
+                        : "",
+                dateBucket
+        );
+
+        log.debug("Executing daily aggregate query for {} to {}: {}", fromDate, toDate, query);
+        Map<LocalDate, List<BigDecimal>> result = new HashMap<>();
+        jdbcTemplate.query(query, rs -> {
+            List<BigDecimal> values = new ArrayList<>(aggregateExpressions.size());
+            for (int i = 0; i < aggregateExpressions.size(); i++) {
+                values.add(rs.getBigDecimal(i + 2));
+            }
+            result.put(rs.getObject(1, LocalDate.class), values);
+        }, parameters(datePredicate, partition));
+        return result;
+    }
+
+    /**
+     * Split the scan of a table over a date range into disjoint partitions of a key column
+     * @param tableName Name of the table
+     * @param keyColumn Integral key column to partition on
+     * @param strategy Partition strategy
+     * @param count Number of partitions
+     * @param dateColumn Date column to filter on
+     * @param fromDate First date of the range (inclusive)
+     * @param toDate Last date of the range (exclusive)
+     * @param exclusionCondition Optional exclusion condition
+     * @return Partition predicates; the whole table if the scan cannot be split
+     */
+    public List<PartitionPredicate> partitionScan(String tableName, String keyColumn, PartitionStrategy strategy,
+                                                  int count, String dateColumn, LocalDate fromDate, LocalDate toDate,
+                                                  String exclusionCondition) {
+        if (count <= 1) {
+            return List.of(PartitionPredicate.WHOLE_TABLE);
+        }
+        if (strategy == PartitionStrategy.HASH) {
+            return PartitionPredicate.hash(keyColumn, count);
+        }
+
+        // Measure the key range of the scanned days so each range partition gets an equal share
+        DatePredicate datePredicate = datePredicates().between(dateColumn, fromDate, toDate);
+        String query = """
+            SELECT MIN(%s) AS min_key, MAX(%s) AS max_key
+            FROM %s
+            WHERE %s
+            %s
+            """.formatted(
+                keyColumn,
+                keyColumn,
+                tableName,
+                datePredicate.sql(),
+                exclusionCondition != null && !exclusionCondition.isEmpty()
+                        ? "AND " + exclusionCondition
+                        : ""
+        );
+
+        log.debug("Executing key range query for {} to {}: {}", fromDate, toDate, query);
+        List<PartitionPredicate> partitions = jdbcTemplate.query(query, rs -> {
+            rs.next();
+            long minKey = rs.getLong(1);
+            return rs.wasNull()
+                    ? List.of(PartitionPredicate.WHOLE_TABLE)
+                    : PartitionPredicate.range(keyColumn, minKey, rs.getLong(2), count);
+        }, datePredicate.parameterArray());
+        log.debug("Split scan of {} on {} into {} range partitions", tableName, keyColumn, partitions.size());
+        return partitions;
+    }
+
+    /**
+     * Find the highest watermark among the rows of a date range
+     * @param tableName Name of the table
+     * @param watermarkColumn Integral column that grows with every inserted row
+     * @param dateColumn Date column to filter on
+     * @param fromDate First date of the range (inclusive)
+     * @param toDate Last date of the range (exclusive)
+     * @param exclusionCondition Optional exclusion condition
+     * @return Highest watermark, or null if the range has no rows
+     */
+    public Long findMaxWatermark(String tableName, String watermarkColumn, String dateColumn,
+                                 LocalDate fromDate, LocalDate toDate, String exclusionCondition) {
+        DatePredicate datePredicate = datePredicates().between(dateColumn, fromDate, toDate);
+        String query = """
+            SELECT MAX(%s) AS max_watermark
+            FROM %s
+            WHERE %s
+            %s
+            """.formatted(
+                watermarkColumn,
+                tableName,
+                datePredicate.sql(),
+                exclusionCondition != null && !exclusionCondition.isEmpty()
+                        ? "AND " + exclusionCondition
+                        : ""
+        );
+
+        log.debug("Executing watermark query for {} to {}: {}", fromDate, toDate, query);
+        return jdbcTemplate.query(query, rs -> {
+            rs.next();
+            long watermark = rs.getLong(1);
+            return rs.wasNull() ? null : watermark;
+        }, datePredicate.parameterArray());
+    }
+
+    /**
+     * Run a scan for each partition concurrently on virtual threads, one connection per partition
+     * @param partitions Partitions to scan
+     * @param scan Scan of a single partition
+     * @return Results of the scans, in the order of the partitions
+     */
+    public <T> List<T> scanPartitions(List<PartitionPredicate> partitions, Function<PartitionPredicate, T> scan) {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<T>> futures = partitions.stream()
+                    .map(partition -> CompletableFuture.supplyAsync(() -> scan.apply(partition), executor))
+                    .toList();
+
+            return futures.stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+        }
+    }
+
+    /**
+     * Get the SQL dialect of the current source database, detected from the driver on first use
+     * @return SQL dialect
+     */
+    public SqlDialect dialect() {
+        return datePredicates().dialect();
+    }
+
+    /**
+     * Get the date predicate builder for the current source database
+     * @return Date predicate builder for the detected dialect
+     */
+    private DatePredicateBuilder datePredicates() {
+        // Each named source may be a different database product
+        return datePredicateBuilders.computeIfAbsent(SourceDataSource.current(), name -> {
+            String productName = withOwnConnection("Detect database product",
+                    connection -> connection.getMetaData().getDatabaseProductName());
+            DatePredicateBuilder builder = new DatePredicateBuilder(SqlDialect.fromProductName(productName));
+            log.debug("Using {} dialect for source database {} ({})", builder.dialect(), name, productName);
+            return builder;
+        });
     }
 }
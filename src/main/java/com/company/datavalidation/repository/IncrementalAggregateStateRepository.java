@@ -0,0 +1,17 @@
+package com.company.datavalidation.repository;
+
+import com.company.datavalidation.model.IncrementalAggregateState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface IncrementalAggregateStateRepository extends JpaRepository<IncrementalAggregateState, Long> {
+
+    Optional<IncrementalAggregateState> findByDayOverDayConfigIdAndAggregateDate(Long dayOverDayConfigId,
+                                                                               LocalDate aggregateDate);
+
+    void deleteByDayOverDayConfigIdAndAggregateDateBefore(Long dayOverDayConfigId, LocalDate aggregateDate);
+}
@@ -0,0 +1,18 @@
+package com.company.datavalidation.repository;
+
+/**
+ * Inclusive range of integral keys
+ * @param lowerKey Smallest key
+ * @param upperKey Largest key
+ */
+public record KeyRange(long lowerKey, long upperKey) {
+
+    /**
+     * Smallest range covering this range and another one
+     * @param other Other range
+     * @return Combined range
+     */
+    public KeyRange span(KeyRange other) {
+        return new KeyRange(Math.min(lowerKey, other.lowerKey), Math.max(upperKey, other.upperKey));
+    }
+}
@@ -0,0 +1,145 @@
+package com.company.datavalidation.repository;
+
+import org.springframework.jdbc.support.JdbcUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Forward-only cursor over a query ordered by the key selected in its first column.
+ * The cursor owns its connection, so cursors on different datasources can be advanced side by side.
+ */
+final class KeyedCursor implements AutoCloseable {
+
+    private final String tableName;
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private ColumnLayout layout;
+    private Object key;
+    private Map<String, Object> row;
+
+    private KeyedCursor(String tableName, Connection connection, PreparedStatement statement, ResultSet resultSet) {
+        this.tableName = tableName;
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+    }
+
+    /**
+     * Execute a key-ordered query on a connection. The connection is closed if the query fails.
+     * @param tableName Table read by the query, for error messages
+     * @param connection Connection to take ownership of
+     * @param query Query selecting the key first and ordering by it
+     * @param parameters Parameters to bind
+     * @param fetchSize Rows fetched per round trip
+     * @return Cursor positioned before the first row
+     */
+    static KeyedCursor open(String tableName, Connection connection, String query, Object[] parameters,
+                            int fetchSize) throws SQLException {
+        PreparedStatement statement = null;
+        try {
+            statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            return new KeyedCursor(tableName, connection, statement, statement.executeQuery());
+        } catch (SQLException | RuntimeException e) {
+            JdbcUtils.closeStatement(statement);
+            JdbcUtils.closeConnection(connection);
+            throw e;
+        }
+    }
+
+    /**
+     * Advance to the next row, checking that keys are strictly ascending
+     * @return True if positioned on a row, false once the rows are exhausted
+     */
+    boolean next() throws SQLException {
+        if (!resultSet.next()) {
+            key = null;
+            row = null;
+            return false;
+        }
+        if (layout == null) {
+            layout = ColumnLayout.resolve(resultSet.getMetaData());
+        }
+
+        Object previous = key;
+        key = layout.read(resultSet, 0);
+        // A key out of order would be reported as missing on both sides, so fail instead
+        if (previous != null && compareKeys(previous, key) >= 0) {
+            throw new IllegalStateException(("Keys of %s are not unique and ascending: %s follows %s. "
+                    + "String keys must sort with a binary collation to be merged").formatted(tableName, key, previous));
+        }
+        row = layout.mapRow(resultSet);
+        return true;
+    }
+
+    /**
+     * Key of the current row
+     */
+    Object key() {
+        return key;
+    }
+
+    /**
+     * Current row with unprefixed column names
+     */
+    Map<String, Object> row() {
+        return row;
+    }
+
+    /**
+     * Compare two keys in the order a database sorts them. Numbers compare by value whatever
+     * their Java type, so integer and bigint keys on different servers still merge.
+     * @param left First key
+     * @param right Second key
+     * @return Negative, zero or positive as the first key sorts before, with or after the second
+     */
+    @SuppressWarnings("unchecked")
+    static int compareKeys(Object left, Object right) {
+        if (left instanceof Number leftNumber && right instanceof Number rightNumber) {
+            if (isIntegral(leftNumber) && isIntegral(rightNumber)) {
+                return Long.compare(leftNumber.longValue(), rightNumber.longValue());
+            }
+            return toBigDecimal(leftNumber).compareTo(toBigDecimal(rightNumber));
+        }
+        if (left instanceof Comparable<?> && left.getClass() == right.getClass()) {
+            return ((Comparable<Object>) left).compareTo(right);
+        }
+        throw new IllegalStateException("Cannot compare keys of type %s and %s"
+                .formatted(left.getClass().getSimpleName(), right.getClass().getSimpleName()));
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Long || number instanceof Integer
+                || number instanceof Short || number instanceof Byte;
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        if (number instanceof BigInteger integer) {
+            return new BigDecimal(integer);
+        }
+        return new BigDecimal(number.toString());
+    }
+
+    /**
+     * Close the result set and statement and return the connection to its pool
+     */
+    @Override
+    public void close() {
+        JdbcUtils.closeResultSet(resultSet);
+        JdbcUtils.closeStatement(statement);
+        JdbcUtils.closeConnection(connection);
+    }
+}
@@ -0,0 +1,30 @@
+package com.company.datavalidation.repository;
+
+import java.util.List;
+
+/**
+ * One side of a sort-merge join: the rows of a table on the server's current day, read in key order
+ * @param datasourceName Source datasource holding the table, or null for the default
+ * @param tableName Table name
+ * @param keyColumn Column identifying a row, unique within the day
+ * @param columnNames Columns to select
+ * @param dateColumn Date column to filter on
+ * @param exclusionCondition Optional exclusion condition
+ */
+public record KeyedTableScan(String datasourceName, String tableName, String keyColumn, List<String> columnNames,
+                             String dateColumn, String exclusionCondition) {
+
+    /**
+     * Restrict the scan to a range of an integral key
+     * @param keyRange Keys to keep
+     * @return Scan of the rows in the range
+     */
+    public KeyedTableScan withKeyRange(KeyRange keyRange) {
+        String range = "%s >= %d AND %s <= %d".formatted(
+                keyColumn, keyRange.lowerKey(), keyColumn, keyRange.upperKey());
+        String condition = exclusionCondition != null && !exclusionCondition.isEmpty()
+                ? "(%s) AND %s".formatted(exclusionCondition, range)
+                : range;
+        return new KeyedTableScan(datasourceName, tableName, keyColumn, columnNames, dateColumn, condition);
+    }
+}
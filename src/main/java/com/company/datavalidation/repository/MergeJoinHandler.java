@@ -0,0 +1,32 @@
+package com.company.datavalidation.repository;
+
+import java.util.Map;
+
+/**
+ * Receives the rows of a sort-merge join of two keyed scans, once per key in ascending key order.
+ * Rows are only valid during the call and must not be retained.
+ */
+public interface MergeJoinHandler {
+
+    /**
+     * Handle a key present on both sides
+     * @param key Row key
+     * @param sourceRow Source row with unprefixed column names
+     * @param targetRow Target row with unprefixed column names
+     */
+    void matched(Object key, Map<String, Object> sourceRow, Map<String, Object> targetRow);
+
+    /**
+     * Handle a key present only in the source
+     * @param key Row key
+     * @param sourceRow Source row with unprefixed column names
+     */
+    void sourceOnly(Object key, Map<String, Object> sourceRow);
+
+    /**
+     * Handle a key present only in the target
+     * @param key Row key
+     * @param targetRow Target row with unprefixed column names
+     */
+    void targetOnly(Object key, Map<String, Object> targetRow);
+}
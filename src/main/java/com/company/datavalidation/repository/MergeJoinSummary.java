@@ -0,0 +1,18 @@
+package com.company.datavalidation.repository;
+
+/**
+ * Number of keys found by a sort-merge join on each side
+ * @param matched Keys present on both sides
+ * @param sourceOnly Keys present only in the source
+ * @param targetOnly Keys present only in the target
+ */
+public record MergeJoinSummary(long matched, long sourceOnly, long targetOnly) {
+
+    /**
+     * Check whether both sides hold the same keys
+     * @return True if no key is missing from either side
+     */
+    public boolean isComplete() {
+        return sourceOnly == 0 && targetOnly == 0;
+    }
+}
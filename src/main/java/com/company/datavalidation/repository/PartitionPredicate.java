@@ -0,0 +1,108 @@
+package com.company.datavalidation.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Predicate restricting a scan to one disjoint slice of a table
+ * @param sql SQL condition with positional parameters; empty for the whole table
+ * @param parameters Values to bind, in order
+ */
+public record PartitionPredicate(String sql, List<Object> parameters) {
+
+    /**
+     * Predicate covering the whole table
+     */
+    public static final PartitionPredicate WHOLE_TABLE = new PartitionPredicate("", List.of());
+
+    /**
+     * Split an integral key into partitions by its value modulo the partition count
+     * @param keyColumn Integral key column
+     * @param count Number of partitions
+     * @return One predicate per partition
+     */
+    public static List<PartitionPredicate> hash(String keyColumn, int count) {
+        List<PartitionPredicate> partitions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Normalise the remainder so negative keys land in a partition too
+            partitions.add(new PartitionPredicate(
+                    "((%s %% %d) + %d) %% %d = ?".formatted(keyColumn, count, count, count), List.of(i)));
+        }
+        return partitions;
+    }
+
+    /**
+     * Split an integral key range into contiguous partitions of equal width.
+     * The first and last partitions are open-ended, so rows written after the range was
+     * measured still fall into exactly one partition.
+     * @param keyColumn Integral key column
+     * @param minKey Smallest key observed
+     * @param maxKey Largest key observed
+     * @param count Number of partitions
+     * @return One predicate per partition; fewer than count if the range is narrower
+     */
+    public static List<PartitionPredicate> range(String keyColumn, long minKey, long maxKey, int count) {
+        // The span of two longs may exceed Long.MAX_VALUE, so divide it as unsigned
+        long width = Long.divideUnsigned(maxKey - minKey, count) + 1;
+        if (width <= 0) {
+            width = Long.MAX_VALUE;
+        }
+        List<PartitionPredicate> partitions = new ArrayList<>(count);
+
+        long lower = minKey;
+        while (true) {
+            long upper = lower + width - 1;
+            boolean first = partitions.isEmpty();
+            if (upper >= maxKey || upper < lower) {
+                partitions.add(first
+                        ? WHOLE_TABLE
+                        : new PartitionPredicate("%s >= ?".formatted(keyColumn), List.of(lower)));
+                return partitions;
+            }
+            partitions.add(first
+                    ? new PartitionPredicate("%s <= ?".formatted(keyColumn), List.of(upper))
+                    : new PartitionPredicate("%s >= ? AND %s <= ?".formatted(keyColumn, keyColumn), List.of(lower, upper)));
+            lower = upper + 1;
+        }
+    }
+
+    /**
+     * Select the rows whose watermark lies past a previous watermark and up to a new one.
+     * The upper bound leaves rows landing during the scan to the next one.
+     * @param watermarkColumn Integral column that grows with every inserted row
+     * @param afterWatermark Watermark of the previous scan (exclusive), or null for the first scan
+     * @param upToWatermark Watermark of this scan (inclusive)
+     * @return Watermark predicate
+     */
+    public static PartitionPredicate watermarkRange(String watermarkColumn, Long afterWatermark, long upToWatermark) {
+        return afterWatermark == null
+                ? new PartitionPredicate("%s <= ?".formatted(watermarkColumn), List.of(upToWatermark))
+                : new PartitionPredicate("%s > ? AND %s <= ?".formatted(watermarkColumn, watermarkColumn),
+                        List.of(afterWatermark, upToWatermark));
+    }
+
+    /**
+     * Combine this predicate with another one
+     * @param other Predicate both conditions must hold for
+     * @return Predicate selecting the rows matched by both
+     */
+    public PartitionPredicate and(PartitionPredicate other) {
+        if (isWholeTable()) {
+            return other;
+        }
+        if (other.isWholeTable()) {
+            return this;
+        }
+        List<Object> combined = new ArrayList<>(parameters);
+        combined.addAll(other.parameters);
+        return new PartitionPredicate("(%s) AND (%s)".formatted(sql, other.sql), List.copyOf(combined));
+    }
+
+    /**
+     * Check whether the predicate covers the whole table
+     * @return True if no condition is applied
+     */
+    public boolean isWholeTable() {
+        return sql.isEmpty();
+    }
+}
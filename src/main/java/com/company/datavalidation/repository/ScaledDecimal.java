@@ -0,0 +1,127 @@
+package com.company.datavalidation.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point arithmetic on decimals held as longs scaled to {@link #SCALE} decimal places,
+ * matching the DECIMAL(18,4) precision of stored results. Values that do not fit are reported
+ * as {@link #NOT_SCALED}, so callers fall back to BigDecimal only for them.
+ */
+public final class ScaledDecimal {
+
+    public static final int SCALE = 4;
+
+    /**
+     * Decimal places of difference percentages
+     */
+    public static final int PERCENTAGE_SCALE = 6;
+
+    /**
+     * Marker for a value that has no scaled representation; no scaled value reaches it
+     */
+    public static final long NOT_SCALED = Long.MIN_VALUE;
+
+    private static final long SCALE_FACTOR = 10_000L;
+
+    // Values with at most 14 integer digits fit a long once scaled by 10^4
+    private static final int MAX_INTEGER_DIGITS = 18 - SCALE;
+
+    // Integral values below 10^14 in magnitude, which have at most 14 integer digits
+    private static final long INTEGRAL_LIMIT = 100_000_000_000_000L;
+
+    // Below 2^39 adjacent doubles are closer than 10^-4, so at most one value of SCALE places rounds to each
+    private static final double FRACTIONAL_LIMIT = 0x1p39;
+
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L};
+
+    private ScaledDecimal() {
+    }
+
+    /**
+     * Scale an integral value. Like decimals, it may have at most MAX_INTEGER_DIGITS integer digits,
+     * so every scaled value is below 10^18 in magnitude and the difference of two cannot overflow.
+     * @param value Value to scale
+     * @return Scaled value, or NOT_SCALED if it is too large
+     */
+    public static long of(long value) {
+        return value > -INTEGRAL_LIMIT && value < INTEGRAL_LIMIT ? value * SCALE_FACTOR : NOT_SCALED;
+    }
+
+    /**
+     * Scale a floating-point value without allocating, with the result of scaling
+     * {@code BigDecimal.valueOf(value)}: the shortest decimal that rounds to the double must
+     * have at most SCALE decimal places. Fractional values of 2^39 and above are left to BigDecimal.
+     * @param value Value to scale
+     * @return Scaled value, or NOT_SCALED if it has more decimal places or integer digits than fit,
+     *         or is not finite
+     */
+    public static long of(double value) {
+        if (value == Math.rint(value)) {
+            return value > -INTEGRAL_LIMIT && value < INTEGRAL_LIMIT ? (long) value * SCALE_FACTOR : NOT_SCALED;
+        }
+        if (!(Math.abs(value) < FRACTIONAL_LIMIT)) {
+            return NOT_SCALED;
+        }
+        // The product may be off by one near the limit, which the check rejects rather than accepts
+        long scaled = Math.round(value * SCALE_FACTOR);
+        return scaled / (double) SCALE_FACTOR == value ? scaled : NOT_SCALED;
+    }
+
+    /**
+     * Scale a decimal value
+     * @param value Value to scale
+     * @return Scaled value, or NOT_SCALED if it has more decimal places or integer digits than fit
+     */
+    public static long of(BigDecimal value) {
+        int scale = value.scale();
+        if (scale > SCALE || value.precision() - scale > MAX_INTEGER_DIGITS) {
+            return NOT_SCALED;
+        }
+        return scale == 0 ? value.longValue() * SCALE_FACTOR : value.movePointRight(SCALE).longValue();
+    }
+
+    /**
+     * Convert a scaled value back to a decimal
+     * @param scaled Scaled value
+     * @return Decimal with SCALE decimal places
+     */
+    public static BigDecimal toDecimal(long scaled) {
+        return BigDecimal.valueOf(scaled, SCALE);
+    }
+
+    /**
+     * Convert a scaled value back to a decimal with fewer decimal places. The dropped places must be zero,
+     * as they are for differences of values with at most that many places.
+     * @param scaled Scaled value
+     * @param scale Decimal places of the result, from 0 to SCALE
+     * @return Decimal with the given number of decimal places
+     */
+    public static BigDecimal toDecimal(long scaled, int scale) {
+        return BigDecimal.valueOf(scaled / POWERS_OF_TEN[SCALE - scale], scale);
+    }
+
+    /**
+     * Compute a difference as a percentage of an expected value, rounded half up to PERCENTAGE_SCALE
+     * decimal places like {@code difference.divide(expected.abs(), 6, HALF_UP).multiply(100)}
+     * @param difference Scaled difference
+     * @param expected Scaled expected value, not zero
+     * @return Unscaled percentage at PERCENTAGE_SCALE, or NOT_SCALED if it does not fit a long
+     */
+    public static long percentage(long difference, long expected) {
+        long divisor = Math.abs(expected);
+        if (Math.abs(difference) > Long.MAX_VALUE / POWERS_OF_TEN[PERCENTAGE_SCALE]) {
+            return NOT_SCALED;
+        }
+        long dividend = difference * POWERS_OF_TEN[PERCENTAGE_SCALE];
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        // Round half away from zero; the remainder is below the divisor, so doubling it cannot overflow
+        if (remainder >= divisor - remainder) {
+            quotient += Long.signum(dividend);
+        }
+        if (Math.abs(quotient) > Long.MAX_VALUE / 100) {
+            return NOT_SCALED;
+        }
+        return quotient * 100;
+    }
+}
@@ -0,0 +1,50 @@
+package com.company.datavalidation.repository;
+
+import java.util.function.Supplier;
+
+/**
+ * Names the source datasource that {@link DynamicTableRepository} reads from on the current thread.
+ * The name is inherited by threads started while it is set, such as the virtual threads of
+ * partitioned scans.
+ */
+public final class SourceDataSource {
+
+    /**
+     * Name of the source datasource used when none is named
+     */
+    public static final String DEFAULT = "default";
+
+    private static final InheritableThreadLocal<String> CURRENT = new InheritableThreadLocal<>();
+
+    private SourceDataSource() {
+    }
+
+    /**
+     * Get the source datasource of the current thread
+     * @return Datasource name, or {@link #DEFAULT} if none is set
+     */
+    public static String current() {
+        String name = CURRENT.get();
+        return name != null ? name : DEFAULT;
+    }
+
+    /**
+     * Run an action reading from a named source datasource
+     * @param name Datasource name, or null or blank for the default
+     * @param action Action to run
+     * @return Result of the action
+     */
+    public static <T> T call(String name, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(name == null || name.isBlank() ? DEFAULT : name);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.company.datavalidation.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL dialects of the source databases read by {@link DynamicTableRepository}
+ */
+@Getter
+@Slf4j
+@RequiredArgsConstructor
+@ToString
+public enum SqlDialect {
+
+    // CAST keeps only about 6 significant digits of a FLOAT; style 3 keeps all 17
+    SQL_SERVER("Microsoft SQL Server", "CAST(GETDATE() AS date)",
+            "HASHBYTES('SHA2_256', %s)", "CAST(%s AS NVARCHAR(MAX))", "CONVERT(NVARCHAR(MAX), %s, 3)",
+            "DATALENGTH(%s)"),
+
+    H2("H2", "CURRENT_DATE", "HASH('SHA-256', %s)", "CAST(%s AS VARCHAR)", "CAST(%s AS VARCHAR)",
+            "CHAR_LENGTH(%s)");
+
+    /**
+     * Text standing in for NULL in a row fingerprint; other values always start with their length
+     */
+    private static final String NULL_MARKER = "N";
+
+    private final String productName;
+
+    private final String currentDateExpression;
+
+    private final String hashFunction;
+
+    private final String textFormat;
+
+    private final String approximateTextFormat;
+
+    private final String lengthFunction;
+
+    /**
+     * Add days to a date expression
+     *
+     * @param dateExpression Date expression
+     * @param days Number of days to add
+     * @return SQL expression for the shifted date
+     */
+    public String addDays(String dateExpression, int days) {
+        return "DATEADD(day, %d, %s)".formatted(days, dateExpression);
+    }
+
+    /**
+     * Truncate a date or datetime column to its day, for grouping
+     *
+     * @param column Column to truncate
+     * @return SQL expression for the day of the column
+     */
+    public String dateBucket(String column) {
+        return "CAST(%s AS date)".formatted(column);
+    }
+
+    /**
+     * Hash the text of some columns into a 64-bit fingerprint of the row. Fingerprints only
+     * match between databases of the same dialect, and only for columns of the same types,
+     * since values are hashed in their text form. Each value is prefixed with its length and
+     * NULL is a marker without one, so no two rows concatenate to the same text. Floating-point
+     * values are rendered with every significant digit.
+     *
+     * @param columns Columns to hash, in order
+     * @param jdbcTypes JDBC types of the columns from {@link Types}, aligned with the columns
+     * @return BIGINT SQL expression for the fingerprint
+     */
+    public String rowFingerprint(List<String> columns, List<Integer> jdbcTypes) {
+        List<String> values = new ArrayList<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            String text = switch (jdbcTypes.get(i)) {
+                case Types.FLOAT, Types.REAL, Types.DOUBLE -> approximateTextFormat.formatted(columns.get(i));
+                default -> textFormat.formatted(columns.get(i));
+            };
+            values.add("CASE WHEN %s IS NULL THEN '%s' ELSE CONCAT(%s, ':', %s) END"
+                    .formatted(text, NULL_MARKER, lengthFunction.formatted(text), text));
+        }
+        // CONCAT needs at least two arguments
+        String text = values.size() == 1 ? values.get(0) : "CONCAT(" + String.join(", ", values) + ")";
+        return "CAST(SUBSTRING(%s, 1, 8) AS BIGINT)".formatted(hashFunction.formatted(text));
+    }
+
+    /**
+     * Resolve a dialect from a JDBC database product name
+     *
+     * @param productName Product name reported by the driver
+     * @return The matching dialect, or SQL_SERVER if the product is unknown
+     */
+    public static SqlDialect fromProductName(String productName) {
+        for (SqlDialect dialect : values()) {
+            if (dialect.productName.equalsIgnoreCase(productName)) {
+                return dialect;
+            }
+        }
+        log.warn("Unknown database product: {}, using default dialect: {}", productName, SQL_SERVER);
+        return SQL_SERVER;
+    }
+}
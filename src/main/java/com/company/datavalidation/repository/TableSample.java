@@ -0,0 +1,64 @@
+package com.company.datavalidation.repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Uniform row-level sample of the rows of a source table, selected by the remainder of an integral
+ * key, so each row is kept or dropped on its own as the variance of the estimates assumes.
+ * Server-side page sampling such as TABLESAMPLE SYSTEM is not used, since it keeps or drops whole
+ * pages of correlated rows.
+ * @param percent Percentage of rows to sample, above 0 and below 100
+ * @param keyColumn Integral key column sampled by modulo; keys should be contiguous or random
+ */
+public record TableSample(BigDecimal percent, String keyColumn) {
+
+    /**
+     * Keys are sampled by their remainder modulo this value, giving a resolution of 0.1 percent
+     */
+    static final int KEY_MODULUS = 1000;
+
+    /**
+     * @throws IllegalArgumentException if the percentage rounds to no sampled keys
+     */
+    public TableSample {
+        if (cutoff(percent) <= 0) {
+            throw new IllegalArgumentException("Sample percent " + percent.toPlainString()
+                    + " is below the sampling resolution of " + 100.0 / KEY_MODULUS + " percent");
+        }
+    }
+
+    /**
+     * Get the sampled fraction of rows, from the remainders actually kept rather than the
+     * configured percentage
+     * @return Fraction between 0 and 1
+     */
+    public double fraction() {
+        return (double) cutoff(percent) / KEY_MODULUS;
+    }
+
+    /**
+     * Select the sampled keys: those whose remainder modulo {@link #KEY_MODULUS} falls below the percentage
+     * @return Key predicate
+     * @throws IllegalStateException if no key column is configured
+     */
+    public PartitionPredicate keyPredicate() {
+        if (keyColumn == null || keyColumn.isBlank()) {
+            throw new IllegalStateException("A sample key column is required to sample a table");
+        }
+        return new PartitionPredicate("((%s %% %d) + %d) %% %d < ?".formatted(
+                keyColumn, KEY_MODULUS, KEY_MODULUS, KEY_MODULUS), List.of(cutoff(percent)));
+    }
+
+    /**
+     * Number of remainders modulo {@link #KEY_MODULUS} kept for a percentage
+     * @param percent Percentage of rows to sample
+     * @return Remainders below this value are sampled
+     */
+    private static int cutoff(BigDecimal percent) {
+        return percent.multiply(BigDecimal.valueOf(KEY_MODULUS / 100))
+                .setScale(0, RoundingMode.HALF_UP)
+                .intValueExact();
+    }
+}
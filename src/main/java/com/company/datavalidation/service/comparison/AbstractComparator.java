@@ -3,14 +3,17 @@ package com.company.datavalidation.service.comparison;
 import com.company.datavalidation.model.ColumnComparisonConfig;
 import com.company.datavalidation.model.ComparisonResult;
 import com.company.datavalidation.model.ComparisonType;
-import com.company.datavalidation.model.HandlingStrategy;
+import com.company.datavalidation.repository.ColumnarRowBatch;
+import com.company.datavalidation.repository.ColumnarRowBatch.CellState;
 import com.company.datavalidation.repository.DynamicTableRepository;
+import com.company.datavalidation.repository.ScaledDecimal;
 import lombok.RequiredArgsConstructor;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
 import java.math.RoundingMode;
 import java.util.Map;
-import java.util.Optional;
 
 @RequiredArgsConstructor
 public abstract class AbstractComparator {
@@ -35,6 +38,16 @@ public abstract class AbstractComparator {
                     .build();
         }
 
+        // Values that fit DECIMAL(18,4) are compared as scaled longs
+        long scaledActual = ScaledDecimal.of(actual);
+        long scaledExpected = ScaledDecimal.of(expected);
+        if (scaledActual != ScaledDecimal.NOT_SCALED && scaledExpected != ScaledDecimal.NOT_SCALED) {
+            ComparisonResult result = compareScaled(actual, expected, scaledActual, scaledExpected);
+            if (result != null) {
+                return result;
+            }
+        }
+
         // Calculate difference
         BigDecimal differenceValue = actual.subtract(expected);
 
@@ -59,6 +72,40 @@ public abstract class AbstractComparator {
                 .build();
     }
 
+    /**
+     * Compare two values held as scaled longs, producing the same result as the BigDecimal comparison
+     * @param actual Actual value
+     * @param expected Expected value
+     * @param scaledActual Actual value as a scaled long
+     * @param scaledExpected Expected value as a scaled long
+     * @return Result of the comparison, or null if the percentage does not fit a long
+     */
+    private ComparisonResult compareScaled(BigDecimal actual, BigDecimal expected,
+                                           long scaledActual, long scaledExpected) {
+        // Both values are below 10^18 in magnitude, so their difference cannot overflow
+        long difference = scaledActual - scaledExpected;
+
+        BigDecimal differencePercentage;
+        if (scaledExpected != 0) {
+            long percentage = ScaledDecimal.percentage(difference, scaledExpected);
+            if (percentage == ScaledDecimal.NOT_SCALED) {
+                return null;
+            }
+            differencePercentage = BigDecimal.valueOf(percentage, ScaledDecimal.PERCENTAGE_SCALE);
+        } else {
+            differencePercentage = scaledActual == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(100);
+        }
+
+        // Keep the scale BigDecimal subtraction would give
+        int scale = Math.max(actual.scale(), expected.scale());
+        return ComparisonResult.builder()
+                .actualValue(actual)
+                .expectedValue(expected)
+                .differenceValue(scale >= 0 ? ScaledDecimal.toDecimal(difference, scale) : actual.subtract(expected))
+                .differencePercentage(differencePercentage)
+                .build();
+    }
+
     /**
      * Check if a value exceeds a threshold
      * @param comparisonResult Result of the comparison
@@ -85,34 +132,94 @@ public abstract class AbstractComparator {
     }
 
     /**
-     * Handle value based on handling strategy
+     * Check if the difference between two estimated values exceeds a threshold for every value
+     * within their confidence intervals, so sampling error alone never raises an alert
+     * @param comparisonResult Result of the comparison of the estimates
+     * @param columnConfig Column comparison configuration
+     * @param thresholdValue Threshold value
+     * @param actualMargin Margin of error of the actual value
+     * @param expectedMargin Margin of error of the expected value
+     * @return True if the threshold is exceeded even at the nearest edge of the confidence interval
+     */
+    protected boolean isThresholdExceeded(ComparisonResult comparisonResult, ColumnComparisonConfig columnConfig,
+                                          BigDecimal thresholdValue, BigDecimal actualMargin, BigDecimal expectedMargin) {
+        BigDecimal diffValue = comparisonResult.differenceValue();
+        if (diffValue == null) {
+            return false;
+        }
+
+        // Independent estimates: the margins add in quadrature
+        BigDecimal diffMargin = actualMargin.pow(2).add(expectedMargin.pow(2)).sqrt(MathContext.DECIMAL64);
+        BigDecimal smallestDiff = diffValue.abs().subtract(diffMargin).max(BigDecimal.ZERO);
+
+        return switch (columnConfig.getComparisonType()) {
+            case PERCENTAGE -> {
+                if (smallestDiff.signum() == 0) {
+                    yield false;
+                }
+                BigDecimal largestExpected = comparisonResult.expectedValue().abs().add(expectedMargin);
+                BigDecimal smallestPercentage = largestExpected.signum() == 0
+                        ? BigDecimal.valueOf(100)  // Expected is zero but actual isn't
+                        : smallestDiff.divide(largestExpected, 6, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100));
+                yield smallestPercentage.compareTo(thresholdValue) > 0;
+            }
+            case ABSOLUTE -> smallestDiff.compareTo(thresholdValue) > 0;
+            case EXACT -> smallestDiff.signum() > 0;
+        };
+    }
+
+    /**
+     * Handle value based on the handling strategy for its kind of special value
      * @param value Value to handle
-     * @param strategy Handling strategy
+     * @param strategies Handling strategies for null, blank and N/A values
      * @return Handled value
      * @throws RuntimeException if strategy is FAIL
      */
-    protected BigDecimal handleValue(Object value, HandlingStrategy strategy) {
+    protected BigDecimal handleValue(Object value, SpecialValueStrategies strategies) {
         if (value == null) {
-            return strategy.handleValue(null);
+            return strategies.nullStrategy().handleValue(null);
         }
 
         return switch (value) {
             case BigDecimal bd -> bd;
+            // Integral values convert exactly; going through double would round past 2^53
+            case Long l -> BigDecimal.valueOf(l);
+            case Integer i -> BigDecimal.valueOf(i);
+            case Short sh -> BigDecimal.valueOf(sh);
+            case Byte b -> BigDecimal.valueOf(b);
+            case BigInteger bi -> new BigDecimal(bi);
             case Number n -> BigDecimal.valueOf(n.doubleValue());
             case String s -> {
                 if (s.trim().isEmpty()) {
-                    yield strategy.handleValue("blank");
+                    yield strategies.blankStrategy().handleValue("blank");
                 } else if (s.equalsIgnoreCase("N/A")) {
-                    yield strategy.handleValue("N/A");
+                    yield strategies.notAvailableStrategy().handleValue("N/A");
                 } else {
                     try {
                         yield new BigDecimal(s);
                     } catch (NumberFormatException e) {
-                        yield strategy.handleValue("invalid: " + s);
+                        yield strategies.nullStrategy().handleValue("invalid: " + s);
                     }
                 }
             }
-            default -> strategy.handleValue("unsupported: " + value.getClass().getSimpleName());
+            default -> strategies.nullStrategy().handleValue("unsupported: " + value.getClass().getSimpleName());
+        };
+    }
+
+    /**
+     * Handle a batch cell that does not hold a plain scaled value
+     * @param batch Columnar batch
+     * @param column Column position
+     * @param row Row index
+     * @param strategies Handling strategies for null, blank and N/A values
+     * @return Handled value
+     */
+    protected BigDecimal handleCell(ColumnarRowBatch batch, int column, int row, SpecialValueStrategies strategies) {
+        CellState state = batch.state(column, row);
+        return switch (state) {
+            case VALUE -> BigDecimal.valueOf(batch.scaledValues(column)[row], ColumnarRowBatch.SCALE);
+            case DECIMAL -> batch.decimal(column, row);
+            default -> strategies.handle(state);
         };
     }
 
@@ -120,32 +227,21 @@ public abstract class AbstractComparator {
      * Extract value from a row
      * @param row Row data
      * @param columnName Column name
-     * @param strategy Handling strategy for special values
+     * @param strategies Handling strategies for null, blank and N/A values
      * @return Extracted value
      */
-    protected BigDecimal extractValue(Map<String, Object> row, String columnName, HandlingStrategy strategy) {
+    protected BigDecimal extractValue(Map<String, Object> row, String columnName, SpecialValueStrategies strategies) {
         Object value = row.get(columnName);
-        return handleValue(value, strategy);
+        return handleValue(value, strategies);
     }
 
     /**
-     * Find matching row in a list of rows based on a key
-     * @param rows List of rows
+     * Index rows by a key column, so matching rows are found in constant time
+     * @param rows Rows to index
      * @param keyColumn Key column name
-     * @param keyValue Key value
-     * @return Optional containing the matching row, or empty if not found
+     * @return Index of the rows by key
      */
-    protected Optional<Map<String, Object>> findMatchingRow(Iterable<Map<String, Object>> rows, String keyColumn, Object keyValue) {
-        if (keyValue == null) {
-            return Optional.empty();
-        }
-
-        for (Map<String, Object> row : rows) {
-            Object rowKeyValue = row.get(keyColumn);
-            if (rowKeyValue != null && rowKeyValue.equals(keyValue)) {
-                return Optional.of(row);
-            }
-        }
-        return Optional.empty();
+    protected KeyedRowIndex indexRows(Iterable<Map<String, Object>> rows, String keyColumn) {
+        return KeyedRowIndex.of(rows, keyColumn);
     }
 }
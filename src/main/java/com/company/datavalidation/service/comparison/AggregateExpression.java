@@ -0,0 +1,204 @@
+package com.company.datavalidation.service.comparison;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Aggregate evaluated by the database, such as {@code SUM(amount)}
+ * @param function Aggregate function (SUM, AVG, COUNT, MIN, MAX)
+ * @param argument Column or expression the function is applied to
+ * @param pushedDown True if the aggregate replaces a regular column that would otherwise
+ *                   be summed row by row in the JVM
+ */
+public record AggregateExpression(String function, String argument, boolean pushedDown) {
+
+    /**
+     * Parse a configured aggregate column such as "SUM(amount)"
+     * @param expression Aggregate column expression
+     * @return Parsed aggregate expression
+     * @throws IllegalArgumentException if the expression is not of the form FUNCTION(argument)
+     */
+    public static AggregateExpression parse(String expression) {
+        String[] parts = expression.split("[()]");
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Invalid aggregate column format: " + expression);
+        }
+        return new AggregateExpression(parts[0].trim(), parts[1].trim(), false);
+    }
+
+    /**
+     * Create the SUM aggregate that replaces streaming a regular column
+     * @param columnName Regular column name
+     * @return Pushed-down SUM aggregate
+     */
+    public static AggregateExpression sumOf(String columnName) {
+        return new AggregateExpression("SUM", columnName, true);
+    }
+
+    /**
+     * Check whether a configured column name is an aggregate expression
+     * @param columnName Configured column name
+     * @return True if the column is written as FUNCTION(argument)
+     */
+    public static boolean isAggregate(String columnName) {
+        return columnName.contains("(") && columnName.contains(")");
+    }
+
+    /**
+     * Render the aggregate as SQL
+     * @return SQL aggregate expression
+     */
+    public String toSql() {
+        return function + "(" + argument + ")";
+    }
+
+    /**
+     * Resolve the value of the aggregate when the database returned NULL or no row at all.
+     * COUNT over no rows is zero, and a pushed-down SUM over no rows is zero like the
+     * equivalent sum computed in the JVM; any other aggregate stays null.
+     * @param value Value returned by the database, or null
+     * @return Value as the comparison expects it
+     */
+    public BigDecimal valueOrDefault(BigDecimal value) {
+        if (value != null) {
+            return value;
+        }
+        return pushedDown || function.equalsIgnoreCase("COUNT") || function.equalsIgnoreCase("COUNT_BIG")
+                ? BigDecimal.ZERO
+                : null;
+    }
+
+    /**
+     * Check whether results over disjoint partitions can be merged into this aggregate
+     * @return True for SUM, COUNT, COUNT_BIG, MIN, MAX and AVG without DISTINCT
+     */
+    public boolean isDecomposable() {
+        if (argument.toUpperCase().startsWith("DISTINCT ")) {
+            return false;
+        }
+        return switch (function.toUpperCase()) {
+            case "SUM", "COUNT", "COUNT_BIG", "MIN", "MAX", "AVG" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Get the partial aggregates computed for each partition; AVG is split into SUM and COUNT
+     * @return Partial aggregates, each mergeable on its own
+     */
+    public List<AggregateExpression> partials() {
+        return function.equalsIgnoreCase("AVG")
+                ? List.of(new AggregateExpression("SUM", argument, false),
+                        new AggregateExpression("COUNT", argument, false))
+                : List.of(this);
+    }
+
+    /**
+     * Render the partial aggregates computed for each partition
+     * @return SQL of the partial aggregates
+     */
+    public List<String> partialSql() {
+        return partials().stream().map(AggregateExpression::toSql).toList();
+    }
+
+    /**
+     * Merge the partial aggregates of several partitions
+     * @param partials Partial values of each partition, aligned with {@link #partialSql()}
+     * @return Aggregate over all partitions, or null if no partition had a value
+     * @throws IllegalStateException if the aggregate is not decomposable
+     */
+    public BigDecimal merge(List<List<BigDecimal>> partials) {
+        return switch (function.toUpperCase()) {
+            case "SUM", "COUNT", "COUNT_BIG" -> sum(partials, 0);
+            case "MIN" -> partials.stream().map(p -> p.get(0)).filter(Objects::nonNull)
+                    .min(Comparator.naturalOrder()).orElse(null);
+            case "MAX" -> partials.stream().map(p -> p.get(0)).filter(Objects::nonNull)
+                    .max(Comparator.naturalOrder()).orElse(null);
+            case "AVG" -> {
+                BigDecimal sum = sum(partials, 0);
+                BigDecimal count = sum(partials, 1);
+                yield sum == null || count == null || count.signum() == 0
+                        ? null
+                        : sum.divide(count, MathContext.DECIMAL64);
+            }
+            default -> throw new IllegalStateException("Aggregate cannot be merged across partitions: " + toSql());
+        };
+    }
+
+    /**
+     * Check whether the aggregate can be estimated from a uniform sample of rows
+     * @return True for SUM, COUNT, COUNT_BIG and AVG without DISTINCT
+     */
+    public boolean isEstimable() {
+        if (argument.toUpperCase().startsWith("DISTINCT ")) {
+            return false;
+        }
+        return switch (function.toUpperCase()) {
+            case "SUM", "COUNT", "COUNT_BIG", "AVG" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Render the statistics of a sample needed to estimate the aggregate and its standard error
+     * @return SQL of the sample statistics
+     * @throws IllegalStateException if the aggregate cannot be estimated
+     */
+    public List<String> sampleSql() {
+        String squares = "SUM(CAST(" + argument + " AS FLOAT) * " + argument + ")";
+        return switch (function.toUpperCase()) {
+            case "SUM" -> List.of(toSql(), squares);
+            case "COUNT", "COUNT_BIG" -> List.of(toSql());
+            case "AVG" -> List.of("SUM(" + argument + ")", "COUNT(" + argument + ")", squares);
+            default -> throw new IllegalStateException("Aggregate cannot be estimated from a sample: " + toSql());
+        };
+    }
+
+    /**
+     * Estimate the aggregate over all rows from the statistics of a uniform sample.
+     * Totals are scaled up by the sampled fraction; their variance is that of a Bernoulli
+     * sample, and the variance of an average is that of a simple random sample.
+     * @param stats Sample statistics, aligned with {@link #sampleSql()}
+     * @param fraction Fraction of rows sampled, between 0 and 1
+     * @return Estimate, with a null value if the sample had no values
+     */
+    public SampleEstimate estimate(List<BigDecimal> stats, double fraction) {
+        BigDecimal scale = BigDecimal.valueOf(fraction);
+        return switch (function.toUpperCase()) {
+            case "SUM" -> stats.get(0) == null
+                    ? SampleEstimate.NONE
+                    : new SampleEstimate(stats.get(0).divide(scale, MathContext.DECIMAL64),
+                            standardError((1 - fraction) / (fraction * fraction) * stats.get(1).doubleValue()));
+            case "COUNT", "COUNT_BIG" -> new SampleEstimate(stats.get(0).divide(scale, MathContext.DECIMAL64),
+                    standardError((1 - fraction) / (fraction * fraction) * stats.get(0).doubleValue()));
+            case "AVG" -> {
+                double count = stats.get(1).doubleValue();
+                if (count == 0) {
+                    yield SampleEstimate.NONE;
+                }
+                BigDecimal mean = stats.get(0).divide(stats.get(1), MathContext.DECIMAL64);
+                double sum = stats.get(0).doubleValue();
+                double variance = count > 1
+                        ? Math.max(0, (stats.get(2).doubleValue() - sum * sum / count) / (count - 1))
+                        : 0;
+                yield new SampleEstimate(mean, standardError((1 - fraction) * variance / count));
+            }
+            default -> throw new IllegalStateException("Aggregate cannot be estimated from a sample: " + toSql());
+        };
+    }
+
+    private static BigDecimal standardError(double variance) {
+        return BigDecimal.valueOf(Math.sqrt(variance));
+    }
+
+    private static BigDecimal sum(List<List<BigDecimal>> partials, int position) {
+        return partials.stream()
+                .map(p -> p.get(position))
+                .filter(Objects::nonNull)
+                .reduce(BigDecimal::add)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,107 @@
+package com.company.datavalidation.service.comparison;
+
+import com.company.datavalidation.model.ColumnComparisonConfig;
+import com.company.datavalidation.model.DailyAggregateSnapshot;
+import com.company.datavalidation.repository.DailyAggregateSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Stores the day-over-day values of completed days so later runs read them back
+ * instead of rescanning the source table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AggregateSnapshotService {
+
+    private final DailyAggregateSnapshotRepository dailyAggregateSnapshotRepository;
+
+    // Shared with the comparators, so a snapshot is final exactly when their day has moved past it
+    private final Clock clock;
+
+    /**
+     * Find the final snapshot values of a day for every column configuration
+     * @param columnConfigs Column configurations
+     * @param definitions Aggregate definitions aligned with the column configurations
+     * @param date Day of the snapshots
+     * @return Values aligned with the column configurations, or empty if any column has no final
+     *         snapshot with a matching definition
+     */
+    public Optional<BigDecimal[]> findFinalValues(List<ColumnComparisonConfig> columnConfigs,
+                                                  List<String> definitions, LocalDate date) {
+        Map<Long, DailyAggregateSnapshot> snapshots = findSnapshots(columnConfigs, date);
+
+        BigDecimal[] values = new BigDecimal[columnConfigs.size()];
+        for (int i = 0; i < columnConfigs.size(); i++) {
+            DailyAggregateSnapshot snapshot = snapshots.get(columnConfigs.get(i).getId());
+            if (snapshot == null || !snapshot.isFinal()
+                    || !snapshot.getAggregateDefinition().equals(definitions.get(i))) {
+                return Optional.empty();
+            }
+            values[i] = snapshot.getAggregateValue();
+        }
+
+        log.debug("Using {} snapshot values for {}", values.length, date);
+        return Optional.of(values);
+    }
+
+    /**
+     * Save or replace the snapshot values of a day. Runs in its own transaction so a failed
+     * save, such as a concurrent run saving the same day, cannot roll back the validation.
+     * @param columnConfigs Column configurations
+     * @param definitions Aggregate definitions aligned with the column configurations
+     * @param date Day of the snapshots
+     * @param values Values aligned with the column configurations
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void saveValues(List<ColumnComparisonConfig> columnConfigs, List<String> definitions,
+                           LocalDate date, BigDecimal[] values) {
+        Map<Long, DailyAggregateSnapshot> snapshots = findSnapshots(columnConfigs, date);
+        LocalDateTime capturedAt = LocalDateTime.now(clock);
+
+        List<DailyAggregateSnapshot> updated = new ArrayList<>(columnConfigs.size());
+        for (int i = 0; i < columnConfigs.size(); i++) {
+            ColumnComparisonConfig columnConfig = columnConfigs.get(i);
+            DailyAggregateSnapshot snapshot = snapshots.getOrDefault(columnConfig.getId(),
+                    DailyAggregateSnapshot.builder()
+                            .columnComparisonConfig(columnConfig)
+                            .snapshotDate(date)
+                            .build());
+            snapshot.setAggregateDefinition(definitions.get(i));
+            snapshot.setAggregateValue(values[i]);
+            snapshot.setCapturedAt(capturedAt);
+            updated.add(snapshot);
+        }
+
+        dailyAggregateSnapshotRepository.saveAll(updated);
+    }
+
+    private Map<Long, DailyAggregateSnapshot> findSnapshots(List<ColumnComparisonConfig> columnConfigs,
+                                                            LocalDate date) {
+        List<Long> columnConfigIds = columnConfigs.stream()
+                .map(ColumnComparisonConfig::getId)
+                .toList();
+
+        return dailyAggregateSnapshotRepository
+                .findByColumnComparisonConfigIdInAndSnapshotDate(columnConfigIds, date)
+                .stream()
+                .collect(Collectors.toMap(
+                        snapshot -> snapshot.getColumnComparisonConfig().getId(),
+                        Function.identity()));
+    }
+}
@@ -0,0 +1,108 @@
+package com.company.datavalidation.service.comparison;
+
+import com.company.datavalidation.model.ComparisonType;
+import com.company.datavalidation.repository.ScaledDecimal;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Compares columns of actual and expected values held as scaled longs, a whole column per call.
+ * The loops are branch-free over primitive arrays so the JIT compiles them to SIMD instructions;
+ * only the percentage division stays scalar. Results match the BigDecimal comparison of
+ * {@link AbstractComparator} for every row whose percentage fits a long.
+ */
+final class ComparisonKernel {
+
+    /**
+     * Marker in the percentages of rows whose percentage does not fit a long
+     */
+    static final long NO_PERCENTAGE = ScaledDecimal.NOT_SCALED;
+
+    // 100% at the scale of percentages, reported when only the expected value is zero
+    private static final long ONE_HUNDRED_PERCENT = 100_000_000L;
+
+    private ComparisonKernel() {
+    }
+
+    /**
+     * Compare a column of rows
+     * @param actual Scaled actual values
+     * @param expected Scaled expected values
+     * @param size Number of rows
+     * @param comparisonType Type of comparison
+     * @param threshold Threshold from {@link #scaledThreshold}
+     * @param difference Receives the scaled differences
+     * @param percentage Receives the percentages at {@link ScaledDecimal#PERCENTAGE_SCALE}, or NO_PERCENTAGE
+     * @param exceeded Receives whether each row exceeds the threshold; meaningless where the
+     *                 percentage is NO_PERCENTAGE
+     */
+    static void compare(long[] actual, long[] expected, int size, ComparisonType comparisonType,
+                        long threshold, long[] difference, long[] percentage, boolean[] exceeded) {
+        differences(actual, expected, size, difference);
+        percentages(difference, expected, size, percentage);
+        switch (comparisonType) {
+            case PERCENTAGE -> exceeds(percentage, size, threshold, exceeded);
+            case ABSOLUTE, EXACT -> exceeds(difference, size, threshold, exceeded);
+        }
+    }
+
+    /**
+     * Convert a threshold to the scale of the values a comparison type checks against it
+     * @param comparisonType Type of comparison
+     * @param threshold Threshold value
+     * @return Scaled threshold; zero for exact comparisons, where any difference exceeds it
+     */
+    static long scaledThreshold(ComparisonType comparisonType, BigDecimal threshold) {
+        return switch (comparisonType) {
+            case PERCENTAGE -> thresholdAtScale(threshold, ScaledDecimal.PERCENTAGE_SCALE);
+            case ABSOLUTE -> thresholdAtScale(threshold, ScaledDecimal.SCALE);
+            case EXACT -> 0L;
+        };
+    }
+
+    /**
+     * Subtract the expected values from the actual values. Both are below 10^18 in magnitude,
+     * as {@link ScaledDecimal} admits at most 14 integer digits, so no difference overflows.
+     */
+    static void differences(long[] actual, long[] expected, int size, long[] difference) {
+        for (int i = 0; i < size; i++) {
+            difference[i] = actual[i] - expected[i];
+        }
+    }
+
+    /**
+     * Compute each difference as a percentage of its expected value
+     */
+    static void percentages(long[] difference, long[] expected, int size, long[] percentage) {
+        for (int i = 0; i < size; i++) {
+            percentage[i] = expected[i] != 0
+                    ? ScaledDecimal.percentage(difference[i], expected[i])
+                    : difference[i] == 0 ? 0L : ONE_HUNDRED_PERCENT;
+        }
+    }
+
+    /**
+     * Flag the values whose magnitude exceeds a threshold
+     */
+    static void exceeds(long[] values, int size, long threshold, boolean[] exceeded) {
+        for (int i = 0; i < size; i++) {
+            exceeded[i] = Math.abs(values[i]) > threshold;
+        }
+    }
+
+    /**
+     * Scale a threshold so that an integral value exceeds it exactly when the value at that scale
+     * exceeds the decimal threshold
+     * @param threshold Threshold value
+     * @param scale Scale of the values compared with it
+     * @return Threshold rounded down, clamped to the range of long
+     */
+    static long thresholdAtScale(BigDecimal threshold, int scale) {
+        BigDecimal scaled = threshold.movePointRight(scale).setScale(0, RoundingMode.FLOOR);
+        if (scaled.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) {
+            return Long.MAX_VALUE;
+        }
+        return scaled.max(BigDecimal.valueOf(-Long.MAX_VALUE)).longValue();
+    }
+}
@@ -0,0 +1,204 @@
+package com.company.datavalidation.service.comparison;
+
+import com.company.datavalidation.model.ColumnComparisonConfig;
+import com.company.datavalidation.model.ComparisonType;
+import com.company.datavalidation.model.ThresholdConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column comparisons of one configuration, resolved once into arrays: which column configurations
+ * are compared, the source and target column, comparison type and handling strategies of each, and
+ * their thresholds, including the scaled threshold used by {@link ComparisonKernel}. Column
+ * configurations without a threshold configuration are left out. Plans are immutable and shared
+ * between runs through {@link PlanCache}, so a cached plan holds no entities; each run binds it to
+ * its own column configurations.
+ */
+@Slf4j
+final class ComparisonPlan {
+
+    private final int[] indexes;
+    private final ComparisonType[] comparisonTypes;
+    private final SpecialValueStrategies[] strategies;
+    private final String[] sourceColumns;
+    private final String[] targetColumns;
+    private final BigDecimal[] thresholds;
+    private final long[] scaledThresholds;
+    private final ColumnComparisonConfig[] columnConfigs;
+
+    private ComparisonPlan(int[] indexes, ComparisonType[] comparisonTypes, SpecialValueStrategies[] strategies,
+                           String[] sourceColumns, String[] targetColumns, BigDecimal[] thresholds,
+                           long[] scaledThresholds, ColumnComparisonConfig[] columnConfigs) {
+        this.indexes = indexes;
+        this.comparisonTypes = comparisonTypes;
+        this.strategies = strategies;
+        this.sourceColumns = sourceColumns;
+        this.targetColumns = targetColumns;
+        this.thresholds = thresholds;
+        this.scaledThresholds = scaledThresholds;
+        this.columnConfigs = columnConfigs;
+    }
+
+    /**
+     * Compile the column comparisons of a configuration
+     * @param columnConfigs Column configurations in evaluation order
+     * @param thresholdConfigs Map of column config ID to threshold configuration
+     * @return Comparison plan
+     */
+    static ComparisonPlan compile(List<ColumnComparisonConfig> columnConfigs,
+                                  Map<Long, ThresholdConfig> thresholdConfigs) {
+        List<Integer> compared = new ArrayList<>(columnConfigs.size());
+        for (int i = 0; i < columnConfigs.size(); i++) {
+            if (thresholdConfigs.containsKey(columnConfigs.get(i).getId())) {
+                compared.add(i);
+            } else {
+                log.warn("No threshold configuration found for column config: {}", columnConfigs.get(i).getId());
+            }
+        }
+
+        int size = compared.size();
+        int[] indexes = new int[size];
+        ComparisonType[] comparisonTypes = new ComparisonType[size];
+        SpecialValueStrategies[] strategies = new SpecialValueStrategies[size];
+        String[] sourceColumns = new String[size];
+        String[] targetColumns = new String[size];
+        BigDecimal[] thresholds = new BigDecimal[size];
+        long[] scaledThresholds = new long[size];
+        for (int column = 0; column < size; column++) {
+            ColumnComparisonConfig columnConfig = columnConfigs.get(compared.get(column));
+            indexes[column] = compared.get(column);
+            comparisonTypes[column] = columnConfig.getComparisonType();
+            strategies[column] = SpecialValueStrategies.of(columnConfig);
+            sourceColumns[column] = columnConfig.getColumnName();
+            // Use same column name if target not specified
+            targetColumns[column] = columnConfig.getTargetColumnName() != null
+                    ? columnConfig.getTargetColumnName()
+                    : columnConfig.getColumnName();
+            thresholds[column] = thresholdConfigs.get(columnConfig.getId()).getThresholdValue();
+            scaledThresholds[column] = ComparisonKernel.scaledThreshold(
+                    columnConfig.getComparisonType(), thresholds[column]);
+        }
+        return new ComparisonPlan(indexes, comparisonTypes, strategies, sourceColumns, targetColumns,
+                thresholds, scaledThresholds, null);
+    }
+
+    /**
+     * Describe everything a plan is compiled from, so a cached plan is replaced as soon as a
+     * column or threshold configuration changes
+     * @param columnConfigs Column configurations in evaluation order
+     * @param thresholdConfigs Map of column config ID to threshold configuration
+     * @return Value equal to the signature of any configuration compiling to the same plan
+     */
+    static List<Object> signature(List<ColumnComparisonConfig> columnConfigs,
+                                  Map<Long, ThresholdConfig> thresholdConfigs) {
+        List<Object> signature = new ArrayList<>(columnConfigs.size());
+        for (ColumnComparisonConfig columnConfig : columnConfigs) {
+            ThresholdConfig thresholdConfig = thresholdConfigs.get(columnConfig.getId());
+            signature.add(Arrays.asList(
+                    columnConfig.getId(),
+                    columnConfig.getColumnName(),
+                    columnConfig.getTargetColumnName(),
+                    columnConfig.getComparisonType(),
+                    columnConfig.getNullHandlingStrategy(),
+                    columnConfig.getBlankHandlingStrategy(),
+                    columnConfig.getNaHandlingStrategy(),
+                    thresholdConfig != null ? thresholdConfig.getThresholdValue() : null));
+        }
+        return signature;
+    }
+
+    /**
+     * Number of compared column configurations
+     */
+    int size() {
+        return indexes.length;
+    }
+
+    /**
+     * Get the position of a compared column among the column configurations the plan was compiled from
+     * @param column Column position in the plan
+     * @return Index into the compiled column configurations
+     */
+    int index(int column) {
+        return indexes[column];
+    }
+
+    /**
+     * Bind the plan to the column configurations of a run
+     * @param columnConfigs Column configurations with the signature the plan was compiled from
+     * @return Plan sharing this plan's arrays, whose compared columns resolve to the given configurations
+     */
+    ComparisonPlan bind(List<ColumnComparisonConfig> columnConfigs) {
+        return new ComparisonPlan(indexes, comparisonTypes, strategies, sourceColumns, targetColumns,
+                thresholds, scaledThresholds,
+                Arrays.stream(indexes).mapToObj(columnConfigs::get).toArray(ColumnComparisonConfig[]::new));
+    }
+
+    /**
+     * Get the configuration of a compared column of a bound plan
+     * @param column Column position in the plan
+     * @return Column configuration
+     */
+    ColumnComparisonConfig columnConfig(int column) {
+        return columnConfigs[column];
+    }
+
+    /**
+     * Get the comparison type of a compared column
+     * @param column Column position in the plan
+     * @return Comparison type
+     */
+    ComparisonType comparisonType(int column) {
+        return comparisonTypes[column];
+    }
+
+    /**
+     * Get the handling strategies for special values of a compared column
+     * @param column Column position in the plan
+     * @return Handling strategies for null, blank and N/A values
+     */
+    SpecialValueStrategies strategies(int column) {
+        return strategies[column];
+    }
+
+    /**
+     * Get the threshold of a compared column
+     * @param column Column position in the plan
+     * @return Threshold value
+     */
+    BigDecimal threshold(int column) {
+        return thresholds[column];
+    }
+
+    /**
+     * Get the threshold of a compared column as compared by {@link ComparisonKernel}
+     * @param column Column position in the plan
+     * @return Scaled threshold
+     */
+    long scaledThreshold(int column) {
+        return scaledThresholds[column];
+    }
+
+    /**
+     * Get the source column names of the compared columns
+     * @param prefix Prefix of the source columns in the rows read
+     * @return Prefixed column names in plan order
+     */
+    String[] sourceColumns(String prefix) {
+        return Arrays.stream(sourceColumns).map(column -> prefix + column).toArray(String[]::new);
+    }
+
+    /**
+     * Get the target column names of the compared columns
+     * @param prefix Prefix of the target columns in the rows read
+     * @return Prefixed column names in plan order
+     */
+    String[] targetColumns(String prefix) {
+        return Arrays.stream(targetColumns).map(column -> prefix + column).toArray(String[]::new);
+    }
+}
@@ -1,19 +1,51 @@
 package com.company.datavalidation.service.comparison;
 
 import com.company.datavalidation.model.*;
+import com.company.datavalidation.repository.BucketChecksum;
+import com.company.datavalidation.repository.ColumnarRowBatch;
 import com.company.datavalidation.repository.DynamicTableRepository;
+import com.company.datavalidation.repository.KeyRange;
+import com.company.datavalidation.repository.KeyedTableScan;
+import com.company.datavalidation.repository.MergeJoinHandler;
+import com.company.datavalidation.repository.MergeJoinSummary;
+import com.company.datavalidation.repository.SourceDataSource;
+import com.company.datavalidation.repository.SqlDialect;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 @Service
 @Slf4j
 public class CrossTableComparator extends AbstractComparator {
 
+    @Value("${datavalidation.cross-table.fingerprint-fetch-size:500}")
+    private int fingerprintFetchSize = 500;
+
+    @Value("${datavalidation.cross-table.checksum-leaf-rows:1000}")
+    private long checksumLeafRows = 1000;
+
+    @Value("${datavalidation.cross-table.missing-row-sample-size:20}")
+    private int missingRowSampleSize = 20;
+
+    @Value("${datavalidation.cross-table.bloom-false-positive-rate:0.01}")
+    private double bloomFalsePositiveRate = 0.01;
+
+    @Value("${datavalidation.cross-table.key-lookup-batch-size:500}")
+    private int keyLookupBatchSize = 500;
+
+    private final PlanCache<ComparisonPlan> plans = new PlanCache<>();
+
     public CrossTableComparator(DynamicTableRepository dynamicTableRepository) {
         super(dynamicTableRepository);
     }
@@ -37,8 +69,6 @@ public class CrossTableComparator extends AbstractComparator {
         String joinCondition = config.getJoinCondition();
 
         // Create source and target column mapping
-        record ColumnMapping(String sourceColumn, String targetColumn, ColumnComparisonConfig config) {}
-
         var columnMappings = columnConfigs.stream()
                 .map(columnConfig -> {
                     String sourceColumn = columnConfig.getColumnName();
@@ -62,60 +92,684 @@ public class CrossTableComparator extends AbstractComparator {
                 .map(ColumnMapping::targetColumn)
                 .toList();
 
+        // Resolve the column comparisons once per configuration rather than for every row
+        ComparisonPlan plan = plans.get(config.getId(), ComparisonPlan.signature(columnConfigs, thresholdConfigs),
+                () -> ComparisonPlan.compile(columnConfigs, thresholdConfigs)).bind(columnConfigs);
+
         // Assume a standard column name for date
         String dateColumn = "created_date";
 
-        // Execute cross-table query
-        var crossTableData = dynamicTableRepository.executeCrossTableQuery(
-                sourceTable, targetTable, sourceColumns, targetColumns, joinCondition,
-                dateColumn, null);
+        // Compare the rows only when the day's aggregates of both tables disagree
+        if (config.isAggregateFirst()) {
+            Optional<List<ValidationDetailResult>> aggregateResults = compareAggregates(
+                    config, columnMappings, sourceColumns, targetColumns, dateColumn, thresholdConfigs);
+            if (aggregateResults.isPresent()) {
+                return aggregateResults.get();
+            }
+        }
 
-        // Perform comparison for each row and column
         List<ValidationDetailResult> results = new ArrayList<>();
+        String keyColumn = config.getKeyColumn();
+
+        // With fingerprints, the join only returns the rows whose fingerprints differ
+        String rowFilter = config.isFingerprintComparison() && !config.isCrossDatasource()
+                ? fingerprintMismatch(sourceTable, targetTable, sourceColumns, targetColumns)
+                : null;
+
+        if (config.isKeyExistenceCheck() || config.isChecksumTree() || config.isCrossDatasource()) {
+            // Both sides are read on their own, so rows can only be lined up by key
+            if (keyColumn == null || keyColumn.isBlank()) {
+                throw new IllegalStateException("Cross-table config " + config.getId() + " needs a key column to compare "
+                        + (config.isKeyExistenceCheck() ? "key existence"
+                        : config.isChecksumTree() ? "by checksum tree" : "across datasources"));
+            }
+            var source = sourceScan(config, sourceColumns, dateColumn);
+            var target = targetScan(config, targetColumns, dateColumn);
+
+            if (config.isKeyExistenceCheck()) {
+                compareKeyExistence(config, source, target, columnMappings, results);
+            } else if (config.isChecksumTree() && hasComparableFingerprints(source, target)
+                    && hasIntegralKeys(source, target)) {
+                compareByChecksumTree(config, source, target, columnMappings, plan, results);
+            } else {
+                // A SQL join cannot span databases, so merge-join key-ordered reads of both sides
+                compareAcrossDatasources(config, source, target, columnMappings, plan, results);
+            }
+        } else if (keyColumn != null && !keyColumn.isBlank()) {
+            // Page through the join on the key, comparing each chunk while the next one is fetched
+            var rowBatch = rowBatch(plan, "s_", "t_", results);
+            dynamicTableRepository.streamCrossTableQueryByKey(
+                    sourceTable, targetTable, sourceColumns, targetColumns, joinCondition, keyColumn,
+                    dateColumn, rowFilter, row -> rowBatch.add(row.get("row_key"), row, row));
+            rowBatch.flush();
+        } else {
+            // Execute cross-table query
+            var crossTableData = dynamicTableRepository.executeCrossTableQuery(
+                    sourceTable, targetTable, sourceColumns, targetColumns, joinCondition,
+                    dateColumn, rowFilter);
+
+            // Perform comparison for each row and column
+            var rowBatch = rowBatch(plan, "s_", "t_", results);
+            for (var row : crossTableData) {
+                rowBatch.add(row.get("row_key"), row, row);
+            }
+            rowBatch.flush();
+        }
+
+        if (!config.isKeyExistenceCheck() && !config.isChecksumTree() && !config.isCrossDatasource()) {
+            // The join only returns rows found on both sides, so look for the others separately
+            compareMissingRows(config, dateColumn, columnMappings, results);
+        }
+
+        return results;
+    }
+
+    /**
+     * Source and target column compared by a column configuration
+     */
+    private record ColumnMapping(String sourceColumn, String targetColumn, ColumnComparisonConfig config) {}
+
+    /**
+     * Compare the row counts, and the sums and non-null counts of every mapped column, of the day's
+     * rows of both tables, in one aggregate query per table. Thresholds apply to single rows rather
+     * than to table-wide sums, so any difference at all sends the comparison down to the rows; only
+     * differences that cancel out exactly go unnoticed. Columns that are not numeric on both sides
+     * cannot be summed, so their tables are always compared row by row. The target table is filtered
+     * on the same date column as the source.
+     * @param config Cross-table configuration
+     * @param columnMappings Column mappings to compare
+     * @param sourceColumns Source columns to aggregate
+     * @param targetColumns Target columns to aggregate
+     * @param dateColumn Date column to filter both tables on
+     * @param thresholdConfigs Map of column config ID to threshold configuration
+     * @return One result per column if all aggregates are equal, or empty if the rows must be compared
+     */
+    private Optional<List<ValidationDetailResult>> compareAggregates(CrossTableConfig config,
+                                                                     List<ColumnMapping> columnMappings,
+                                                                     List<String> sourceColumns,
+                                                                     List<String> targetColumns, String dateColumn,
+                                                                     Map<Long, ThresholdConfig> thresholdConfigs) {
+        ComparisonConfig sourceConfig = config.getSourceComparisonConfig();
+        Set<String> sourceNumeric = SourceDataSource.call(sourceConfig.getDatasourceName(), () ->
+                dynamicTableRepository.findNumericColumns(sourceConfig.getTableName(), sourceColumns));
+        Set<String> targetNumeric = SourceDataSource.call(targetDatasourceName(config), () ->
+                dynamicTableRepository.findNumericColumns(config.getTargetTableName(), targetColumns));
+        if (!sourceNumeric.containsAll(sourceColumns) || !targetNumeric.containsAll(targetColumns)) {
+            log.info("Cross-table config {} maps columns that are not numeric, comparing rows", config.getId());
+            return Optional.empty();
+        }
+
+        List<BigDecimal> sourceAggregates = SourceDataSource.call(sourceConfig.getDatasourceName(), () ->
+                dynamicTableRepository.executeCurrentDayAggregates(sourceConfig.getTableName(),
+                        aggregateExpressions(sourceColumns), dateColumn, null));
+        List<BigDecimal> targetAggregates = SourceDataSource.call(targetDatasourceName(config), () ->
+                dynamicTableRepository.executeCurrentDayAggregates(config.getTargetTableName(),
+                        aggregateExpressions(targetColumns), dateColumn, null));
+
+        // Aggregates are laid out as COUNT(*), then SUM and COUNT of each column
+        if (sourceAggregates.getFirst().compareTo(targetAggregates.getFirst()) != 0) {
+            log.info("Row counts of cross-table config {} differ ({} and {}), comparing rows",
+                    config.getId(), sourceAggregates.getFirst(), targetAggregates.getFirst());
+            return Optional.empty();
+        }
+
+        List<ValidationDetailResult> results = new ArrayList<>(columnMappings.size());
+        for (int i = 0; i < columnMappings.size(); i++) {
+            var columnConfig = columnMappings.get(i).config();
+            var thresholdConfig = thresholdConfigs.get(columnConfig.getId());
+
+            if (thresholdConfig == null) {
+                log.warn("No threshold configuration found for column config: {}", columnConfig.getId());
+                continue;
+            }
+
+            BigDecimal sourceCount = sourceAggregates.get(2 + 2 * i);
+            BigDecimal targetCount = targetAggregates.get(2 + 2 * i);
+            // SUM of no values is NULL; nulls count as zero like in the row-level comparison
+            BigDecimal sourceSum = Objects.requireNonNullElse(sourceAggregates.get(1 + 2 * i), BigDecimal.ZERO);
+            BigDecimal targetSum = Objects.requireNonNullElse(targetAggregates.get(1 + 2 * i), BigDecimal.ZERO);
+
+            if (sourceCount.compareTo(targetCount) != 0 || sourceSum.compareTo(targetSum) != 0) {
+                log.info("Aggregates of column {} of cross-table config {} differ, comparing rows",
+                        columnConfig.getColumnName(), config.getId());
+                return Optional.empty();
+            }
+
+            ComparisonResult comparisonResult = compareValues(sourceSum, targetSum, columnConfig.getComparisonType());
+            results.add(ValidationDetailResult.builder()
+                    .columnComparisonConfig(columnConfig)
+                    .actualValue(comparisonResult.actualValue())
+                    .expectedValue(comparisonResult.expectedValue())
+                    .differenceValue(comparisonResult.differenceValue())
+                    .differencePercentage(comparisonResult.differencePercentage())
+                    .thresholdExceeded(false)
+                    .build());
+        }
+
+        log.debug("Aggregates of cross-table config {} agree, skipping the row comparison", config.getId());
+        return Optional.of(results);
+    }
+
+    /**
+     * Build the aggregate expressions compared before the rows
+     * @param columns Columns to aggregate
+     * @return COUNT(*), then SUM and COUNT of each column; sums are taken as wide decimals so
+     *         integer columns do not overflow
+     */
+    private List<String> aggregateExpressions(List<String> columns) {
+        List<String> expressions = new ArrayList<>(1 + 2 * columns.size());
+        expressions.add("COUNT(*)");
+        for (String column : columns) {
+            expressions.add("SUM(CAST(%s AS DECIMAL(38,4)))".formatted(column));
+            expressions.add("COUNT(%s)".formatted(column));
+        }
+        return expressions;
+    }
+
+    /**
+     * Build a join condition selecting the rows whose source and target fingerprints differ
+     * @param sourceTable Source table name
+     * @param targetTable Target table name
+     * @param sourceColumns Source columns to fingerprint
+     * @param targetColumns Target columns to fingerprint
+     * @return SQL condition on the s and t aliases of the join
+     */
+    private String fingerprintMismatch(String sourceTable, String targetTable,
+                                       List<String> sourceColumns, List<String> targetColumns) {
+        SqlDialect dialect = dynamicTableRepository.dialect();
+        return "%s <> %s".formatted(
+                dialect.rowFingerprint(sourceColumns.stream().map(column -> "s." + column).toList(),
+                        dynamicTableRepository.findColumnTypes(sourceTable, sourceColumns)),
+                dialect.rowFingerprint(targetColumns.stream().map(column -> "t." + column).toList(),
+                        dynamicTableRepository.findColumnTypes(targetTable, targetColumns)));
+    }
+
+    /**
+     * Merge-join the source and target tables on their keys, each read from its own datasource.
+     * Matched rows are compared column by column; rows missing from either side are counted and
+     * a sample of their keys is reported.
+     * With fingerprint comparison, only keys and row fingerprints are read, and only the rows whose
+     * fingerprints differ are read in full.
+     * @param config Cross-table configuration
+     * @param source Source side
+     * @param target Target side
+     * @param columnMappings Column mappings to compare
+     * @param plan Compiled column comparisons
+     * @param results Results to add to
+     */
+    private void compareAcrossDatasources(CrossTableConfig config, KeyedTableScan source, KeyedTableScan target,
+                                          List<ColumnMapping> columnMappings, ComparisonPlan plan,
+                                          List<ValidationDetailResult> results) {
+        var missingRows = new MissingRowSamples();
+        MergeJoinSummary summary;
+        if (config.isFingerprintComparison() && hasComparableFingerprints(source, target)) {
+            var handler = new FingerprintMismatchHandler(source, target, plan, missingRows, results);
+            summary = dynamicTableRepository.mergeJoinFingerprintsByKey(source, target, handler);
+            handler.flush();
+        } else {
+            summary = mergeJoinRows(source, target, plan, missingRows, results);
+        }
+        missingRows.addResults(columnMappings, results);
+
+        if (summary.isComplete()) {
+            log.debug("Matched all {} rows of cross-table config {}", summary.matched(), config.getId());
+        } else {
+            log.warn("Cross-table config {} matched {} rows, {} only in source, {} only in target",
+                    config.getId(), summary.matched(), summary.sourceOnly(), summary.targetOnly());
+        }
+    }
+
+    /**
+     * Check that every key of the day exists on both sides, without comparing any values. Each
+     * direction streams the keys of one side into a Bloom filter and streams the keys of the other
+     * side through it; keys the filter rules out are looked up again in batches, so keys added
+     * since the filter was built are not reported. Memory stays at a few bits per key, and a key
+     * missing from one side goes unreported only if it is a false positive of the filter.
+     * @param config Cross-table configuration
+     * @param source Source side
+     * @param target Target side
+     * @param columnMappings Column mappings of the comparison
+     * @param results Results to add to
+     */
+    private void compareKeyExistence(CrossTableConfig config, KeyedTableScan source, KeyedTableScan target,
+                                     List<ColumnMapping> columnMappings, List<ValidationDetailResult> results) {
+        var missingRows = new MissingRowSamples();
+        findMissingKeys(source, target, missingRows.sourceOnly());
+        findMissingKeys(target, source, missingRows.targetOnly());
+
+        log.debug("Checked keys of cross-table config {}: {} only in source, {} only in target",
+                config.getId(), missingRows.sourceOnly().count(), missingRows.targetOnly().count());
+        missingRows.addResults(columnMappings, results);
+    }
 
-        for (var row : crossTableData) {
-            for (var mapping : columnMappings) {
-                var columnConfig = mapping.config();
-                var thresholdConfig = thresholdConfigs.get(columnConfig.getId());
+    /**
+     * Find the keys of one side that are missing from the other side
+     * @param probe Side whose keys are checked
+     * @param build Side the keys are looked for in
+     * @param missing Sample to offer the missing keys to
+     */
+    private void findMissingKeys(KeyedTableScan probe, KeyedTableScan build, ReservoirSample<Object> missing) {
+        BigDecimal buildRows = SourceDataSource.call(build.datasourceName(), () ->
+                dynamicTableRepository.executeCurrentDayAggregates(build.tableName(), List.of("COUNT(*)"),
+                        build.dateColumn(), build.exclusionCondition()).getFirst());
+        var filter = new KeyBloomFilter(buildRows.longValue(), bloomFalsePositiveRate);
+        dynamicTableRepository.streamKeys(build, filter::add);
+        log.debug("Built a {} bit Bloom filter of {} keys of {}", filter.bitCount(), buildRows, build.tableName());
 
-                if (thresholdConfig == null) {
-                    log.warn("No threshold configuration found for column config: {}", columnConfig.getId());
-                    continue;
+        List<Object> candidates = new ArrayList<>();
+        dynamicTableRepository.streamKeys(probe, key -> {
+            if (!filter.mightContain(key)) {
+                candidates.add(key);
+                if (candidates.size() >= Math.max(1, keyLookupBatchSize)) {
+                    confirmMissingKeys(build, candidates, missing);
                 }
+            }
+        });
+        confirmMissingKeys(build, candidates, missing);
+    }
 
-                // Extract source and target values
-                BigDecimal sourceValue = extractValue(row, "s_" + mapping.sourceColumn(),
-                        columnConfig.getNullHandlingStrategy());
-                BigDecimal targetValue = extractValue(row, "t_" + mapping.targetColumn(),
-                        columnConfig.getNullHandlingStrategy());
+    /**
+     * Look up the keys a Bloom filter ruled out, and offer the ones still missing to the sample
+     * @param build Side the keys are looked for in
+     * @param candidates Keys to confirm; cleared afterwards
+     * @param missing Sample to offer the missing keys to
+     */
+    private void confirmMissingKeys(KeyedTableScan build, List<Object> candidates, ReservoirSample<Object> missing) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Set<Object> found = new HashSet<>();
+        for (Object key : dynamicTableRepository.findExistingKeys(build, candidates)) {
+            found.add(RowKeys.normalise(key));
+        }
+        for (Object key : candidates) {
+            if (!found.contains(RowKeys.normalise(key))) {
+                missing.offer(key);
+            }
+        }
+        candidates.clear();
+    }
 
-                // Skip comparison if either value is null
-                if (sourceValue == null || targetValue == null) {
-                    continue;
+    /**
+     * Localise differing rows with a tree of key-bucket checksums. Both sides count and checksum
+     * their rows in fanout buckets of the key range; only buckets whose checksums differ are split
+     * again, and buckets small enough are merged by fingerprint, so the cost follows the number of
+     * differing rows rather than the size of the tables. Keys must be integral; configs keyed
+     * otherwise are merged in full.
+     * @param config Cross-table configuration
+     * @param source Source side
+     * @param target Target side
+     * @param columnMappings Column mappings to compare
+     * @param plan Compiled column comparisons
+     * @param results Results to add to
+     */
+    private void compareByChecksumTree(CrossTableConfig config, KeyedTableScan source, KeyedTableScan target,
+                                       List<ColumnMapping> columnMappings, ComparisonPlan plan,
+                                       List<ValidationDetailResult> results) {
+        Optional<KeyRange> sourceRange = dynamicTableRepository.findKeyRange(source);
+        Optional<KeyRange> targetRange = dynamicTableRepository.findKeyRange(target);
+        if (sourceRange.isEmpty() && targetRange.isEmpty()) {
+            log.debug("No rows to compare for cross-table config {}", config.getId());
+            return;
+        }
+        KeyRange keyRange = sourceRange
+                .map(range -> targetRange.map(range::span).orElse(range))
+                .orElseGet(targetRange::get);
+
+        var missingRows = new MissingRowSamples();
+        var handler = new FingerprintMismatchHandler(source, target, plan, missingRows, results);
+        int mergedRanges = reconcileBuckets(source, target, keyRange, Long.MAX_VALUE, config.getChecksumFanout(), handler);
+        handler.flush();
+        missingRows.addResults(columnMappings, results);
+        log.debug("Checksum tree of cross-table config {} merged {} key ranges", config.getId(), mergedRanges);
+    }
+
+    /**
+     * Compare the bucket checksums of a key range on both sides and descend into the buckets that
+     * differ, merging the fingerprints of ranges small enough to read
+     * @param source Source side
+     * @param target Target side
+     * @param keyRange Key range to reconcile
+     * @param rowCount Largest row count of the range on either side, or Long.MAX_VALUE if unknown
+     * @param fanout Buckets per split
+     * @param handler Handler comparing the rows whose fingerprints differ
+     * @return Number of key ranges merged
+     */
+    private int reconcileBuckets(KeyedTableScan source, KeyedTableScan target, KeyRange keyRange, long rowCount,
+                                 int fanout, FingerprintMismatchHandler handler) {
+        long span = keyRange.upperKey() - keyRange.lowerKey();
+        // Merging a small range costs less than splitting it again
+        if (rowCount <= checksumLeafRows || Long.compareUnsigned(span, fanout) < 0) {
+            dynamicTableRepository.mergeJoinFingerprintsByKey(
+                    source.withKeyRange(keyRange), target.withKeyRange(keyRange), handler);
+            return 1;
+        }
+
+        // The span of two longs may exceed Long.MAX_VALUE, so divide it as unsigned
+        long width = Long.divideUnsigned(span, fanout) + 1;
+        Map<Long, BucketChecksum> sourceBuckets = dynamicTableRepository.bucketChecksums(source, keyRange, width);
+        Map<Long, BucketChecksum> targetBuckets = dynamicTableRepository.bucketChecksums(target, keyRange, width);
+
+        // Visit buckets in key order so differing rows are reported in key order
+        SortedSet<Long> buckets = new TreeSet<>(sourceBuckets.keySet());
+        buckets.addAll(targetBuckets.keySet());
+
+        int mergedRanges = 0;
+        for (long bucket : buckets) {
+            BucketChecksum sourceBucket = sourceBuckets.get(bucket);
+            BucketChecksum targetBucket = targetBuckets.get(bucket);
+            if (sourceBucket != null && sourceBucket.matches(targetBucket)) {
+                continue;
+            }
+
+            long lower = keyRange.lowerKey() + bucket * width;
+            long upper = lower + width - 1;
+            if (upper < lower || upper > keyRange.upperKey()) {
+                upper = keyRange.upperKey();
+            }
+            long bucketRows = Math.max(sourceBucket != null ? sourceBucket.rowCount() : 0,
+                    targetBucket != null ? targetBucket.rowCount() : 0);
+            mergedRanges += reconcileBuckets(source, target, new KeyRange(lower, upper), bucketRows, fanout, handler);
+        }
+        return mergedRanges;
+    }
+
+    /**
+     * Describe the source table of a cross-table configuration as a keyed scan
+     * @param config Cross-table configuration
+     * @param sourceColumns Source columns to select
+     * @param dateColumn Date column to filter on
+     * @return Source side
+     */
+    private KeyedTableScan sourceScan(CrossTableConfig config, List<String> sourceColumns, String dateColumn) {
+        ComparisonConfig sourceConfig = config.getSourceComparisonConfig();
+        return new KeyedTableScan(sourceConfig.getDatasourceName(), sourceConfig.getTableName(),
+                config.getKeyColumn(), sourceColumns, dateColumn, null);
+    }
+
+    /**
+     * Describe the target table of a cross-table configuration as a keyed scan. The target is keyed
+     * like the source unless a target key column is named.
+     * @param config Cross-table configuration
+     * @param targetColumns Target columns to select
+     * @param dateColumn Date column to filter on
+     * @return Target side
+     */
+    private KeyedTableScan targetScan(CrossTableConfig config, List<String> targetColumns, String dateColumn) {
+        String targetKeyColumn = config.getTargetKeyColumn() != null && !config.getTargetKeyColumn().isBlank()
+                ? config.getTargetKeyColumn()
+                : config.getKeyColumn();
+        return new KeyedTableScan(targetDatasourceName(config), config.getTargetTableName(), targetKeyColumn,
+                targetColumns, dateColumn, null);
+    }
+
+    /**
+     * Get the datasource of the target table
+     * @param config Cross-table configuration
+     * @return The target datasource if one is named, otherwise the source's datasource
+     */
+    private String targetDatasourceName(CrossTableConfig config) {
+        return config.isCrossDatasource()
+                ? config.getTargetDatasourceName()
+                : config.getSourceComparisonConfig().getDatasourceName();
+    }
+
+    /**
+     * Merge-join the full rows of both sides, comparing every matched row
+     * @param source Source side
+     * @param target Target side
+     * @param plan Compiled column comparisons
+     * @param missingRows Samples of the keys found on one side only
+     * @param results Results to add to
+     * @return Number of matched, source-only and target-only keys
+     */
+    private MergeJoinSummary mergeJoinRows(KeyedTableScan source, KeyedTableScan target,
+                                           ComparisonPlan plan, MissingRowSamples missingRows,
+                                           List<ValidationDetailResult> results) {
+        var rowBatch = rowBatch(plan, "", "", results);
+        MergeJoinSummary summary = dynamicTableRepository.mergeJoinByKey(source, target, new MergeJoinHandler() {
+            @Override
+            public void matched(Object key, Map<String, Object> sourceRow, Map<String, Object> targetRow) {
+                rowBatch.add(key, sourceRow, targetRow);
+            }
+
+            @Override
+            public void sourceOnly(Object key, Map<String, Object> sourceRow) {
+                missingRows.sourceOnly().offer(key);
+            }
+
+            @Override
+            public void targetOnly(Object key, Map<String, Object> targetRow) {
+                missingRows.targetOnly().offer(key);
+            }
+        });
+        rowBatch.flush();
+        return summary;
+    }
+
+    /**
+     * Check whether both sides compute the same fingerprint for equal rows
+     * @param source Source side
+     * @param target Target side
+     * @return True if both datasources use the same SQL dialect
+     */
+    private boolean hasComparableFingerprints(KeyedTableScan source, KeyedTableScan target) {
+        SqlDialect sourceDialect = SourceDataSource.call(source.datasourceName(), dynamicTableRepository::dialect);
+        SqlDialect targetDialect = SourceDataSource.call(target.datasourceName(), dynamicTableRepository::dialect);
+        if (sourceDialect != targetDialect) {
+            log.warn("Fingerprints of {} and {} databases never match, comparing full rows of {} and {}",
+                    sourceDialect, targetDialect, source.tableName(), target.tableName());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check whether both sides are keyed on integers, so their keys can be split into buckets
+     * @param source Source side
+     * @param target Target side
+     * @return True if both key columns are integral
+     */
+    private boolean hasIntegralKeys(KeyedTableScan source, KeyedTableScan target) {
+        if (!dynamicTableRepository.hasIntegralKey(source) || !dynamicTableRepository.hasIntegralKey(target)) {
+            log.warn("Keys {} of {} and {} of {} are not integral, comparing full rows instead of a checksum tree",
+                    source.keyColumn(), source.tableName(), target.keyColumn(), target.tableName());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Keys of a row whose fingerprints differ, to read in full on both sides
+     */
+    private record PendingRow(Object sourceKey, Object targetKey) {}
+
+    /**
+     * Collects the keys of rows whose fingerprints differ and reads them in full in batches to
+     * compare them column by column. Rows with equal fingerprints are equal and produce no results;
+     * keys found on one side only are sampled without reading their rows.
+     */
+    private final class FingerprintMismatchHandler implements MergeJoinHandler {
+
+        private static final String FINGERPRINT = "row_fingerprint";
+
+        private final KeyedTableScan source;
+        private final KeyedTableScan target;
+        private final MissingRowSamples missingRows;
+        private final RowComparisonBatch rowBatch;
+        private final List<PendingRow> pending = new ArrayList<>();
+
+        private FingerprintMismatchHandler(KeyedTableScan source, KeyedTableScan target,
+                                           ComparisonPlan plan, MissingRowSamples missingRows,
+                                           List<ValidationDetailResult> results) {
+            this.source = source;
+            this.target = target;
+            this.missingRows = missingRows;
+            this.rowBatch = rowBatch(plan, "", "", results);
+        }
+
+        @Override
+        public void matched(Object key, Map<String, Object> sourceRow, Map<String, Object> targetRow) {
+            if (!Objects.equals(sourceRow.get(FINGERPRINT), targetRow.get(FINGERPRINT))) {
+                add(new PendingRow(key, targetRow.get("row_key")));
+            }
+        }
+
+        @Override
+        public void sourceOnly(Object key, Map<String, Object> sourceRow) {
+            missingRows.sourceOnly().offer(key);
+        }
+
+        @Override
+        public void targetOnly(Object key, Map<String, Object> targetRow) {
+            missingRows.targetOnly().offer(key);
+        }
+
+        private void add(PendingRow row) {
+            pending.add(row);
+            if (pending.size() >= Math.max(1, fingerprintFetchSize)) {
+                flush();
+            }
+        }
+
+        /**
+         * Read the pending rows in full and compare them, in key order
+         */
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            KeyedRowIndex sourceRows = indexRows(dynamicTableRepository.findRowsByKeys(source,
+                    pending.stream().map(PendingRow::sourceKey).toList()), "row_key");
+            KeyedRowIndex targetRows = indexRows(dynamicTableRepository.findRowsByKeys(target,
+                    pending.stream().map(PendingRow::targetKey).toList()), "row_key");
+
+            for (PendingRow row : pending) {
+                Map<String, Object> sourceRow = sourceRows.get(row.sourceKey());
+                Map<String, Object> targetRow = targetRows.get(row.targetKey());
+
+                if (sourceRow == null || targetRow == null) {
+                    log.debug("Row {} was deleted since its fingerprint was read, skipping it", row.sourceKey());
+                } else {
+                    rowBatch.add(row.sourceKey(), sourceRow, targetRow);
                 }
+            }
+            pending.clear();
+            rowBatch.flush();
+        }
+    }
+
+    /**
+     * Keys found on one side only while merging, sampled so memory use and the number of results
+     * stay bounded however many rows are missing
+     */
+    private final class MissingRowSamples {
+
+        private final ReservoirSample<Object> sourceOnly = new ReservoirSample<>(missingRowSampleSize);
+        private final ReservoirSample<Object> targetOnly = new ReservoirSample<>(missingRowSampleSize);
 
-                // Compare values
-                ComparisonResult comparisonResult = compareValues(
-                        sourceValue, targetValue, columnConfig.getComparisonType());
+        ReservoirSample<Object> sourceOnly() {
+            return sourceOnly;
+        }
+
+        ReservoirSample<Object> targetOnly() {
+            return targetOnly;
+        }
+
+        /**
+         * Report the number of missing rows and the sampled keys of each side
+         * @param columnMappings Column mappings of the comparison
+         * @param results Results to add to
+         */
+        void addResults(List<ColumnMapping> columnMappings, List<ValidationDetailResult> results) {
+            addMissingRows(DiscrepancyType.SOURCE_ONLY, sourceOnly.count(), sourceOnly.sample(),
+                    columnMappings, results);
+            addMissingRows(DiscrepancyType.TARGET_ONLY, targetOnly.count(), targetOnly.sample(),
+                    columnMappings, results);
+        }
+    }
 
-                // Check if threshold is exceeded
-                boolean thresholdExceeded = isThresholdExceeded(
-                        comparisonResult, columnConfig, thresholdConfig.getThresholdValue());
+    /**
+     * Count the rows of the day missing from either side of a same-datasource join with anti-joins
+     * run on the server, and stream the keys of the missing rows through a reservoir sample
+     * @param config Cross-table configuration
+     * @param dateColumn Date column to filter on
+     * @param columnMappings Column mappings of the comparison
+     * @param results Results to add to
+     */
+    private void compareMissingRows(CrossTableConfig config, String dateColumn,
+                                    List<ColumnMapping> columnMappings, List<ValidationDetailResult> results) {
+        String sourceTable = config.getSourceComparisonConfig().getTableName();
+        String targetTable = config.getTargetTableName();
+        String targetKeyColumn = config.getTargetKeyColumn() != null && !config.getTargetKeyColumn().isBlank()
+                ? config.getTargetKeyColumn()
+                : config.getKeyColumn();
 
-                // Create result
-                var result = ValidationDetailResult.builder()
-                        .columnComparisonConfig(columnConfig)
-                        .actualValue(comparisonResult.actualValue())
-                        .expectedValue(comparisonResult.expectedValue())
-                        .differenceValue(comparisonResult.differenceValue())
-                        .differencePercentage(comparisonResult.differencePercentage())
-                        .thresholdExceeded(thresholdExceeded)
-                        .build();
+        for (DiscrepancyType side : List.of(DiscrepancyType.SOURCE_ONLY, DiscrepancyType.TARGET_ONLY)) {
+            long count = dynamicTableRepository.countMissingRows(
+                    side, sourceTable, targetTable, config.getJoinCondition(), dateColumn);
+            if (count == 0) {
+                continue;
+            }
 
-                results.add(result);
+            String keyColumn = side == DiscrepancyType.SOURCE_ONLY ? config.getKeyColumn() : targetKeyColumn;
+            var sample = new ReservoirSample<Object>(missingRowSampleSize);
+            if (keyColumn != null && !keyColumn.isBlank() && missingRowSampleSize > 0) {
+                dynamicTableRepository.streamMissingRowKeys(side, sourceTable, targetTable,
+                        config.getJoinCondition(), keyColumn, dateColumn, sample::offer);
             }
+            addMissingRows(side, count, sample.sample(), columnMappings, results);
         }
+    }
 
-        return results;
+    /**
+     * Record the rows found on one side only as one failed count result, with the number of missing
+     * rows as its actual value, followed by one failed result per sampled key. The results are
+     * attached to the first mapped column.
+     * @param side SOURCE_ONLY or TARGET_ONLY
+     * @param count Number of missing rows
+     * @param sampleKeys Sampled keys of missing rows
+     * @param columnMappings Column mappings of the comparison
+     * @param results Results to add to
+     */
+    private void addMissingRows(DiscrepancyType side, long count, List<Object> sampleKeys,
+                                List<ColumnMapping> columnMappings, List<ValidationDetailResult> results) {
+        if (count == 0 || columnMappings.isEmpty()) {
+            return;
+        }
+        var columnConfig = columnMappings.getFirst().config();
+        log.warn("Found {} {} rows, reporting {} sampled keys", count, side, sampleKeys.size());
+
+        results.add(ValidationDetailResult.builder()
+                .columnComparisonConfig(columnConfig)
+                .discrepancyType(side)
+                .actualValue(BigDecimal.valueOf(count))
+                .expectedValue(BigDecimal.ZERO)
+                .differenceValue(BigDecimal.valueOf(count))
+                .thresholdExceeded(true)
+                .build());
+
+        for (Object key : sampleKeys) {
+            results.add(ValidationDetailResult.builder()
+                    .columnComparisonConfig(columnConfig)
+                    .rowKey(String.valueOf(key))
+                    .discrepancyType(side)
+                    .thresholdExceeded(true)
+                    .build());
+        }
+    }
+
+    /**
+     * Create a batch comparing every planned column of matched rows
+     * @param plan Compiled column comparisons
+     * @param sourcePrefix Prefix of the source column names in source rows
+     * @param targetPrefix Prefix of the target column names in target rows
+     * @param results Results to add to
+     * @return Empty row batch
+     */
+    private RowComparisonBatch rowBatch(ComparisonPlan plan, String sourcePrefix, String targetPrefix,
+                                        List<ValidationDetailResult> results) {
+        return new RowComparisonBatch(this, plan, sourcePrefix, targetPrefix, ColumnarRowBatch.DEFAULT_CAPACITY,
+                results);
     }
 }
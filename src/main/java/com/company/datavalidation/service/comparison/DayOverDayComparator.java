@@ -1,23 +1,77 @@
 package com.company.datavalidation.service.comparison;
 
 import com.company.datavalidation.model.*;
+import com.company.datavalidation.repository.ColumnarRowBatch;
 import com.company.datavalidation.repository.DynamicTableRepository;
+import com.company.datavalidation.repository.PartitionPredicate;
+import com.company.datavalidation.repository.TableSample;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 @Service
 @Slf4j
 public class DayOverDayComparator extends AbstractComparator {
 
-    public DayOverDayComparator(DynamicTableRepository dynamicTableRepository) {
+    @Value("${datavalidation.day-over-day.push-down-aggregation:true}")
+    private boolean pushDownAggregation;
+
+    @Value("${datavalidation.sampling.z-score:1.96}")
+    private double samplingZScore = 1.96;
+
+    @Value("${datavalidation.day-over-day.watermark-safety-lag:1000}")
+    private long watermarkSafetyLag = 1000;
+
+    @Value("${datavalidation.day-over-day.parallel-column-threshold:128}")
+    private int parallelColumnThreshold = 128;
+
+    // Shared by every comparison so concurrent validations never use more workers than there are cores
+    private final ForkJoinPool columnPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final PlanCache<DayOverDayQueryPlan> queryPlans = new PlanCache<>();
+
+    private final PlanCache<ComparisonPlan> comparisonPlans = new PlanCache<>();
+
+    private final AggregateSnapshotService aggregateSnapshotService;
+
+    private final IncrementalAggregateService incrementalAggregateService;
+
+    private final Clock clock;
+
+    public DayOverDayComparator(DynamicTableRepository dynamicTableRepository,
+                                AggregateSnapshotService aggregateSnapshotService,
+                                IncrementalAggregateService incrementalAggregateService,
+                                Clock clock) {
         super(dynamicTableRepository);
+        this.aggregateSnapshotService = aggregateSnapshotService;
+        this.incrementalAggregateService = incrementalAggregateService;
+        this.clock = clock;
+    }
+
+    /**
+     * Stop the column workers when the application context closes
+     */
+    @PreDestroy
+    void shutdown() {
+        columnPool.shutdown();
     }
 
     /**
@@ -37,81 +91,624 @@ public class DayOverDayComparator extends AbstractComparator {
         String tableName = comparisonConfig.getTableName();
         String exclusionCondition = config.getExclusionCondition();
 
-        // Extract column names for query
-        List<String> columnNames = columnConfigs.stream()
-                .map(ColumnComparisonConfig::getColumnName)
-                .toList();
-
         // Add a date column - assuming a standard column name for date
         String dateColumn = "created_date"; // This should be configurable
 
-        // Get today's data
-        LocalDate today = LocalDate.now();
-        var todayData = dynamicTableRepository.getDataForDate(
-                tableName, columnNames, dateColumn, today, exclusionCondition);
+        // Decide which columns the database aggregates and which are streamed row by row, reusing the
+        // plans of the previous run while the configuration, its table and the column types are unchanged
+        List<Object> signature = ComparisonPlan.signature(columnConfigs, thresholdConfigs);
+        Set<String> numericColumns = numericColumns(tableName, columnConfigs);
+        DayOverDayQueryPlan plan = queryPlans.get(config.getId(), List.of(signature, tableName, numericColumns),
+                () -> DayOverDayQueryPlan.plan(columnConfigs, numericColumns));
+        ComparisonPlan comparisonPlan = comparisonPlans.get(config.getId(), signature,
+                () -> ComparisonPlan.compile(columnConfigs, thresholdConfigs)).bind(columnConfigs);
+
+        // Today's values can be carried forward from the previous run if every aggregate merges
+        boolean incremental = config.isIncremental() && plan.isPartitionable();
+        if (config.isIncremental() && !incremental) {
+            log.debug("Aggregates of {} cannot be merged incrementally, rescanning today", tableName);
+        }
 
-        // Get yesterday's data
+        // Reuse yesterday's values if a run after yesterday ended already captured them, or else finish
+        // the partial values yesterday's own runs stored, so a once-daily run never rescans a whole day.
+        // Without a watermark a run cannot tell which rows it counted, so yesterday is rescanned once instead
+        LocalDate today = LocalDate.now(clock);
         LocalDate yesterday = today.minusDays(1);
-        var yesterdayData = dynamicTableRepository.getDataForDate(
-                tableName, columnNames, dateColumn, yesterday, exclusionCondition);
-
-        // Perform comparison for each column configuration
-        return columnConfigs.stream()
-                .flatMap(columnConfig -> {
-                    String columnName = columnConfig.getColumnName();
-
-                    // Get threshold config
-                    ThresholdConfig thresholdConfig = thresholdConfigs.get(columnConfig.getId());
-                    if (thresholdConfig == null) {
-                        log.warn("No threshold configuration found for column config: {}", columnConfig.getId());
-                        return java.util.stream.Stream.empty();
-                    }
-
-                    // Determine comparison type
-                    return columnName.contains("(") && columnName.contains(")")
-                            ? java.util.stream.Stream.of(
-                            compareAggregate(tableName, columnName, dateColumn, today, yesterday,
-                                    exclusionCondition, columnConfig, thresholdConfig))
-                            : compareRegularColumn(todayData, yesterdayData, columnName,
-                            columnConfig, thresholdConfig).stream();
-                })
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * Compare an aggregate column
+        List<String> definitions = plan.definitions(columnConfigs, tableName, dateColumn, exclusionCondition);
+        Optional<BigDecimal[]> yesterdaySnapshot =
+                aggregateSnapshotService.findFinalValues(columnConfigs, definitions, yesterday);
+        if (yesterdaySnapshot.isEmpty() && incremental) {
+            yesterdaySnapshot = finalizeIncrementally(config, columnConfigs, plan, dateColumn, yesterday, definitions);
+            yesterdaySnapshot.ifPresent(values -> saveSnapshot(columnConfigs, definitions, yesterday, values));
+        }
+        boolean scanYesterday = yesterdaySnapshot.isEmpty();
+        LocalDate firstDay = scanYesterday ? yesterday : today;
+
+        // Estimate the values from a sample of the table if configured and every column can be estimated
+        if (config.isSampled()) {
+            if (!plan.isSampleable()) {
+                log.warn("Columns of {} cannot all be estimated from a sample, validating exactly", tableName);
+            } else if (config.getSampleKeyColumn() == null || config.getSampleKeyColumn().isBlank()) {
+                log.warn("Sampling {} needs a sample key column, validating exactly", tableName);
+            } else {
+                return compareSampled(config, columnConfigs, comparisonPlan, plan, dateColumn, firstDay, today,
+                        yesterdaySnapshot);
+            }
+        }
+
+        LocalDate lastFullDay = incremental ? yesterday : today;
+
+        // Split very large tables into disjoint partitions scanned in parallel
+        List<PartitionPredicate> partitions = partitionScan(config, dateColumn, firstDay, today);
+
+        // Compute every database aggregate for the fully scanned days in a single scan of [firstDay, lastFullDay]
+        BigDecimal[] todayValues = new BigDecimal[columnConfigs.size()];
+        BigDecimal[] yesterdayValues = yesterdaySnapshot.orElseGet(() -> new BigDecimal[columnConfigs.size()]);
+        if (!firstDay.isAfter(lastFullDay)) {
+            Map<LocalDate, List<BigDecimal>> buckets = fetchAggregates(tableName, plan, dateColumn, firstDay,
+                    lastFullDay, partitions, exclusionCondition);
+            if (!incremental) {
+                assignAggregates(plan, buckets.get(today), todayValues);
+            }
+            if (scanYesterday) {
+                assignAggregates(plan, buckets.get(yesterday), yesterdayValues);
+            }
+        }
+
+        // Sum row-level columns for the scanned days, streaming rows instead of loading them
+        if (incremental) {
+            updateTodayIncrementally(config, columnConfigs, plan, dateColumn, today, partitions, definitions, todayValues);
+        } else {
+            sumRowLevelColumns(tableName, columnConfigs, plan, dateColumn, today, partitions, exclusionCondition, todayValues);
+        }
+        if (scanYesterday) {
+            sumRowLevelColumns(tableName, columnConfigs, plan, dateColumn, yesterday, partitions, exclusionCondition, yesterdayValues);
+            saveSnapshot(columnConfigs, definitions, yesterday, yesterdayValues);
+        }
+
+        return compareColumns(comparisonPlan, todayValues, yesterdayValues, null, null);
+    }
+
+    /**
+     * Compare today against yesterday with values estimated from a sample of the table.
+     * Estimates are never stored; yesterday's exact snapshot is used when one exists.
+     * @param config Day-over-day configuration
+     * @param columnConfigs Column configurations
+     * @param comparisonPlan Compiled column comparisons, bound to the run's column configurations
+     * @param plan Query plan for the column configurations; every column must be estimable
+     * @param dateColumn Date column name
+     * @param firstDay First day to sample; yesterday, or today if yesterday's values are already known
+     * @param today Today's date
+     * @param yesterdaySnapshot Exact values of yesterday, if known
+     * @return List of validation detail results
+     */
+    private List<ValidationDetailResult> compareSampled(DayOverDayConfig config,
+                                                        List<ColumnComparisonConfig> columnConfigs,
+                                                        ComparisonPlan comparisonPlan,
+                                                        DayOverDayQueryPlan plan, String dateColumn,
+                                                        LocalDate firstDay, LocalDate today,
+                                                        Optional<BigDecimal[]> yesterdaySnapshot) {
+        TableSample sample = new TableSample(config.getSamplePercent(), config.getSampleKeyColumn());
+        Map<LocalDate, List<BigDecimal>> stats = dynamicTableRepository.executeSampledDailyAggregateQuery(
+                config.getComparisonConfig().getTableName(), plan.sampleSql(), dateColumn, firstDay,
+                today.plusDays(1), sample, config.getExclusionCondition());
+
+        BigDecimal[] todayValues = new BigDecimal[columnConfigs.size()];
+        BigDecimal[] todayMargins = new BigDecimal[columnConfigs.size()];
+        estimateAggregates(plan, stats.get(today), sample.fraction(), todayValues, todayMargins);
+
+        BigDecimal[] yesterdayMargins = new BigDecimal[columnConfigs.size()];
+        BigDecimal[] yesterdayValues;
+        if (yesterdaySnapshot.isPresent()) {
+            yesterdayValues = yesterdaySnapshot.get();
+            Arrays.fill(yesterdayMargins, BigDecimal.ZERO);
+        } else {
+            yesterdayValues = new BigDecimal[columnConfigs.size()];
+            estimateAggregates(plan, stats.get(today.minusDays(1)), sample.fraction(), yesterdayValues, yesterdayMargins);
+        }
+
+        return compareColumns(comparisonPlan, todayValues, yesterdayValues, todayMargins, yesterdayMargins);
+    }
+
+    /**
+     * Estimate the database aggregates of one day from the statistics of a sample
+     * @param plan Query plan for the column configurations
+     * @param stats Sample statistics of the day aligned with {@link DayOverDayQueryPlan#sampleSql()},
+     *              or null if no rows of the day were sampled
+     * @param fraction Fraction of rows sampled
+     * @param values Values aligned with the column configurations; receives the estimates
+     * @param margins Margins of error aligned with the column configurations
+     */
+    private void estimateAggregates(DayOverDayQueryPlan plan, List<BigDecimal> stats, double fraction,
+                                    BigDecimal[] values, BigDecimal[] margins) {
+        List<SampleEstimate> estimates = plan.estimate(stats, fraction);
+        BigDecimal zScore = BigDecimal.valueOf(samplingZScore);
+        for (int index : plan.aggregateIndexes()) {
+            SampleEstimate estimate = estimates.get(plan.aggregatePosition(index));
+            values[index] = plan.aggregateFor(index).valueOrDefault(estimate.value());
+            margins[index] = estimate.standardError().multiply(zScore);
+        }
+    }
+
+    /**
+     * Compare today's value of every column configuration against yesterday's
+     * @param comparisonPlan Compiled column comparisons, bound to the run's column configurations
+     * @param todayValues Values for today, aligned with the column configurations
+     * @param yesterdayValues Values for yesterday, aligned with the column configurations
+     * @param todayMargins Margins of error of estimated values for today, or null if the values are exact
+     * @param yesterdayMargins Margins of error of estimated values for yesterday, or null if the values are exact
+     * @return List of validation detail results
+     */
+    private List<ValidationDetailResult> compareColumns(ComparisonPlan comparisonPlan,
+                                                        BigDecimal[] todayValues, BigDecimal[] yesterdayValues,
+                                                        BigDecimal[] todayMargins, BigDecimal[] yesterdayMargins) {
+        // Perform comparison for each column configuration with a threshold, across cores for wide configs
+        ValidationDetailResult[] results = new ValidationDetailResult[comparisonPlan.size()];
+        ParallelColumns.forEach(columnPool, results.length, parallelColumnThreshold, column -> {
+            int index = comparisonPlan.index(column);
+            results[column] = todayMargins == null
+                    ? compareColumn(todayValues[index], yesterdayValues[index],
+                            comparisonPlan.columnConfig(column), comparisonPlan.threshold(column))
+                    : compareEstimatedColumn(todayValues[index], yesterdayValues[index], todayMargins[index],
+                            yesterdayMargins[index], comparisonPlan.columnConfig(column),
+                            comparisonPlan.threshold(column));
+        });
+
+        // Results are collected by plan position, so their order follows the configuration
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    /**
+     * Find the regular columns the database may sum, if push-down aggregation is enabled
      * @param tableName Table name
-     * @param aggregateColumn Aggregate column expression (e.g., "SUM(column_name)")
+     * @param columnConfigs Column configurations
+     * @return Regular columns of a numeric type; empty if push-down is disabled
+     */
+    private Set<String> numericColumns(String tableName, List<ColumnComparisonConfig> columnConfigs) {
+        if (!pushDownAggregation) {
+            return Set.of();
+        }
+        List<String> regularColumns = columnConfigs.stream()
+                .map(ColumnComparisonConfig::getColumnName)
+                .filter(columnName -> !AggregateExpression.isAggregate(columnName))
+                .distinct()
+                .toList();
+        return regularColumns.isEmpty()
+                ? Set.of()
+                : dynamicTableRepository.findNumericColumns(tableName, regularColumns);
+    }
+
+    /**
+     * Split the scans of a day-over-day comparison into the configured partitions
+     * @param config Day-over-day configuration
      * @param dateColumn Date column name
+     * @param firstDay First day to scan
      * @param today Today's date
-     * @param yesterday Yesterday's date
+     * @return Partitions to scan; the whole table if partitioning is not configured
+     */
+    private List<PartitionPredicate> partitionScan(DayOverDayConfig config, String dateColumn,
+                                                   LocalDate firstDay, LocalDate today) {
+        if (!config.isPartitioned()) {
+            return List.of(PartitionPredicate.WHOLE_TABLE);
+        }
+
+        PartitionStrategy strategy = config.getPartitionStrategy() != null
+                ? config.getPartitionStrategy()
+                : PartitionStrategy.HASH;
+        return dynamicTableRepository.partitionScan(config.getComparisonConfig().getTableName(),
+                config.getPartitionColumn(), strategy, config.getPartitionCount(), dateColumn,
+                firstDay, today.plusDays(1), config.getExclusionCondition());
+    }
+
+    /**
+     * Run a scan for each partition, concurrently if there is more than one
+     * @param partitions Partitions to scan
+     * @param scan Scan of a single partition
+     * @return Results of the scans, in the order of the partitions
+     */
+    private <T> List<T> scanPartitions(List<PartitionPredicate> partitions, Function<PartitionPredicate, T> scan) {
+        return partitions.size() == 1
+                ? List.of(scan.apply(partitions.get(0)))
+                : dynamicTableRepository.scanPartitions(partitions, scan);
+    }
+
+    /**
+     * Fetch the database aggregates of a plan for a range of days with one grouped query per partition
+     * @param tableName Table name
+     * @param plan Query plan for the column configurations
+     * @param dateColumn Date column name
+     * @param firstDay First day to scan
+     * @param lastDay Last day to scan (inclusive)
+     * @param partitions Partitions to scan
      * @param exclusionCondition Exclusion condition
-     * @param columnConfig Column configuration
-     * @param thresholdConfig Threshold configuration
-     * @return Validation detail result
+     * @return Map of day to aggregate values aligned with {@link DayOverDayQueryPlan#aggregateSql()};
+     *         days without rows are absent
      */
-    private ValidationDetailResult compareAggregate(String tableName, String aggregateColumn,
-                                                    String dateColumn, LocalDate today,
-                                                    LocalDate yesterday, String exclusionCondition,
-                                                    ColumnComparisonConfig columnConfig,
-                                                    ThresholdConfig thresholdConfig) {
+    private Map<LocalDate, List<BigDecimal>> fetchAggregates(String tableName, DayOverDayQueryPlan plan,
+                                                             String dateColumn, LocalDate firstDay, LocalDate lastDay,
+                                                             List<PartitionPredicate> partitions,
+                                                             String exclusionCondition) {
+        if (plan.aggregateIndexes().length == 0) {
+            return Map.of();
+        }
+
+        if (partitions.size() > 1 && plan.isPartitionable()) {
+            // Compute partial aggregates per partition and merge them per day
+            List<String> partialSql = plan.partialAggregateSql();
+            List<Map<LocalDate, List<BigDecimal>>> partials = dynamicTableRepository.scanPartitions(partitions,
+                    partition -> dynamicTableRepository.executeDailyAggregateQuery(
+                            tableName, partialSql, dateColumn, firstDay, lastDay.plusDays(1), partition, exclusionCondition));
 
-        // Extract aggregate function and column name
-        String[] parts = aggregateColumn.split("[()]");
-        if (parts.length < 2) {
-            throw new IllegalArgumentException("Invalid aggregate column format: " + aggregateColumn);
+            Map<LocalDate, List<BigDecimal>> buckets = new HashMap<>();
+            for (LocalDate date = firstDay; !date.isAfter(lastDay); date = date.plusDays(1)) {
+                LocalDate day = date;
+                List<List<BigDecimal>> dayPartials = partials.stream()
+                        .map(partial -> partial.get(day))
+                        .filter(Objects::nonNull)
+                        .toList();
+                if (!dayPartials.isEmpty()) {
+                    buckets.put(day, plan.mergePartials(dayPartials));
+                }
+            }
+            return buckets;
         }
 
-        String aggregateFunction = parts[0];
-        String columnName = parts[1];
+        if (partitions.size() > 1) {
+            log.debug("Aggregates of {} cannot be merged across partitions, scanning them unpartitioned", tableName);
+        }
+        return dynamicTableRepository.executeDailyAggregateQuery(
+                tableName, plan.aggregateSql(), dateColumn, firstDay, lastDay.plusDays(1), exclusionCondition);
+    }
 
-        // Get today's aggregate value
-        BigDecimal todayValue = dynamicTableRepository.executeAggregateQuery(
-                tableName, aggregateFunction, columnName, dateColumn, today, exclusionCondition);
+    /**
+     * Copy the database aggregates of one day into the values of the column configurations
+     * @param plan Query plan for the column configurations
+     * @param bucket Aggregate values of the day aligned with {@link DayOverDayQueryPlan#aggregateSql()},
+     *               or null if the day had no rows
+     * @param values Values aligned with the column configurations
+     */
+    private void assignAggregates(DayOverDayQueryPlan plan, List<BigDecimal> bucket, BigDecimal[] values) {
+        for (int index : plan.aggregateIndexes()) {
+            values[index] = plan.aggregateFor(index).valueOrDefault(
+                    bucket != null ? bucket.get(plan.aggregatePosition(index)) : null);
+        }
+    }
 
-        // Get yesterday's aggregate value
-        BigDecimal yesterdayValue = dynamicTableRepository.executeAggregateQuery(
-                tableName, aggregateFunction, columnName, dateColumn, yesterday, exclusionCondition);
+    /**
+     * Compute today's values from the partial values stored by the previous run and the rows
+     * landed since, then store the merged partial values for the next run.
+     * The scan is bounded by the watermark measured before it starts, so rows landing while
+     * it runs are left to the next run rather than being counted twice.
+     * <p>
+     * A transaction may take a watermark below the maximum and commit after it was read. To
+     * count such rows, the stored watermark is held back by a safety lag: rows within the lag
+     * of the maximum are added to today's values but rescanned by every run instead of being
+     * stored. A row committing later than rows a full lag above it is still never counted, so
+     * the lag must exceed the number of rows inserted while a transaction is open.
+     * @param config Day-over-day configuration
+     * @param columnConfigs Column configurations
+     * @param plan Query plan for the column configurations; every aggregate must be decomposable
+     * @param dateColumn Date column name
+     * @param today Today's date
+     * @param partitions Partitions to scan
+     * @param definitions Aggregate definitions aligned with the column configurations
+     * @param todayValues Values for today, aligned with the column configurations
+     */
+    private void updateTodayIncrementally(DayOverDayConfig config, List<ColumnComparisonConfig> columnConfigs,
+                                          DayOverDayQueryPlan plan, String dateColumn, LocalDate today,
+                                          List<PartitionPredicate> partitions, List<String> definitions,
+                                          BigDecimal[] todayValues) {
+        String tableName = config.getComparisonConfig().getTableName();
+        String exclusionCondition = config.getExclusionCondition();
+        String watermarkColumn = config.getWatermarkColumn();
+        String definition = incrementalDefinition(watermarkColumn, definitions);
+        int partialCount = plan.partialAggregateSql().size();
+
+        Optional<IncrementalAggregateState> state = incrementalAggregateService.findState(config, today, definition);
+        Long watermark = state.map(IncrementalAggregateState::getWatermark).orElse(null);
+        List<BigDecimal> partialValues = state.map(IncrementalAggregateState::getPartialValues)
+                .orElseGet(() -> emptyPartialValues(plan, partialCount));
+
+        Long maxWatermark = dynamicTableRepository.findMaxWatermark(tableName, watermarkColumn, dateColumn,
+                today, today.plusDays(1), exclusionCondition);
+        List<BigDecimal> todayPartials = partialValues;
+        if (maxWatermark != null) {
+            // Store only the rows settled behind the safety lag
+            long settledWatermark = maxWatermark - Math.max(0, watermarkSafetyLag);
+            if (watermark == null || settledWatermark > watermark) {
+                partialValues = mergeNewRows(tableName, columnConfigs, plan, dateColumn, today, partitions,
+                        exclusionCondition, watermarkColumn, watermark, settledWatermark, partialValues);
+                watermark = settledWatermark;
+                saveIncrementalState(config, today, definition, watermark, partialValues);
+            }
+
+            // Count the rows within the lag today without storing them, so the next run rescans them
+            todayPartials = maxWatermark > watermark
+                    ? mergeNewRows(tableName, columnConfigs, plan, dateColumn, today, partitions,
+                            exclusionCondition, watermarkColumn, watermark, maxWatermark, partialValues)
+                    : partialValues;
+        }
+
+        assignPartials(plan, todayPartials, todayValues);
+    }
+
+    /**
+     * Complete a past day from the partial values its last incremental run stored, scanning only
+     * the rows of the day past the stored watermark. The state of a day is kept until the first
+     * run of the next day stores its own, so that run finds it.
+     * @param config Day-over-day configuration
+     * @param columnConfigs Column configurations
+     * @param plan Query plan for the column configurations; every aggregate must be decomposable
+     * @param dateColumn Date column name
+     * @param date Past day to complete
+     * @param definitions Aggregate definitions aligned with the column configurations
+     * @return Final values of the day aligned with the column configurations, or empty if no state was stored
+     */
+    private Optional<BigDecimal[]> finalizeIncrementally(DayOverDayConfig config,
+                                                         List<ColumnComparisonConfig> columnConfigs,
+                                                         DayOverDayQueryPlan plan, String dateColumn,
+                                                         LocalDate date, List<String> definitions) {
+        String watermarkColumn = config.getWatermarkColumn();
+        Optional<IncrementalAggregateState> state = incrementalAggregateService.findState(config, date,
+                incrementalDefinition(watermarkColumn, definitions));
+        if (state.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String tableName = config.getComparisonConfig().getTableName();
+        String exclusionCondition = config.getExclusionCondition();
+        long watermark = state.get().getWatermark();
+        List<BigDecimal> partialValues = state.get().getPartialValues();
+        Long maxWatermark = dynamicTableRepository.findMaxWatermark(tableName, watermarkColumn, dateColumn,
+                date, date.plusDays(1), exclusionCondition);
+        if (maxWatermark != null && maxWatermark > watermark) {
+            partialValues = mergeNewRows(tableName, columnConfigs, plan, dateColumn, date,
+                    partitionScan(config, dateColumn, date, date), exclusionCondition, watermarkColumn,
+                    watermark, maxWatermark, partialValues);
+        }
+
+        log.debug("Completed the values of {} for {} from its incremental state", tableName, date);
+        BigDecimal[] values = new BigDecimal[columnConfigs.size()];
+        assignPartials(plan, partialValues, values);
+        return Optional.of(values);
+    }
+
+    /**
+     * Describe the partial values of an incremental scan, so stored state is only reused with
+     * the watermark column and aggregates it was computed with
+     * @param watermarkColumn Watermark column name
+     * @param definitions Aggregate definitions aligned with the column configurations
+     * @return Definition of the incremental state
+     */
+    private static String incrementalDefinition(String watermarkColumn, List<String> definitions) {
+        return watermarkColumn + " | " + String.join(" ; ", definitions);
+    }
+
+    /**
+     * Copy merged partial values into the values of the column configurations
+     * @param plan Query plan for the column configurations
+     * @param partialValues Partial aggregates followed by the row-level sums
+     * @param values Values aligned with the column configurations
+     */
+    private void assignPartials(DayOverDayQueryPlan plan, List<BigDecimal> partialValues, BigDecimal[] values) {
+        int partialCount = plan.partialAggregateSql().size();
+        int[] rowLevelIndexes = plan.rowLevelIndexes();
+        assignAggregates(plan, plan.mergePartials(List.of(partialValues.subList(0, partialCount))), values);
+        for (int i = 0; i < rowLevelIndexes.length; i++) {
+            values[rowLevelIndexes[i]] = partialValues.get(partialCount + i);
+        }
+    }
+
+    /**
+     * Scan the rows of a day within a watermark range and merge them into partial values
+     * @param tableName Table name
+     * @param columnConfigs Column configurations
+     * @param plan Query plan for the column configurations; every aggregate must be decomposable
+     * @param dateColumn Date column name
+     * @param date Day of the rows
+     * @param partitions Partitions to scan
+     * @param exclusionCondition Exclusion condition
+     * @param watermarkColumn Watermark column name
+     * @param afterWatermark Watermark of the partial values (exclusive), or null if they have no rows
+     * @param upToWatermark Last watermark to include
+     * @param partialValues Partial aggregates followed by the row-level sums
+     * @return Merged partial values
+     */
+    private List<BigDecimal> mergeNewRows(String tableName, List<ColumnComparisonConfig> columnConfigs,
+                                          DayOverDayQueryPlan plan, String dateColumn, LocalDate date,
+                                          List<PartitionPredicate> partitions, String exclusionCondition,
+                                          String watermarkColumn, Long afterWatermark, long upToWatermark,
+                                          List<BigDecimal> partialValues) {
+        int partialCount = plan.partialAggregateSql().size();
+        int[] rowLevelIndexes = plan.rowLevelIndexes();
+
+        // Scan only the rows in the watermark range, in the configured partitions
+        PartitionPredicate newRows = PartitionPredicate.watermarkRange(watermarkColumn, afterWatermark, upToWatermark);
+        List<PartitionPredicate> newRowPartitions = partitions.stream()
+                .map(partition -> partition.and(newRows))
+                .toList();
+
+        List<BigDecimal> newPartials = plan.combinePartials(partialCount == 0
+                ? List.of()
+                : scanPartitions(newRowPartitions, partition -> dynamicTableRepository.executeDailyAggregateQuery(
+                        tableName, plan.partialAggregateSql(), dateColumn, date, date.plusDays(1),
+                        partition, exclusionCondition).get(date))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList());
+        BigDecimal[] newSums = new BigDecimal[columnConfigs.size()];
+        sumRowLevelColumns(tableName, columnConfigs, plan, dateColumn, date, newRowPartitions,
+                exclusionCondition, newSums);
+
+        List<BigDecimal> merged = new ArrayList<>(plan.combinePartials(
+                List.of(partialValues.subList(0, partialCount), newPartials)));
+        for (int i = 0; i < rowLevelIndexes.length; i++) {
+            merged.add(partialValues.get(partialCount + i).add(newSums[rowLevelIndexes[i]]));
+        }
+
+        log.debug("Merged rows of {} with {} in ({}, {}] into the values of {}", tableName, watermarkColumn,
+                afterWatermark, upToWatermark, date);
+        return merged;
+    }
+
+    /**
+     * Partial values of a day without rows
+     * @param plan Query plan for the column configurations
+     * @param partialCount Number of partial aggregates in the plan
+     * @return Null partial aggregates followed by zero row-level sums
+     */
+    private static List<BigDecimal> emptyPartialValues(DayOverDayQueryPlan plan, int partialCount) {
+        List<BigDecimal> values = new ArrayList<>(Collections.nCopies(partialCount, (BigDecimal) null));
+        values.addAll(Collections.nCopies(plan.rowLevelIndexes().length, BigDecimal.ZERO));
+        return values;
+    }
+
+    /**
+     * Sum the row-level columns of a table for one day.
+     * Rows arrive in reusable columnar batches; plain values are summed as scaled longs and
+     * only special cells (null, blank, N/A, invalid or out-of-range) go through BigDecimal,
+     * so memory use is independent of the number of rows and no objects are created per row.
+     * Partitions are summed concurrently and their sums added together.
+     * @param tableName Table name
+     * @param columnConfigs Column configurations
+     * @param plan Query plan for the column configurations
+     * @param dateColumn Date column name
+     * @param date Date to sum
+     * @param partitions Partitions to scan
+     * @param exclusionCondition Exclusion condition
+     * @param sums Values aligned with the column configurations; receives the row-level sums
+     */
+    private void sumRowLevelColumns(String tableName, List<ColumnComparisonConfig> columnConfigs,
+                                    DayOverDayQueryPlan plan, String dateColumn, LocalDate date,
+                                    List<PartitionPredicate> partitions, String exclusionCondition,
+                                    BigDecimal[] sums) {
+        int[] rowLevelIndexes = plan.rowLevelIndexes();
+        if (rowLevelIndexes.length == 0) {
+            return;
+        }
+
+        List<String> columnNames = Arrays.stream(rowLevelIndexes)
+                .mapToObj(i -> columnConfigs.get(i).getColumnName())
+                .distinct()
+                .toList();
+
+        // Resolve each column configuration to its position in the batch once per query
+        int[] positions = Arrays.stream(rowLevelIndexes)
+                .map(i -> columnNames.indexOf(columnConfigs.get(i).getColumnName()))
+                .toArray();
+
+        List<BigDecimal[]> partitionSums = scanPartitions(partitions, partition -> sumPartition(
+                tableName, columnConfigs, rowLevelIndexes, columnNames, positions, dateColumn, date,
+                partition, exclusionCondition));
+
+        for (int i = 0; i < rowLevelIndexes.length; i++) {
+            ScaledSum sum = new ScaledSum();
+            for (BigDecimal[] partitionSum : partitionSums) {
+                sum.add(partitionSum[i]);
+            }
+            sums[rowLevelIndexes[i]] = sum.value();
+        }
+    }
+
+    /**
+     * Sum the row-level columns of one partition of a table for one day
+     * @param tableName Table name
+     * @param columnConfigs Column configurations
+     * @param rowLevelIndexes Indexes of the row-level column configurations
+     * @param columnNames Distinct columns to select
+     * @param positions Batch position of each row-level column configuration
+     * @param dateColumn Date column name
+     * @param date Date to sum
+     * @param partition Partition to scan
+     * @param exclusionCondition Exclusion condition
+     * @return Sums aligned with rowLevelIndexes
+     */
+    private BigDecimal[] sumPartition(String tableName, List<ColumnComparisonConfig> columnConfigs,
+                                      int[] rowLevelIndexes, List<String> columnNames, int[] positions,
+                                      String dateColumn, LocalDate date, PartitionPredicate partition,
+                                      String exclusionCondition) {
+        ScaledSum[] columnSums = new ScaledSum[rowLevelIndexes.length];
+        Arrays.setAll(columnSums, i -> new ScaledSum());
+        SpecialValueStrategies[] strategies = Arrays.stream(rowLevelIndexes)
+                .mapToObj(index -> SpecialValueStrategies.of(columnConfigs.get(index)))
+                .toArray(SpecialValueStrategies[]::new);
+
+        // Each column's sum is only touched by the task summing that column, so wide configs sum across cores
+        dynamicTableRepository.streamBatchesForDate(tableName, columnNames, dateColumn, date, partition,
+                exclusionCondition, batch -> ParallelColumns.forEach(columnPool, rowLevelIndexes.length,
+                        parallelColumnThreshold, i -> sumColumn(batch, positions[i], strategies[i], columnSums[i])));
+
+        return Arrays.stream(columnSums).map(ScaledSum::value).toArray(BigDecimal[]::new);
+    }
+
+    /**
+     * Add one column of a batch to its sum
+     * @param batch Batch of rows
+     * @param column Batch position of the column
+     * @param strategies Handling strategies of the column
+     * @param sum Sum of the column
+     */
+    private void sumColumn(ColumnarRowBatch batch, int column, SpecialValueStrategies strategies, ScaledSum sum) {
+        long[] values = batch.scaledValues(column);
+        for (int row = 0; row < batch.size(); row++) {
+            if ((batch.specialWord(column, row >>> 6) & (1L << row)) == 0) {
+                sum.addScaled(values[row]);
+            } else {
+                BigDecimal value = handleCell(batch, column, row, strategies);
+                if (value != null) {
+                    sum.add(value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Save the values of a completed day so later runs do not rescan it.
+     * Snapshots only save work, so a failed save is logged rather than failing the comparison.
+     * @param columnConfigs Column configurations
+     * @param definitions Aggregate definitions aligned with the column configurations
+     * @param date Completed day
+     * @param values Values aligned with the column configurations
+     */
+    private void saveSnapshot(List<ColumnComparisonConfig> columnConfigs, List<String> definitions,
+                              LocalDate date, BigDecimal[] values) {
+        try {
+            aggregateSnapshotService.saveValues(columnConfigs, definitions, date, values);
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Could not save aggregate snapshot for {}: {}", date, e.getMessage());
+        }
+    }
+
+    /**
+     * Save today's watermark and partial values for the next run.
+     * The state only saves work, so a failed save is logged rather than failing the comparison.
+     * @param config Day-over-day configuration
+     * @param date Day of the state
+     * @param definition Definition the partial values were computed with
+     * @param watermark Highest watermark included in the partial values
+     * @param partialValues Partial aggregates followed by the row-level sums
+     */
+    private void saveIncrementalState(DayOverDayConfig config, LocalDate date, String definition,
+                                      long watermark, List<BigDecimal> partialValues) {
+        try {
+            incrementalAggregateService.saveState(config, date, definition, watermark, partialValues);
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Could not save incremental aggregate state for {}: {}", date, e.getMessage());
+        }
+    }
+
+    /**
+     * Compare a column's value for today against yesterday
+     * @param todayValue Aggregate or sum of the column for today
+     * @param yesterdayValue Aggregate or sum of the column for yesterday
+     * @param columnConfig Column configuration
+     * @param thresholdValue Threshold value
+     * @return Validation detail result
+     */
+    private ValidationDetailResult compareColumn(BigDecimal todayValue,
+                                                 BigDecimal yesterdayValue,
+                                                 ColumnComparisonConfig columnConfig,
+                                                 BigDecimal thresholdValue) {
 
         // Compare values
         ComparisonResult comparisonResult = compareValues(
@@ -119,7 +716,7 @@ public class DayOverDayComparator extends AbstractComparator {
 
         // Check if threshold is exceeded
         boolean thresholdExceeded = isThresholdExceeded(
-                comparisonResult, columnConfig, thresholdConfig.getThresholdValue());
+                comparisonResult, columnConfig, thresholdValue);
 
         // Create and return result
         return ValidationDetailResult.builder()
@@ -133,48 +730,41 @@ public class DayOverDayComparator extends AbstractComparator {
     }
 
     /**
-     * Compare a regular column
-     * @param todayData Today's data
-     * @param yesterdayData Yesterday's data
-     * @param columnName Column name
+     * Compare a column's estimated value for today against yesterday
+     * @param todayValue Estimated value of the column for today
+     * @param yesterdayValue Estimated or exact value of the column for yesterday
+     * @param todayMargin Margin of error of today's value
+     * @param yesterdayMargin Margin of error of yesterday's value
      * @param columnConfig Column configuration
-     * @param thresholdConfig Threshold configuration
-     * @return List of validation detail results
+     * @param thresholdValue Threshold value
+     * @return Validation detail result, marked as estimated
      */
-    private List<ValidationDetailResult> compareRegularColumn(List<Map<String, Object>> todayData,
-                                                              List<Map<String, Object>> yesterdayData,
-                                                              String columnName,
-                                                              ColumnComparisonConfig columnConfig,
-                                                              ThresholdConfig thresholdConfig) {
-
-        // Sum values for today
-        BigDecimal todaySum = todayData.stream()
-                .map(row -> extractValue(row, columnName, columnConfig.getNullHandlingStrategy()))
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Sum values for yesterday
-        BigDecimal yesterdaySum = yesterdayData.stream()
-                .map(row -> extractValue(row, columnName, columnConfig.getNullHandlingStrategy()))
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private ValidationDetailResult compareEstimatedColumn(BigDecimal todayValue,
+                                                          BigDecimal yesterdayValue,
+                                                          BigDecimal todayMargin,
+                                                          BigDecimal yesterdayMargin,
+                                                          ColumnComparisonConfig columnConfig,
+                                                          BigDecimal thresholdValue) {
 
         // Compare values
         ComparisonResult comparisonResult = compareValues(
-                todaySum, yesterdaySum, columnConfig.getComparisonType());
+                todayValue, yesterdayValue, columnConfig.getComparisonType());
 
-        // Check if threshold is exceeded
+        // Only alert if the threshold is exceeded across the whole confidence interval
         boolean thresholdExceeded = isThresholdExceeded(
-                comparisonResult, columnConfig, thresholdConfig.getThresholdValue());
+                comparisonResult, columnConfig, thresholdValue, todayMargin, yesterdayMargin);
 
         // Create and return result
-        return List.of(ValidationDetailResult.builder()
+        return ValidationDetailResult.builder()
                 .columnComparisonConfig(columnConfig)
                 .actualValue(comparisonResult.actualValue())
                 .expectedValue(comparisonResult.expectedValue())
                 .differenceValue(comparisonResult.differenceValue())
                 .differencePercentage(comparisonResult.differencePercentage())
                 .thresholdExceeded(thresholdExceeded)
-                .build());
+                .estimated(true)
+                .actualMarginOfError(todayMargin)
+                .expectedMarginOfError(yesterdayMargin)
+                .build();
     }
 }
@@ -0,0 +1,284 @@
+package com.company.datavalidation.service.comparison;
+
+import com.company.datavalidation.model.ColumnComparisonConfig;
+import com.company.datavalidation.model.HandlingStrategy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Query plan for a day-over-day comparison.
+ * Decides for every column configuration whether its value is computed by the database
+ * with an aggregate query or by streaming rows into the JVM. Aggregate expressions are
+ * always evaluated by the database; regular columns are pushed down as SUM only if they are
+ * numeric and none of their handling strategies has to see individual rows. Text columns
+ * are always streamed, since their blank and N/A values cannot be summed by the database.
+ * Identical aggregates of several columns,
+ * and partial aggregates shared between them, are projected only once.
+ */
+public final class DayOverDayQueryPlan {
+
+    private final AggregateExpression[] aggregates;
+    private final int[] aggregateIndexes;
+    private final int[] rowLevelIndexes;
+    private final AggregateExpression[] projected;
+    private final int[] projectedPositions;
+    private final AggregateExpression[] partials;
+    private final int[][] partialPositions;
+    private final List<String> sampleSql;
+    private final int[][] samplePositions;
+
+    private DayOverDayQueryPlan(AggregateExpression[] aggregates, int[] aggregateIndexes, int[] rowLevelIndexes) {
+        this.aggregates = aggregates;
+        this.aggregateIndexes = aggregateIndexes;
+        this.rowLevelIndexes = rowLevelIndexes;
+
+        // Project each distinct aggregate once and point every column at its projection
+        Map<String, Integer> projections = new LinkedHashMap<>();
+        List<AggregateExpression> distinct = new ArrayList<>();
+        this.projectedPositions = new int[aggregates.length];
+        Arrays.fill(projectedPositions, -1);
+        for (int index : aggregateIndexes) {
+            projectedPositions[index] = projections.computeIfAbsent(aggregates[index].toSql(), sql -> {
+                distinct.add(aggregates[index]);
+                return distinct.size() - 1;
+            });
+        }
+        this.projected = distinct.toArray(AggregateExpression[]::new);
+
+        // Likewise for partial aggregates, e.g. the SUM of an AVG shared with a SUM column
+        Map<String, Integer> partialProjections = new LinkedHashMap<>();
+        List<AggregateExpression> distinctPartials = new ArrayList<>();
+        this.partialPositions = new int[projected.length][];
+        for (int i = 0; i < projected.length; i++) {
+            partialPositions[i] = projected[i].partials().stream()
+                    .mapToInt(partial -> partialProjections.computeIfAbsent(partial.toSql(), sql -> {
+                        distinctPartials.add(partial);
+                        return distinctPartials.size() - 1;
+                    }))
+                    .toArray();
+        }
+        this.partials = distinctPartials.toArray(AggregateExpression[]::new);
+
+        // Likewise for the sample statistics of estimable aggregates
+        Map<String, Integer> sampleProjections = new LinkedHashMap<>();
+        this.samplePositions = new int[projected.length][];
+        for (int i = 0; i < projected.length; i++) {
+            samplePositions[i] = !projected[i].isEstimable() ? new int[0] : projected[i].sampleSql().stream()
+                    .mapToInt(sql -> sampleProjections.computeIfAbsent(sql, key -> sampleProjections.size()))
+                    .toArray();
+        }
+        this.sampleSql = List.copyOf(sampleProjections.keySet());
+    }
+
+    /**
+     * Plan a day-over-day comparison
+     * @param columnConfigs Column configurations in evaluation order
+     * @param numericColumns Regular columns of a numeric type, which may be summed by the database;
+     *                       empty to stream every regular column
+     * @return Query plan aligned with the column configurations
+     */
+    public static DayOverDayQueryPlan plan(List<ColumnComparisonConfig> columnConfigs, Set<String> numericColumns) {
+        AggregateExpression[] aggregates = new AggregateExpression[columnConfigs.size()];
+
+        for (int i = 0; i < columnConfigs.size(); i++) {
+            ColumnComparisonConfig columnConfig = columnConfigs.get(i);
+            String columnName = columnConfig.getColumnName();
+
+            if (AggregateExpression.isAggregate(columnName)) {
+                aggregates[i] = AggregateExpression.parse(columnName);
+            } else if (numericColumns.contains(columnName) && canPushDown(columnConfig)) {
+                aggregates[i] = AggregateExpression.sumOf(columnName);
+            }
+        }
+
+        int[] aggregateIndexes = IntStream.range(0, aggregates.length)
+                .filter(i -> aggregates[i] != null)
+                .toArray();
+        int[] rowLevelIndexes = IntStream.range(0, aggregates.length)
+                .filter(i -> aggregates[i] == null)
+                .toArray();
+
+        return new DayOverDayQueryPlan(aggregates, aggregateIndexes, rowLevelIndexes);
+    }
+
+    /**
+     * A SQL SUM skips nulls, which matches every strategy except FAIL
+     * @param columnConfig Column configuration of a numeric column
+     * @return True if the column sum can be computed by the database
+     */
+    private static boolean canPushDown(ColumnComparisonConfig columnConfig) {
+        SpecialValueStrategies strategies = SpecialValueStrategies.of(columnConfig);
+        return strategies.nullStrategy() != HandlingStrategy.FAIL
+                && strategies.blankStrategy() != HandlingStrategy.FAIL
+                && strategies.notAvailableStrategy() != HandlingStrategy.FAIL;
+    }
+
+    /**
+     * Get the database aggregate for a column
+     * @param index Index of the column configuration
+     * @return Aggregate expression, or null if the column is evaluated row by row
+     */
+    public AggregateExpression aggregateFor(int index) {
+        return aggregates[index];
+    }
+
+    /**
+     * Get the indexes of the column configurations evaluated by the database
+     * @return Indexes into the planned column configurations
+     */
+    public int[] aggregateIndexes() {
+        return aggregateIndexes.clone();
+    }
+
+    /**
+     * Get the SQL of every distinct database aggregate
+     * @return Aggregate expressions to project in a single query
+     */
+    public List<String> aggregateSql() {
+        return Arrays.stream(projected)
+                .map(AggregateExpression::toSql)
+                .toList();
+    }
+
+    /**
+     * Get the position of a column's aggregate among the projected aggregates
+     * @param index Index of a column configuration evaluated by the database
+     * @return Position in {@link #aggregateSql()}
+     */
+    public int aggregatePosition(int index) {
+        return projectedPositions[index];
+    }
+
+    /**
+     * Get the indexes of the column configurations that must be streamed row by row
+     * @return Indexes into the planned column configurations
+     */
+    public int[] rowLevelIndexes() {
+        return rowLevelIndexes.clone();
+    }
+
+    /**
+     * Check whether every database aggregate can be merged from per-partition results
+     * @return True if the aggregates may be computed over parallel partitions
+     */
+    public boolean isPartitionable() {
+        return Arrays.stream(projected).allMatch(AggregateExpression::isDecomposable);
+    }
+
+    /**
+     * Get the SQL of the distinct partial aggregates projected for each partition
+     * @return Partial aggregate expressions to project in a single query
+     */
+    public List<String> partialAggregateSql() {
+        return Arrays.stream(partials)
+                .map(AggregateExpression::toSql)
+                .toList();
+    }
+
+    /**
+     * Merge the partial aggregates of several partitions for one day
+     * @param partitionValues Values of each partition, aligned with {@link #partialAggregateSql()}
+     * @return Aggregate values aligned with {@link #aggregateSql()}
+     */
+    public List<BigDecimal> mergePartials(List<List<BigDecimal>> partitionValues) {
+        List<BigDecimal> merged = new ArrayList<>(projected.length);
+        for (int i = 0; i < projected.length; i++) {
+            int[] positions = partialPositions[i];
+            merged.add(projected[i].merge(partitionValues.stream()
+                    .map(values -> Arrays.stream(positions).mapToObj(values::get).toList())
+                    .toList()));
+        }
+        return merged;
+    }
+
+    /**
+     * Merge the partial aggregates of several disjoint scans of one day into the partials of their union
+     * @param scanValues Values of each scan, aligned with {@link #partialAggregateSql()}
+     * @return Partial values aligned with {@link #partialAggregateSql()}
+     */
+    public List<BigDecimal> combinePartials(List<List<BigDecimal>> scanValues) {
+        List<BigDecimal> combined = new ArrayList<>(partials.length);
+        for (int i = 0; i < partials.length; i++) {
+            int position = i;
+            combined.add(partials[i].merge(scanValues.stream()
+                    .map(values -> Collections.singletonList(values.get(position)))
+                    .toList()));
+        }
+        return combined;
+    }
+
+    /**
+     * Check whether every column can be estimated from a sample of rows
+     * @return True if every column is a database aggregate that can be estimated
+     */
+    public boolean isSampleable() {
+        return rowLevelIndexes.length == 0
+                && Arrays.stream(projected).allMatch(AggregateExpression::isEstimable);
+    }
+
+    /**
+     * Get the SQL of the distinct sample statistics needed to estimate every database aggregate
+     * @return Sample statistics to project in a single query
+     */
+    public List<String> sampleSql() {
+        return sampleSql;
+    }
+
+    /**
+     * Estimate every database aggregate from the statistics of a sample of one day
+     * @param stats Sample statistics aligned with {@link #sampleSql()}, or null if the sample had no rows
+     * @param fraction Fraction of rows sampled, between 0 and 1
+     * @return Estimates aligned with {@link #aggregateSql()}
+     */
+    public List<SampleEstimate> estimate(List<BigDecimal> stats, double fraction) {
+        List<SampleEstimate> estimates = new ArrayList<>(projected.length);
+        for (int i = 0; i < projected.length; i++) {
+            estimates.add(stats == null
+                    ? SampleEstimate.NONE
+                    : projected[i].estimate(Arrays.stream(samplePositions[i]).mapToObj(stats::get).toList(), fraction));
+        }
+        return estimates;
+    }
+
+    /**
+     * Describe a column summed row by row, including every strategy that decides which rows count
+     * @param columnConfig Column configuration
+     * @return Row-level definition
+     */
+    private static String rowLevelDefinition(ColumnComparisonConfig columnConfig) {
+        SpecialValueStrategies strategies = SpecialValueStrategies.of(columnConfig);
+        return "ROWS(%s) %s %s %s".formatted(columnConfig.getColumnName(), strategies.nullStrategy(),
+                strategies.blankStrategy(), strategies.notAvailableStrategy());
+    }
+
+    /**
+     * Describe how each column's daily value is computed, so a stored value is only reused
+     * while the table, filters and expression it was computed with are unchanged
+     * @param columnConfigs Planned column configurations
+     * @param tableName Table name
+     * @param dateColumn Date column name
+     * @param exclusionCondition Exclusion condition
+     * @return Definitions aligned with the column configurations
+     */
+    public List<String> definitions(List<ColumnComparisonConfig> columnConfigs, String tableName,
+                                    String dateColumn, String exclusionCondition) {
+        return IntStream.range(0, aggregates.length)
+                .mapToObj(i -> {
+                    String expression = aggregates[i] != null
+                            ? aggregates[i].toSql()
+                            : rowLevelDefinition(columnConfigs.get(i));
+                    return String.join(" | ", tableName, dateColumn, expression,
+                            Objects.toString(exclusionCondition, ""));
+                })
+                .toList();
+    }
+}
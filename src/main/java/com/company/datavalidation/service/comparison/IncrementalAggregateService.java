@@ -0,0 +1,74 @@
+package com.company.datavalidation.service.comparison;
+
+import com.company.datavalidation.model.DayOverDayConfig;
+import com.company.datavalidation.model.IncrementalAggregateState;
+import com.company.datavalidation.repository.IncrementalAggregateStateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stores the watermark and partial aggregates of a day still in progress, so intraday re-runs
+ * only scan the rows landed since the previous run.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IncrementalAggregateService {
+
+    private final IncrementalAggregateStateRepository incrementalAggregateStateRepository;
+
+    /**
+     * Find the stored state of a day
+     * @param config Day-over-day configuration
+     * @param date Day of the state
+     * @param definition Definition the partial aggregates must have been computed with
+     * @return Stored state, or empty if there is none or it was computed with another definition
+     */
+    public Optional<IncrementalAggregateState> findState(DayOverDayConfig config, LocalDate date, String definition) {
+        return incrementalAggregateStateRepository.findByDayOverDayConfigIdAndAggregateDate(config.getId(), date)
+                .filter(state -> {
+                    boolean matches = state.getAggregateDefinition().equals(definition);
+                    if (!matches) {
+                        log.debug("Incremental state of config {} for {} has another definition, rescanning", config.getId(), date);
+                    }
+                    return matches;
+                });
+    }
+
+    /**
+     * Save or replace the state of a day and drop the states of earlier days. Runs in its own
+     * transaction so a failed save, such as a concurrent run saving the same day, cannot roll
+     * back the validation.
+     * @param config Day-over-day configuration
+     * @param date Day of the state
+     * @param definition Definition the partial aggregates were computed with
+     * @param watermark Highest watermark included in the partial aggregates
+     * @param partialValues Partial aggregates followed by the row-level sums
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void saveState(DayOverDayConfig config, LocalDate date, String definition,
+                          long watermark, List<BigDecimal> partialValues) {
+        IncrementalAggregateState state = incrementalAggregateStateRepository
+                .findByDayOverDayConfigIdAndAggregateDate(config.getId(), date)
+                .orElseGet(() -> IncrementalAggregateState.builder()
+                        .dayOverDayConfig(config)
+                        .aggregateDate(date)
+                        .build());
+        state.setAggregateDefinition(definition);
+        state.setWatermark(watermark);
+        state.setPartialValues(partialValues);
+        state.setCapturedAt(LocalDateTime.now());
+
+        incrementalAggregateStateRepository.save(state);
+        incrementalAggregateStateRepository.deleteByDayOverDayConfigIdAndAggregateDateBefore(config.getId(), date);
+    }
+}
@@ -0,0 +1,83 @@
+package com.company.datavalidation.service.comparison;
+
+/**
+ * Bloom filter over row keys, sized for an expected number of keys and false-positive rate.
+ * A key the filter does not contain was never added; a key it contains was added, or is a
+ * false positive. Keys hash in their {@link RowKeys#normalise normalised} form.
+ */
+final class KeyBloomFilter {
+
+    private final long[] words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Create a filter holding a number of keys at a false-positive rate
+     * @param expectedKeys Expected number of keys
+     * @param falsePositiveRate Probability of a key never added being reported as contained
+     */
+    KeyBloomFilter(long expectedKeys, double falsePositiveRate) {
+        long keys = Math.max(1, expectedKeys);
+        double rate = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        // Optimal size is -n ln p / (ln 2)^2 bits and (m / n) ln 2 hash functions
+        long bits = (long) Math.ceil(-keys * Math.log(rate) / (Math.log(2) * Math.log(2)));
+        long wordCount = Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) >>> 6));
+        this.words = new long[(int) wordCount];
+        this.bitCount = wordCount << 6;
+        this.hashCount = (int) Math.max(1, Math.min(30, Math.round((double) bitCount / keys * Math.log(2))));
+    }
+
+    /**
+     * Add a key
+     * @param key Key to add
+     */
+    void add(Object key) {
+        long hash = hash(key);
+        long h1 = hash;
+        long h2 = RowKeys.mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Check whether a key may have been added
+     * @param key Key to look up
+     * @return False if the key was certainly never added
+     */
+    boolean mightContain(Object key) {
+        long hash = hash(key);
+        long h1 = hash;
+        long h2 = RowKeys.mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Size of the filter
+     * @return Number of bits
+     */
+    long bitCount() {
+        return bitCount;
+    }
+
+    private static long hash(Object key) {
+        Object normalised = RowKeys.normalise(key);
+        if (normalised instanceof Long value) {
+            return RowKeys.mix(value);
+        }
+        // FNV-1a over the characters, then mixed so nearby strings spread over the whole range
+        String text = (String) normalised;
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001B3L;
+        }
+        return RowKeys.mix(hash);
+    }
+}
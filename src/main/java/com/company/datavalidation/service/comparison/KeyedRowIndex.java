@@ -0,0 +1,194 @@
+package com.company.datavalidation.service.comparison;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Rows indexed by a key column in an open-addressing hash table with linear probing, so each
+ * lookup takes constant time instead of a scan of the rows. Keys are matched in their
+ * {@link RowKeys#normalise normalised} form; when every key is integral they are stored as
+ * primitive longs. The first row of a duplicated key wins, and rows without a key are left out.
+ */
+public abstract sealed class KeyedRowIndex {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * Index rows by a key column
+     * @param rows Rows to index
+     * @param keyColumn Key column name
+     * @return Index of the rows
+     */
+    public static KeyedRowIndex of(Iterable<Map<String, Object>> rows, String keyColumn) {
+        List<Object> keys = new ArrayList<>();
+        List<Map<String, Object>> keyedRows = new ArrayList<>();
+        boolean integral = true;
+        for (Map<String, Object> row : rows) {
+            Object key = row.get(keyColumn);
+            if (key == null) {
+                continue;
+            }
+            Object normalised = RowKeys.normalise(key);
+            integral &= normalised instanceof Long;
+            keys.add(normalised);
+            keyedRows.add(row);
+        }
+
+        return integral ? new LongKeys(keys, keyedRows) : new ObjectKeys(keys, keyedRows);
+    }
+
+    /**
+     * Get the row of a key
+     * @param key Key value
+     * @return Matching row, or null if no row has the key
+     */
+    public abstract Map<String, Object> get(Object key);
+
+    /**
+     * Find the row of a key
+     * @param key Key value
+     * @return Optional containing the matching row, or empty if not found
+     */
+    public Optional<Map<String, Object>> find(Object key) {
+        return Optional.ofNullable(get(key));
+    }
+
+    /**
+     * Number of distinct keys indexed
+     */
+    public abstract int size();
+
+    /**
+     * Size a table so at least half of its slots stay empty, keeping probe sequences short
+     * @param keys Number of keys to hold
+     * @return Power of two of at least twice the number of keys
+     */
+    private static int capacityFor(int keys) {
+        if (keys > MAX_CAPACITY / 2) {
+            throw new IllegalArgumentException("Too many rows to index: " + keys);
+        }
+        return Math.max(2, Integer.highestOneBit(Math.max(1, keys) * 2 - 1) << 1);
+    }
+
+    /**
+     * Index of integral keys, held in a primitive array
+     */
+    private static final class LongKeys extends KeyedRowIndex {
+
+        private final long[] keys;
+        private final Map<String, Object>[] rows;
+        private final int mask;
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        private LongKeys(List<Object> keys, List<Map<String, Object>> rows) {
+            int capacity = capacityFor(keys.size());
+            this.keys = new long[capacity];
+            this.rows = new Map[capacity];
+            this.mask = capacity - 1;
+            for (int i = 0; i < keys.size(); i++) {
+                put((Long) keys.get(i), rows.get(i));
+            }
+        }
+
+        private void put(long key, Map<String, Object> row) {
+            int slot = (int) RowKeys.mix(key) & mask;
+            while (rows[slot] != null) {
+                if (keys[slot] == key) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            rows[slot] = row;
+            size++;
+        }
+
+        /**
+         * Get the row of an integral key
+         * @param key Key value
+         * @return Matching row, or null if no row has the key
+         */
+        Map<String, Object> get(long key) {
+            int slot = (int) RowKeys.mix(key) & mask;
+            while (rows[slot] != null) {
+                if (keys[slot] == key) {
+                    return rows[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        @Override
+        public Map<String, Object> get(Object key) {
+            if (key == null) {
+                return null;
+            }
+            return RowKeys.normalise(key) instanceof Long value ? get(value.longValue()) : null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Index of keys of any type, compared in their normalised form
+     */
+    private static final class ObjectKeys extends KeyedRowIndex {
+
+        private final Object[] keys;
+        private final Map<String, Object>[] rows;
+        private final int mask;
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        private ObjectKeys(List<Object> keys, List<Map<String, Object>> rows) {
+            int capacity = capacityFor(keys.size());
+            this.keys = new Object[capacity];
+            this.rows = new Map[capacity];
+            this.mask = capacity - 1;
+            for (int i = 0; i < keys.size(); i++) {
+                put(keys.get(i), rows.get(i));
+            }
+        }
+
+        private void put(Object key, Map<String, Object> row) {
+            int slot = (int) RowKeys.mix(key.hashCode()) & mask;
+            while (rows[slot] != null) {
+                if (keys[slot].equals(key)) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            rows[slot] = row;
+            size++;
+        }
+
+        @Override
+        public Map<String, Object> get(Object key) {
+            if (key == null) {
+                return null;
+            }
+            Object normalised = RowKeys.normalise(key);
+            int slot = (int) RowKeys.mix(normalised.hashCode()) & mask;
+            while (rows[slot] != null) {
+                if (keys[slot].equals(normalised)) {
+                    return rows[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.company.datavalidation.service.comparison;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs per-column work of wide configurations on a fork-join pool, splitting the columns into
+ * contiguous ranges until each range is small enough to run on its own. Every column is processed
+ * by exactly one task, so work that writes only to its column's slot needs no locking, and results
+ * collected by column index stay in configuration order however the work was scheduled.
+ */
+final class ParallelColumns {
+
+    // Ranges per worker thread, so a worker that finishes early can steal the rest of a slow one's work
+    private static final int RANGES_PER_THREAD = 4;
+
+    private ParallelColumns() {
+    }
+
+    /**
+     * Process every column, in parallel if there are at least a minimum number of them
+     * @param pool Pool to run on
+     * @param columnCount Number of columns
+     * @param minColumns Smallest number of columns processed in parallel; 0 to always run sequentially
+     * @param action Work for one column index, returning once the column is processed
+     */
+    static void forEach(ForkJoinPool pool, int columnCount, int minColumns, IntConsumer action) {
+        if (minColumns <= 0 || columnCount < minColumns) {
+            for (int column = 0; column < columnCount; column++) {
+                action.accept(column);
+            }
+            return;
+        }
+        int grain = Math.max(1, columnCount / (pool.getParallelism() * RANGES_PER_THREAD));
+        pool.invoke(new ColumnRange(0, columnCount, grain, action));
+    }
+
+    /**
+     * Columns [from, to), split in halves until no larger than the grain
+     */
+    private static final class ColumnRange extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final IntConsumer action;
+
+        private ColumnRange(int from, int to, int grain, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                for (int column = from; column < to; column++) {
+                    action.accept(column);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ColumnRange(from, middle, grain, action), new ColumnRange(middle, to, grain, action));
+        }
+    }
+}
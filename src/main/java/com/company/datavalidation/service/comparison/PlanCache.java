@@ -0,0 +1,34 @@
+package com.company.datavalidation.service.comparison;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the compiled plan of each configuration between runs. A plan is reused while the
+ * signature of the configuration it was compiled from is unchanged, and recompiled otherwise;
+ * only the latest plan of a configuration is kept.
+ * @param <P> Plan type
+ */
+final class PlanCache<P> {
+
+    private record Entry<P>(Object signature, P plan) {}
+
+    private final Map<Long, Entry<P>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Get the plan of a configuration, compiling it if it is not cached or its signature changed
+     * @param configId Configuration ID, or null for an unsaved configuration, which is never cached
+     * @param signature Value describing everything the plan is compiled from
+     * @param compiler Compiles the plan
+     * @return Compiled plan
+     */
+    P get(Long configId, Object signature, Supplier<P> compiler) {
+        if (configId == null) {
+            return compiler.get();
+        }
+        return entries.compute(configId, (id, entry) -> entry != null && entry.signature().equals(signature)
+                ? entry
+                : new Entry<>(signature, compiler.get())).plan();
+    }
+}
@@ -0,0 +1,88 @@
+package com.company.datavalidation.service.comparison;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Uniform random sample of at most a fixed number of items from a stream of unknown length,
+ * kept with reservoir sampling (Algorithm R) so memory use does not grow with the stream.
+ * @param <T> Item type
+ */
+final class ReservoirSample<T> {
+
+    private final Object[] items;
+    private final long[] positions;
+    private final RandomGenerator random;
+    private long count;
+
+    /**
+     * Create a sample drawing from the current thread's random generator
+     * @param capacity Maximum number of items kept
+     */
+    ReservoirSample(int capacity) {
+        this(capacity, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Create a sample drawing from a given random generator
+     * @param capacity Maximum number of items kept
+     * @param random Random generator choosing which items to keep
+     */
+    ReservoirSample(int capacity, RandomGenerator random) {
+        int size = Math.max(0, capacity);
+        this.items = new Object[size];
+        this.positions = new long[size];
+        this.random = random;
+    }
+
+    /**
+     * Offer the next item of the stream. The first capacity items are kept; after that,
+     * the n-th item replaces a random kept item with probability capacity / n.
+     * @param item Item to offer
+     */
+    void offer(T item) {
+        long position = count++;
+        int slot;
+        if (position < items.length) {
+            slot = (int) position;
+        } else {
+            long candidate = random.nextLong(count);
+            if (candidate >= items.length) {
+                return;
+            }
+            slot = (int) candidate;
+        }
+        items[slot] = item;
+        positions[slot] = position;
+    }
+
+    /**
+     * Number of items offered so far
+     */
+    long count() {
+        return count;
+    }
+
+    /**
+     * Get the kept items
+     * @return At most capacity items, in the order they were offered
+     */
+    @SuppressWarnings("unchecked")
+    List<T> sample() {
+        int size = (int) Math.min(count, items.length);
+        Integer[] slots = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = i;
+        }
+        Arrays.sort(slots, (a, b) -> Long.compare(positions[a], positions[b]));
+
+        List<T> sample = new ArrayList<>(size);
+        for (int slot : slots) {
+            sample.add((T) items[slot]);
+        }
+        return sample;
+    }
+}
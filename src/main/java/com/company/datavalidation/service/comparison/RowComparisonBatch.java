@@ -0,0 +1,163 @@
+package com.company.datavalidation.service.comparison;
+
+import com.company.datavalidation.model.ColumnComparisonConfig;
+import com.company.datavalidation.model.ComparisonResult;
+import com.company.datavalidation.model.DiscrepancyType;
+import com.company.datavalidation.model.ValidationDetailResult;
+import com.company.datavalidation.repository.ColumnarRowBatch;
+import com.company.datavalidation.repository.ScaledDecimal;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffers matched source and target rows in columnar batches and compares them a column at a time
+ * with {@link ComparisonKernel}. Cells holding special values (null, blank, N/A, invalid or too
+ * large to scale) are compared one by one as before. Results are added in row order, with the
+ * columns of a row in mapping order, when the batch fills up and on {@link #flush()}.
+ */
+final class RowComparisonBatch {
+
+    private final AbstractComparator comparator;
+    private final ComparisonPlan plan;
+    private final List<ValidationDetailResult> results;
+    private final String[] sourceColumns;
+    private final String[] targetColumns;
+    private final ColumnarRowBatch source;
+    private final ColumnarRowBatch target;
+    private final Object[] keys;
+    private final long[][] differences;
+    private final long[][] percentages;
+    private final boolean[][] exceeded;
+
+    /**
+     * Create a batch comparing the columns of a plan
+     * @param comparator Comparator whose value handling and thresholds to apply
+     * @param plan Compiled column comparisons, bound to the run's column configurations
+     * @param sourcePrefix Prefix of the source column names in source rows
+     * @param targetPrefix Prefix of the target column names in target rows
+     * @param capacity Rows buffered before they are compared
+     * @param results Results to add to
+     */
+    RowComparisonBatch(AbstractComparator comparator, ComparisonPlan plan, String sourcePrefix,
+                       String targetPrefix, int capacity, List<ValidationDetailResult> results) {
+        int columnCount = plan.size();
+        this.comparator = comparator;
+        this.plan = plan;
+        this.results = results;
+        this.sourceColumns = plan.sourceColumns(sourcePrefix);
+        this.targetColumns = plan.targetColumns(targetPrefix);
+        this.source = new ColumnarRowBatch(columnCount, capacity);
+        this.target = new ColumnarRowBatch(columnCount, capacity);
+        this.keys = new Object[capacity];
+        this.differences = new long[columnCount][capacity];
+        this.percentages = new long[columnCount][capacity];
+        this.exceeded = new boolean[columnCount][capacity];
+    }
+
+    /**
+     * Add a matched row, comparing the buffered rows if the batch is full
+     * @param key Row key, or null if the rows are not read by key
+     * @param sourceRow Source row
+     * @param targetRow Target row; may be the same map as the source row
+     */
+    void add(Object key, Map<String, Object> sourceRow, Map<String, Object> targetRow) {
+        int row = source.addRow();
+        target.addRow();
+        keys[row] = key;
+        for (int column = 0; column < sourceColumns.length; column++) {
+            source.set(column, row, sourceRow.get(sourceColumns[column]));
+            target.set(column, row, targetRow.get(targetColumns[column]));
+        }
+        if (source.isFull()) {
+            flush();
+        }
+    }
+
+    /**
+     * Compare the buffered rows and add their results
+     */
+    void flush() {
+        int size = source.size();
+        if (size == 0) {
+            return;
+        }
+
+        for (int column = 0; column < sourceColumns.length; column++) {
+            ComparisonKernel.compare(source.scaledValues(column), target.scaledValues(column), size,
+                    plan.comparisonType(column), plan.scaledThreshold(column),
+                    differences[column], percentages[column], exceeded[column]);
+        }
+
+        for (int row = 0; row < size; row++) {
+            String rowKey = keys[row] != null ? String.valueOf(keys[row]) : null;
+            for (int column = 0; column < sourceColumns.length; column++) {
+                boolean special = ((source.specialWord(column, row >>> 6) | target.specialWord(column, row >>> 6))
+                        & (1L << row)) != 0;
+                if (special || percentages[column][row] == ComparisonKernel.NO_PERCENTAGE) {
+                    compareCell(rowKey, column, row);
+                } else {
+                    addKernelResult(rowKey, column, row);
+                }
+            }
+        }
+
+        source.clear();
+        target.clear();
+        Arrays.fill(keys, 0, size, null);
+    }
+
+    /**
+     * Add the result the kernel computed for a cell of plain values
+     */
+    private void addKernelResult(String rowKey, int column, int row) {
+        long actual = source.scaledValues(column)[row];
+        long expected = target.scaledValues(column)[row];
+        BigDecimal differencePercentage = expected != 0
+                ? BigDecimal.valueOf(percentages[column][row], ScaledDecimal.PERCENTAGE_SCALE)
+                : actual == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(100);
+
+        results.add(ValidationDetailResult.builder()
+                .columnComparisonConfig(plan.columnConfig(column))
+                .rowKey(rowKey)
+                .discrepancyType(DiscrepancyType.VALUE_MISMATCH)
+                .actualValue(ScaledDecimal.toDecimal(actual))
+                .expectedValue(ScaledDecimal.toDecimal(expected))
+                .differenceValue(ScaledDecimal.toDecimal(differences[column][row]))
+                .differencePercentage(differencePercentage)
+                .thresholdExceeded(exceeded[column][row])
+                .build());
+    }
+
+    /**
+     * Compare a cell holding a special value on either side through the comparator's value handling
+     */
+    private void compareCell(String rowKey, int column, int row) {
+        ColumnComparisonConfig columnConfig = plan.columnConfig(column);
+        BigDecimal sourceValue = comparator.handleCell(source, column, row, plan.strategies(column));
+        BigDecimal targetValue = comparator.handleCell(target, column, row, plan.strategies(column));
+
+        // Skip comparison if either value is null
+        if (sourceValue == null || targetValue == null) {
+            return;
+        }
+
+        ComparisonResult comparisonResult = comparator.compareValues(
+                sourceValue, targetValue, plan.comparisonType(column));
+        boolean thresholdExceeded = comparator.isThresholdExceeded(
+                comparisonResult, columnConfig, plan.threshold(column));
+
+        results.add(ValidationDetailResult.builder()
+                .columnComparisonConfig(columnConfig)
+                .rowKey(rowKey)
+                .discrepancyType(DiscrepancyType.VALUE_MISMATCH)
+                .actualValue(comparisonResult.actualValue())
+                .expectedValue(comparisonResult.expectedValue())
+                .differenceValue(comparisonResult.differenceValue())
+                .differencePercentage(comparisonResult.differencePercentage())
+                .thresholdExceeded(thresholdExceeded)
+                .build());
+    }
+}
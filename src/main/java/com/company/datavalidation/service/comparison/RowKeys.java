@@ -0,0 +1,51 @@
+package com.company.datavalidation.service.comparison;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Brings row keys read from different servers into one comparable form. Integral keys compare by
+ * value whatever their numeric type, so keys read as INT on one server and BIGINT or DECIMAL on
+ * another still match; other keys compare by their string form.
+ */
+final class RowKeys {
+
+    private RowKeys() {
+    }
+
+    /**
+     * Bring a key into the form it is hashed and compared in
+     * @param key Key as read from a result set
+     * @return A Long for integral keys that fit in a long, otherwise the key's string form
+     */
+    static Object normalise(Object key) {
+        return switch (key) {
+            case Long value -> value;
+            case Integer value -> value.longValue();
+            case Short value -> value.longValue();
+            case Byte value -> value.longValue();
+            case BigInteger value when value.bitLength() < Long.SIZE -> value.longValue();
+            case BigDecimal value -> normaliseDecimal(value);
+            default -> String.valueOf(key);
+        };
+    }
+
+    private static Object normaliseDecimal(BigDecimal value) {
+        try {
+            return value.longValueExact();
+        } catch (ArithmeticException e) {
+            return value.stripTrailingZeros().toPlainString();
+        }
+    }
+
+    /**
+     * Finalise a 64-bit hash so every input bit affects every output bit (MurmurHash3 fmix64)
+     * @param value Value to mix
+     * @return Mixed value
+     */
+    static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB93F53A5FE53L;
+        return value ^ (value >>> 33);
+    }
+}
@@ -0,0 +1,16 @@
+package com.company.datavalidation.service.comparison;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregate estimated from a sample of rows
+ * @param value Estimated value, or null if the sample had no values
+ * @param standardError Standard error of the estimate
+ */
+public record SampleEstimate(BigDecimal value, BigDecimal standardError) {
+
+    /**
+     * Estimate from a sample without values
+     */
+    public static final SampleEstimate NONE = new SampleEstimate(null, BigDecimal.ZERO);
+}
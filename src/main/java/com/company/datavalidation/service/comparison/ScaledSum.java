@@ -0,0 +1,51 @@
+package com.company.datavalidation.service.comparison;
+
+import com.company.datavalidation.repository.ScaledDecimal;
+
+import java.math.BigDecimal;
+
+/**
+ * Running sum of decimals kept as a scaled long. Values that cannot be scaled, and the running
+ * sum whenever adding to it would overflow, spill into a BigDecimal, so the sum stays exact and
+ * adding plain values creates no objects.
+ */
+final class ScaledSum {
+
+    private long scaled;
+    private BigDecimal spilled = BigDecimal.ZERO;
+
+    /**
+     * Add a scaled value
+     * @param value Value scaled to {@link ScaledDecimal#SCALE}
+     */
+    void addScaled(long value) {
+        long next = scaled + value;
+        // Spill into the decimal sum when the long accumulator would overflow
+        if (((scaled ^ next) & (value ^ next)) < 0) {
+            spilled = spilled.add(ScaledDecimal.toDecimal(scaled));
+            next = value;
+        }
+        scaled = next;
+    }
+
+    /**
+     * Add a decimal value
+     * @param value Value to add
+     */
+    void add(BigDecimal value) {
+        long scaledValue = ScaledDecimal.of(value);
+        if (scaledValue != ScaledDecimal.NOT_SCALED) {
+            addScaled(scaledValue);
+        } else {
+            spilled = spilled.add(value);
+        }
+    }
+
+    /**
+     * Get the sum
+     * @return Exact sum, with at least {@link ScaledDecimal#SCALE} decimal places
+     */
+    BigDecimal value() {
+        return spilled.add(ScaledDecimal.toDecimal(scaled));
+    }
+}
@@ -0,0 +1,46 @@
+package com.company.datavalidation.service.comparison;
+
+import com.company.datavalidation.model.ColumnComparisonConfig;
+import com.company.datavalidation.model.HandlingStrategy;
+import com.company.datavalidation.repository.ColumnarRowBatch.CellState;
+
+import java.math.BigDecimal;
+
+/**
+ * Handling strategies of a column for each kind of special value. Values that are neither
+ * blank nor N/A, such as invalid text, are handled by the null strategy.
+ * @param nullStrategy Strategy for null and invalid values
+ * @param blankStrategy Strategy for blank text
+ * @param notAvailableStrategy Strategy for N/A text
+ */
+record SpecialValueStrategies(HandlingStrategy nullStrategy, HandlingStrategy blankStrategy,
+                              HandlingStrategy notAvailableStrategy) {
+
+    /**
+     * Get the strategies of a column configuration. Blank and N/A values fall back to the null
+     * strategy if the configuration does not set their own.
+     * @param columnConfig Column configuration
+     * @return Handling strategies
+     */
+    static SpecialValueStrategies of(ColumnComparisonConfig columnConfig) {
+        HandlingStrategy nullStrategy = columnConfig.getNullHandlingStrategy();
+        return new SpecialValueStrategies(nullStrategy,
+                columnConfig.getBlankHandlingStrategy() != null ? columnConfig.getBlankHandlingStrategy() : nullStrategy,
+                columnConfig.getNaHandlingStrategy() != null ? columnConfig.getNaHandlingStrategy() : nullStrategy);
+    }
+
+    /**
+     * Handle a special batch cell with the strategy for its state
+     * @param state State of a cell that is neither a scaled value nor an exact decimal
+     * @return Handled value
+     * @throws RuntimeException if the strategy is FAIL
+     */
+    BigDecimal handle(CellState state) {
+        return switch (state) {
+            case BLANK -> blankStrategy.handleValue("blank");
+            case NOT_AVAILABLE -> notAvailableStrategy.handleValue("N/A");
+            case INVALID -> nullStrategy.handleValue("invalid");
+            default -> nullStrategy.handleValue(null);
+        };
+    }
+}
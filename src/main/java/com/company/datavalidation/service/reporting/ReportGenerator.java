@@ -97,6 +97,8 @@ public class ReportGenerator {
                     failureDetail.put("tableName", result.getComparisonConfig().getTableName());
                     failureDetail.put("executionDate", result.getExecutionDate());
                     failureDetail.put("columnName", detail.getColumnComparisonConfig().getColumnName());
+                    failureDetail.put("rowKey", detail.getRowKey());
+                    failureDetail.put("discrepancyType", detail.getDiscrepancyType());
                     failureDetail.put("actualValue", detail.getActualValue());
                     failureDetail.put("expectedValue", detail.getExpectedValue());
                     failureDetail.put("differenceValue", detail.getDifferenceValue());
@@ -154,12 +156,17 @@ public class ReportGenerator {
                 validationDetail.put("executionDate", result.getExecutionDate());
                 validationDetail.put("success", result.isSuccess());
                 validationDetail.put("columnName", detail.getColumnComparisonConfig().getColumnName());
+                validationDetail.put("rowKey", detail.getRowKey());
+                validationDetail.put("discrepancyType", detail.getDiscrepancyType());
                 validationDetail.put("comparisonType", detail.getColumnComparisonConfig().getComparisonType());
                 validationDetail.put("actualValue", detail.getActualValue());
                 validationDetail.put("expectedValue", detail.getExpectedValue());
                 validationDetail.put("differenceValue", detail.getDifferenceValue());
                 validationDetail.put("differencePercentage", detail.getDifferencePercentage());
                 validationDetail.put("thresholdExceeded", detail.isThresholdExceeded());
+                validationDetail.put("estimated", detail.isEstimated());
+                validationDetail.put("actualMarginOfError", detail.getActualMarginOfError());
+                validationDetail.put("expectedMarginOfError", detail.getExpectedMarginOfError());
 
                 validationDetails.add(validationDetail);
             }
@@ -2,6 +2,7 @@ package com.company.datavalidation.service.validation;
 
 import com.company.datavalidation.model.*;
 import com.company.datavalidation.repository.ColumnComparisonConfigRepository;
+import com.company.datavalidation.repository.SourceDataSource;
 import com.company.datavalidation.repository.ThresholdConfigRepository;
 import com.company.datavalidation.repository.ValidationDetailResultRepository;
 import com.company.datavalidation.repository.ValidationResultRepository;
@@ -55,8 +56,10 @@ public class ThresholdValidator {
             Map<Long, ThresholdConfig> thresholdConfigs = getThresholdConfigs(columnConfigs);
             log.debug("Found {} threshold configurations", thresholdConfigs.size());
 
-            // Perform comparison
-            List<ValidationDetailResult> detailResults = dayOverDayComparator.compare(config, columnConfigs, thresholdConfigs);
+            // Perform comparison against the source database of the table
+            List<ValidationDetailResult> detailResults = SourceDataSource.call(
+                    config.getComparisonConfig().getDatasourceName(),
+                    () -> dayOverDayComparator.compare(config, columnConfigs, thresholdConfigs));
             log.debug("Comparison generated {} detail results", detailResults.size());
 
             // Check if any thresholds were exceeded
@@ -119,8 +122,10 @@ public class ThresholdValidator {
             Map<Long, ThresholdConfig> thresholdConfigs = getThresholdConfigs(columnConfigs);
             log.debug("Found {} threshold configurations", thresholdConfigs.size());
 
-            // Perform comparison
-            List<ValidationDetailResult> detailResults = crossTableComparator.compare(config, columnConfigs, thresholdConfigs);
+            // Perform comparison against the source database of the tables
+            List<ValidationDetailResult> detailResults = SourceDataSource.call(
+                    config.getSourceComparisonConfig().getDatasourceName(),
+                    () -> crossTableComparator.compare(config, columnConfigs, thresholdConfigs));
             log.debug("Comparison generated {} detail results", detailResults.size());
 
             // Check if any thresholds were exceeded
@@ -0,0 +1,5 @@
+-- Flyway Migration: V10__Row_Fingerprint_Comparison.sql
+-- Cross-table comparisons that compare row fingerprints first and read only differing rows in full
+
+ALTER TABLE cross_table_config ADD
+    fingerprint_comparison BIT NOT NULL DEFAULT 0;
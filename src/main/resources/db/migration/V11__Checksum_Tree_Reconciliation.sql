@@ -0,0 +1,5 @@
+-- Flyway Migration: V11__Checksum_Tree_Reconciliation.sql
+-- Fan-out of the key-bucket checksum tree used to localise differing rows; NULL compares every row
+
+ALTER TABLE cross_table_config ADD
+    checksum_fanout INT NULL;
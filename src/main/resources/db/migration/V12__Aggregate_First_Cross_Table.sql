@@ -0,0 +1,5 @@
+-- Flyway Migration: V12__Aggregate_First_Cross_Table.sql
+-- Cross-table comparisons that compare per-column aggregates first and compare rows only on a mismatch
+
+ALTER TABLE cross_table_config ADD
+    aggregate_first BIT NOT NULL DEFAULT 0;
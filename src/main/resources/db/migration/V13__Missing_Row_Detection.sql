@@ -0,0 +1,6 @@
+-- Flyway Migration: V13__Missing_Row_Detection.sql
+-- Kind of discrepancy each cross-table detail result reports, so missing-row counts and
+-- sampled keys can be told apart from value mismatches
+
+ALTER TABLE validation_detail_result ADD
+    discrepancy_type NVARCHAR(20) NULL;
@@ -0,0 +1,5 @@
+-- Flyway Migration: V14__Key_Existence_Check.sql
+-- Cross-table comparisons that only check every key exists on both sides, through Bloom filters
+
+ALTER TABLE cross_table_config ADD
+    key_existence_check BIT NOT NULL DEFAULT 0;
@@ -0,0 +1,7 @@
+-- Flyway Migration: V3__Partitioned_Scans.sql
+-- Optional partitioning of day-over-day source table scans
+
+ALTER TABLE day_over_day_config ADD
+    partition_column NVARCHAR(100) NULL,
+    partition_count INT NULL,
+    partition_strategy NVARCHAR(20) NULL; -- HASH, RANGE
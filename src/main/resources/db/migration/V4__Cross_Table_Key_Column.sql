@@ -0,0 +1,5 @@
+-- Flyway Migration: V4__Cross_Table_Key_Column.sql
+-- Source key column used to page cross-table comparisons in chunks
+
+ALTER TABLE cross_table_config ADD
+    key_column NVARCHAR(100) NULL;
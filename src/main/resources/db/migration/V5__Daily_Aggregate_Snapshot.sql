@@ -0,0 +1,13 @@
+-- Flyway Migration: V5__Daily_Aggregate_Snapshot.sql
+-- Day-over-day values of completed days, reused instead of rescanning the source table
+
+CREATE TABLE daily_aggregate_snapshot (
+                                          id INT IDENTITY(1,1) PRIMARY KEY,
+                                          column_comparison_config_id INT NOT NULL,
+                                          snapshot_date DATE NOT NULL,
+                                          aggregate_definition NVARCHAR(1000) NOT NULL,
+                                          aggregate_value DECIMAL(38,10),
+                                          captured_at DATETIME2 NOT NULL,
+                                          FOREIGN KEY (column_comparison_config_id) REFERENCES column_comparison_config(id),
+                                          CONSTRAINT UQ_daily_aggregate_snapshot_column_date UNIQUE (column_comparison_config_id, snapshot_date)
+);
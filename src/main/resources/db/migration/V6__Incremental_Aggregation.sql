@@ -0,0 +1,17 @@
+-- Flyway Migration: V6__Incremental_Aggregation.sql
+-- Watermark and partial aggregates of today's rows, merged with newly landed rows on re-runs
+
+ALTER TABLE day_over_day_config ADD
+    watermark_column NVARCHAR(100) NULL;
+
+CREATE TABLE incremental_aggregate_state (
+                                             id INT IDENTITY(1,1) PRIMARY KEY,
+                                             day_over_day_config_id INT NOT NULL,
+                                             aggregate_date DATE NOT NULL,
+                                             aggregate_definition NVARCHAR(MAX) NOT NULL,
+                                             watermark BIGINT NOT NULL,
+                                             partial_values NVARCHAR(MAX) NOT NULL,
+                                             captured_at DATETIME2 NOT NULL,
+                                             FOREIGN KEY (day_over_day_config_id) REFERENCES day_over_day_config(id),
+                                             CONSTRAINT UQ_incremental_aggregate_state_config_date UNIQUE (day_over_day_config_id, aggregate_date)
+);
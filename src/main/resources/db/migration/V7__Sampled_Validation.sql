@@ -0,0 +1,11 @@
+-- Flyway Migration: V7__Sampled_Validation.sql
+-- Optional sampling of day-over-day source tables, with estimated results and their margins of error
+
+ALTER TABLE day_over_day_config ADD
+    sample_percent DECIMAL(5,2) NULL,
+    sample_key_column NVARCHAR(100) NULL;
+
+ALTER TABLE validation_detail_result ADD
+    estimated BIT NOT NULL DEFAULT 0,
+    actual_margin_of_error DECIMAL(18,4) NULL,
+    expected_margin_of_error DECIMAL(18,4) NULL;
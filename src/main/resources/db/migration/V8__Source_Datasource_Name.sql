@@ -0,0 +1,5 @@
+-- Flyway Migration: V8__Source_Datasource_Name.sql
+-- Source datasource each comparison reads from; NULL reads from the default source
+
+ALTER TABLE comparison_config ADD
+    datasource_name NVARCHAR(100) NULL;
@@ -0,0 +1,10 @@
+-- Flyway Migration: V9__Cross_Database_Reconciliation.sql
+-- Target datasource and key of cross-table comparisons merge-joined across databases,
+-- and the key of the row each detail result was found on
+
+ALTER TABLE cross_table_config ADD
+    target_datasource_name NVARCHAR(100) NULL,
+    target_key_column NVARCHAR(100) NULL;
+
+ALTER TABLE validation_detail_result ADD
+    row_key NVARCHAR(255) NULL;
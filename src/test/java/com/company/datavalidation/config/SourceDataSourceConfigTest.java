@@ -0,0 +1,79 @@
+package com.company.datavalidation.config;
+
+import com.company.datavalidation.config.SourceDataSourceConfig.SourceRoutingDataSource;
+import com.company.datavalidation.repository.DynamicTableRepository;
+import com.company.datavalidation.repository.PartitionPredicate;
+import com.company.datavalidation.repository.SourceDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that source queries are routed to the pool of the datasource named on the calling thread.
+ */
+@DisplayName("Source DataSource Config Tests")
+class SourceDataSourceConfigTest {
+
+    private static final SourceDataSourceConfig CONFIG = new SourceDataSourceConfig();
+
+    private static DataSource sourceDataSource;
+    private static JdbcTemplate sourceJdbcTemplate;
+
+    @BeforeAll
+    static void setup() {
+        SourceDataSourceProperties properties = new SourceDataSourceProperties();
+        properties.getDatasources().put(SourceDataSource.DEFAULT, source("source_default"));
+        properties.getDatasources().put("warehouse", source("source_warehouse"));
+
+        sourceDataSource = CONFIG.sourceDataSource(properties);
+        sourceJdbcTemplate = CONFIG.sourceJdbcTemplate(sourceDataSource);
+        SourceDataSource.call(SourceDataSource.DEFAULT, () ->
+                sourceJdbcTemplate.update("CREATE TABLE source_name AS SELECT 'default' AS name"));
+        SourceDataSource.call("warehouse", () ->
+                sourceJdbcTemplate.update("CREATE TABLE source_name AS SELECT 'warehouse' AS name"));
+    }
+
+    @AfterAll
+    static void close() {
+        ((SourceRoutingDataSource) sourceDataSource).close();
+    }
+
+    @Test
+    @DisplayName("Should read from the datasource named on the thread and its virtual threads")
+    void testRoutesByName() {
+        assertEquals("default", sourceName());
+        assertEquals("warehouse", SourceDataSource.call("warehouse", this::sourceName));
+        assertEquals("warehouse", SourceDataSource.call("warehouse", () ->
+                new DynamicTableRepository(sourceJdbcTemplate).scanPartitions(
+                        PartitionPredicate.hash("id", 2), partition -> sourceName())).get(1));
+    }
+
+    @Test
+    @DisplayName("Should fail instead of reading the default source for an unknown name")
+    void testUnknownName() {
+        CannotGetJdbcConnectionException e = assertThrows(CannotGetJdbcConnectionException.class,
+                () -> SourceDataSource.call("missing", this::sourceName));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    private String sourceName() {
+        return sourceJdbcTemplate.queryForObject("SELECT name FROM source_name", String.class);
+    }
+
+    private static SourceDataSourceProperties.Source source(String database) {
+        SourceDataSourceProperties.Source source = new SourceDataSourceProperties.Source();
+        source.setUrl("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1");
+        source.setUsername("sa");
+        source.setPassword("");
+        source.setMaximumPoolSize(2);
+        return source;
+    }
+}
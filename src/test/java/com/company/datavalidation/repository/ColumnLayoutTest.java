@@ -0,0 +1,147 @@
+package com.company.datavalidation.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the column layout against the legacy per-row metadata mapping over an H2 result set.
+ */
+@DisplayName("Column Layout Tests")
+class ColumnLayoutTest {
+
+    private static final String QUERY = """
+            SELECT X AS id, CAST(MOD(X, 1000) AS INT) AS quantity, CAST(X / 100.0 AS DECIMAL(18,4)) AS amount,
+                   CASE WHEN MOD(X, 10) = 0 THEN NULL ELSE 'row' END AS label
+            FROM SYSTEM_RANGE(1, ?)
+            """;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:column_layout;MODE=MSSQLServer;DB_CLOSE_DELAY=-1", "sa", ""));
+    }
+
+    @Test
+    @DisplayName("Should resolve names, ordinals, types and typed values once")
+    void testResolve() {
+        List<Map<String, Object>> rows = jdbcTemplate.query(QUERY, ColumnLayout.rowMapper(), 10);
+        ColumnLayout layout = jdbcTemplate.query(QUERY, (ResultSet rs) -> ColumnLayout.resolve(rs.getMetaData()), 1);
+
+        assertEquals(4, layout.size());
+        assertEquals("ID", layout.name(0));
+        assertEquals(Types.BIGINT, layout.jdbcType(0));
+        assertEquals(3, layout.ordinal(2));
+        assertEquals(10, rows.size());
+        assertEquals(10L, rows.get(9).get("ID"));
+        assertEquals(10, rows.get(9).get("QUANTITY"));
+        assertEquals(0, new BigDecimal("0.1").compareTo((BigDecimal) rows.get(9).get("AMOUNT")));
+        assertNull(rows.get(9).get("LABEL"));
+        assertTrue(rows.get(9).containsKey("LABEL"));
+        assertEquals(jdbcTemplate.query(QUERY, ColumnLayoutTest::legacyMapRow, 10), rows);
+    }
+
+    @Test
+    @DisplayName("Should keep the first column of duplicate labels")
+    void testResolve_DuplicateLabels() {
+        Map<String, Object> row = jdbcTemplate.queryForObject(
+                "SELECT 1 AS amount, 2 AS amount", ColumnLayout.rowMapper());
+
+        assertEquals(Map.of("AMOUNT", 1), row);
+    }
+
+    @Test
+    @DisplayName("Should read cells into a batch with the getter of each column's type")
+    void testCellReaders() {
+        ColumnarRowBatch batch = new ColumnarRowBatch(4, 10);
+        jdbcTemplate.query(QUERY, new RowCallbackHandler() {
+            private ColumnLayout.CellReader[] readers;
+
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                if (readers == null) {
+                    readers = ColumnLayout.cellReaders(rs.getMetaData());
+                }
+                int row = batch.addRow();
+                for (int column = 0; column < readers.length; column++) {
+                    readers[column].read(rs, column + 1, batch, column, row);
+                }
+            }
+        }, 10);
+
+        assertEquals(10, batch.size());
+        assertEquals(100_000L, batch.scaledValues(0)[9]);
+        assertEquals(100_000L, batch.scaledValues(1)[9]);
+        assertEquals(1_000L, batch.scaledValues(2)[9]);
+        assertEquals(ColumnarRowBatch.CellState.NULL, batch.state(3, 9));
+        assertEquals(ColumnarRowBatch.CellState.INVALID, batch.state(3, 0));
+    }
+
+    @Test
+    @DisplayName("Should read the metadata once per result set rather than once per row")
+    void testRowMapper_ReadsMetadataOnce() {
+        AtomicInteger metadataReads = new AtomicInteger();
+        List<Map<String, Object>> rows = jdbcTemplate.query(QUERY, (ResultSet rs) -> {
+            ResultSet counting = countMetadataReads(rs, metadataReads);
+            var mapper = ColumnLayout.rowMapper();
+            List<Map<String, Object>> mapped = new ArrayList<>();
+            while (counting.next()) {
+                mapped.add(mapper.mapRow(counting, mapped.size()));
+            }
+            return mapped;
+        }, 1_000);
+
+        assertEquals(1, metadataReads.get());
+        assertEquals(1_000, rows.size());
+        assertEquals(jdbcTemplate.query(QUERY, ColumnLayoutTest::legacyMapRow, 1_000), rows);
+    }
+
+    /**
+     * Wrap a result set so that every call to {@link ResultSet#getMetaData()} is counted
+     */
+    private static ResultSet countMetadataReads(ResultSet rs, AtomicInteger metadataReads) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getMetaData")) {
+                        metadataReads.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(rs, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /**
+     * Mapping used before the layout was cached: metadata is read for every row
+     */
+    private static Map<String, Object> legacyMapRow(ResultSet rs, int rowNum) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        Map<String, Object> row = new HashMap<>();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            row.putIfAbsent(metaData.getColumnName(i), rs.getObject(i));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,89 @@
+package com.company.datavalidation.repository;
+
+import com.company.datavalidation.repository.ColumnarRowBatch.CellState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Columnar Row Batch Tests")
+class ColumnarRowBatchTest {
+
+    @Test
+    @DisplayName("Should store plain values as scaled longs and flag special cells")
+    void testSet_ClassifiesCells() {
+        ColumnarRowBatch batch = new ColumnarRowBatch(1, 8);
+        Object[] values = {
+                new BigDecimal("12.5"), 7, null, " ", "n/a", "abc", new BigDecimal("1.23456"), "3.25"
+        };
+        for (Object value : values) {
+            batch.set(0, batch.addRow(), value);
+        }
+
+        assertTrue(batch.isFull());
+        assertEquals(CellState.VALUE, batch.state(0, 0));
+        assertEquals(125_000L, batch.scaledValues(0)[0]);
+        assertEquals(70_000L, batch.scaledValues(0)[1]);
+        assertEquals(CellState.NULL, batch.state(0, 2));
+        assertEquals(CellState.BLANK, batch.state(0, 3));
+        assertEquals(CellState.NOT_AVAILABLE, batch.state(0, 4));
+        assertEquals(CellState.INVALID, batch.state(0, 5));
+        assertEquals(CellState.DECIMAL, batch.state(0, 6));
+        assertEquals(new BigDecimal("1.23456"), batch.decimal(0, 6));
+        assertEquals(32_500L, batch.scaledValues(0)[7]);
+        assertEquals(0b0111_1100L, batch.specialWord(0, 0));
+    }
+
+    @Test
+    @DisplayName("Should keep values that cannot be scaled exactly as decimals")
+    void testSet_KeepsValuesTooLargeToScaleAsDecimals() {
+        ColumnarRowBatch batch = new ColumnarRowBatch(1, 2);
+        batch.set(0, batch.addRow(), Long.MAX_VALUE);
+        batch.set(0, batch.addRow(), new BigDecimal("123456789012345.5"));
+
+        assertEquals(CellState.DECIMAL, batch.state(0, 0));
+        assertEquals(BigDecimal.valueOf(Long.MAX_VALUE), batch.decimal(0, 0));
+        assertEquals(CellState.DECIMAL, batch.state(0, 1));
+    }
+
+    @Test
+    @DisplayName("Should classify cells stored through the typed setters like boxed values")
+    void testTypedSetters_MatchBoxedValues() {
+        ColumnarRowBatch typed = new ColumnarRowBatch(1, 6);
+        typed.setLong(0, typed.addRow(), 7L);
+        typed.setDouble(0, typed.addRow(), 2.5);
+        typed.setDouble(0, typed.addRow(), Double.NaN);
+        typed.setDecimal(0, typed.addRow(), null);
+        typed.setString(0, typed.addRow(), "N/a");
+        typed.setString(0, typed.addRow(), "  ");
+
+        ColumnarRowBatch boxed = new ColumnarRowBatch(1, 6);
+        for (Object value : new Object[]{7L, 2.5, "abc", null, "N/a", "  "}) {
+            boxed.set(0, boxed.addRow(), value);
+        }
+
+        for (int row = 0; row < 6; row++) {
+            assertEquals(boxed.state(0, row), typed.state(0, row));
+            assertEquals(boxed.scaledValues(0)[row], typed.scaledValues(0)[row]);
+        }
+        assertEquals(CellState.INVALID, typed.state(0, 2));
+        assertEquals(0b11_1100L, typed.specialWord(0, 0));
+    }
+
+    @Test
+    @DisplayName("Should reuse the batch after clearing it")
+    void testClear_ResetsBatchForReuse() {
+        ColumnarRowBatch batch = new ColumnarRowBatch(1, 1);
+        batch.set(0, batch.addRow(), null);
+        assertThrows(IllegalStateException.class, batch::addRow);
+
+        batch.clear();
+        batch.set(0, batch.addRow(), 5L);
+
+        assertEquals(1, batch.size());
+        assertEquals(CellState.VALUE, batch.state(0, 0));
+        assertEquals(50_000L, batch.scaledValues(0)[0]);
+    }
+}
@@ -0,0 +1,214 @@
+package com.company.datavalidation.repository;
+
+import com.company.datavalidation.model.DiscrepancyType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks keyset-paginated cross-table streaming against a seeded H2 join.
+ */
+@DisplayName("Cross Table Chunk Reader Tests")
+class CrossTableChunkReaderTest {
+
+    private static final int ROWS = 103;
+    private static final LocalDate ORDER_DATE = LocalDate.of(2024, 3, 15);
+
+    private static JdbcTemplate jdbcTemplate;
+    private DynamicTableRepository dynamicTableRepository;
+
+    @BeforeAll
+    static void seed() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:cross_table_chunks;MODE=MSSQLServer;DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1", "sa", ""));
+
+        jdbcTemplate.execute("CREATE TABLE src_orders (id BIGINT PRIMARY KEY, created_date DATETIME2, amount DECIMAL(18,4))");
+        jdbcTemplate.execute("CREATE TABLE tgt_orders (source_id BIGINT PRIMARY KEY, amount DECIMAL(18,4))");
+        jdbcTemplate.update("INSERT INTO src_orders SELECT X, ?, X FROM SYSTEM_RANGE(1, ?)",
+                ORDER_DATE.atTime(12, 0), ROWS);
+        jdbcTemplate.update("INSERT INTO tgt_orders SELECT X, X * 2 FROM SYSTEM_RANGE(1, ?)", ROWS);
+        jdbcTemplate.execute("CREATE TABLE todays_orders (id BIGINT PRIMARY KEY, created_date DATETIME2, amount DECIMAL(18,4))");
+        jdbcTemplate.update("INSERT INTO todays_orders SELECT X, CURRENT_TIMESTAMP, X FROM SYSTEM_RANGE(1, ?)", ROWS);
+
+        // Every order of the day has one shipment, except order 40 which ships in two parts
+        jdbcTemplate.execute("CREATE TABLE split_shipments (id BIGINT PRIMARY KEY, order_id BIGINT, amount DECIMAL(18,4))");
+        jdbcTemplate.update("INSERT INTO split_shipments SELECT X, X, X * 2 FROM SYSTEM_RANGE(1, ?)", ROWS);
+        jdbcTemplate.update("INSERT INTO split_shipments VALUES (1000, 40, 0)");
+
+        // Shipments miss orders 4, 8 and 13 to 20, ship 11 and 12 on days other than their order,
+        // and ship an order 30 that was never placed
+        jdbcTemplate.execute("CREATE TABLE placed_orders (id BIGINT PRIMARY KEY, created_date DATETIME2)");
+        jdbcTemplate.update("""
+                INSERT INTO placed_orders
+                SELECT X, CASE WHEN X = 11 THEN DATEADD(DAY, -1, CURRENT_TIMESTAMP) ELSE CURRENT_TIMESTAMP END
+                FROM SYSTEM_RANGE(1, 20)
+                """);
+        jdbcTemplate.execute("CREATE TABLE shipped_orders (order_id BIGINT PRIMARY KEY, created_date DATETIME2)");
+        jdbcTemplate.update("""
+                INSERT INTO shipped_orders
+                SELECT X, CASE WHEN X = 12 THEN DATEADD(DAY, -1, CURRENT_TIMESTAMP) ELSE CURRENT_TIMESTAMP END
+                FROM SYSTEM_RANGE(1, 12) WHERE X NOT IN (4, 8)
+                """);
+        jdbcTemplate.update("INSERT INTO shipped_orders VALUES (30, CURRENT_TIMESTAMP)");
+    }
+
+    @BeforeEach
+    void setUp() {
+        dynamicTableRepository = new DynamicTableRepository(jdbcTemplate);
+        ReflectionTestUtils.setField(dynamicTableRepository, "crossTableChunkSize", 10);
+        ReflectionTestUtils.setField(dynamicTableRepository, "crossTableMaxBufferedRows", 20);
+    }
+
+    @Test
+    @DisplayName("Should deliver every joined row once in key order across chunks")
+    void testStreamByKey() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+
+        dynamicTableRepository.streamCrossTableQueryByKey("src_orders", "tgt_orders",
+                List.of("amount"), List.of("amount"), "s.id = t.source_id", "id",
+                "created_date", ORDER_DATE, null, rows::add);
+
+        assertEquals(ROWS, rows.size());
+        for (int i = 0; i < ROWS; i++) {
+            assertEquals(i + 1L, rows.get(i).get("row_key"));
+            BigDecimal source = (BigDecimal) rows.get(i).get("s_amount");
+            assertEquals(0, source.multiply(BigDecimal.TWO).compareTo((BigDecimal) rows.get(i).get("t_amount")));
+        }
+    }
+
+    @Test
+    @DisplayName("Should count and stream the rows of the day missing from either side of the join")
+    void testMissingRows() {
+        List<Object> sourceOnly = new ArrayList<>();
+        List<Object> targetOnly = new ArrayList<>();
+
+        long sourceCount = dynamicTableRepository.countMissingRows(DiscrepancyType.SOURCE_ONLY,
+                "placed_orders", "shipped_orders", "s.id = t.order_id", "created_date");
+        long targetCount = dynamicTableRepository.countMissingRows(DiscrepancyType.TARGET_ONLY,
+                "placed_orders", "shipped_orders", "s.id = t.order_id", "created_date");
+        dynamicTableRepository.streamMissingRowKeys(DiscrepancyType.SOURCE_ONLY, "placed_orders", "shipped_orders",
+                "s.id = t.order_id", "id", "created_date", sourceOnly::add);
+        dynamicTableRepository.streamMissingRowKeys(DiscrepancyType.TARGET_ONLY, "placed_orders", "shipped_orders",
+                "s.id = t.order_id", "order_id", "created_date", targetOnly::add);
+
+        assertEquals(10, sourceCount);
+        assertEquals(List.of(4L, 8L, 13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L), sourceOnly.stream().map(Long.class::cast).sorted().toList());
+        assertEquals(1, targetCount);
+        assertEquals(List.of(30L), targetOnly);
+    }
+
+    @Test
+    @DisplayName("Should match the rows of the day against the other side's rows of any day")
+    void testMissingRows_CounterpartOnOtherDay() {
+        List<Object> sourceOnly = new ArrayList<>();
+        List<Object> targetOnly = new ArrayList<>();
+
+        dynamicTableRepository.streamMissingRowKeys(DiscrepancyType.SOURCE_ONLY, "placed_orders", "shipped_orders",
+                "s.id = t.order_id", "id", "created_date", sourceOnly::add);
+        dynamicTableRepository.streamMissingRowKeys(DiscrepancyType.TARGET_ONLY, "placed_orders", "shipped_orders",
+                "s.id = t.order_id", "order_id", "created_date", targetOnly::add);
+
+        // Order 12 shipped yesterday and shipment 11 was ordered yesterday, so neither is missing
+        assertFalse(sourceOnly.contains(12L));
+        assertFalse(targetOnly.contains(11L));
+        // Order 11 and shipment 12 are not of the day
+        assertFalse(sourceOnly.contains(11L));
+        assertFalse(targetOnly.contains(12L));
+    }
+
+    @Test
+    @DisplayName("Should stop fetching and rethrow when the consumer fails")
+    void testStreamByKey_ConsumerFailure() {
+        int[] consumed = {0};
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () ->
+                dynamicTableRepository.streamCrossTableQueryByKey("src_orders", "tgt_orders",
+                        List.of("amount"), List.of("amount"), "s.id = t.source_id", "id",
+                        "created_date", ORDER_DATE, "s.amount > 50", row -> {
+                            if (++consumed[0] == 15) {
+                                throw new IllegalStateException("comparison failed");
+                            }
+                        }));
+
+        assertEquals("comparison failed", exception.getMessage());
+        assertEquals(15, consumed[0]);
+    }
+
+    @Test
+    @DisplayName("Should deliver every row and finish when the consumer is slower than the fetch")
+    void testStreamByKey_SlowConsumer() {
+        List<Object> keys = new ArrayList<>();
+
+        // The fetch fills the two-chunk queue long before the consumer drains it, so the end marker
+        // is queued while the queue is full
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () ->
+                dynamicTableRepository.streamCrossTableQueryByKey("src_orders", "tgt_orders",
+                        List.of("amount"), List.of("amount"), "s.id = t.source_id", "id",
+                        "created_date", ORDER_DATE, null, row -> {
+                            keys.add(row.get("row_key"));
+                            if (keys.size() % 10 == 1) {
+                                sleep(50);
+                            }
+                        }));
+
+        assertEquals(ROWS, keys.size());
+        assertEquals((long) ROWS, keys.get(ROWS - 1));
+    }
+
+    @Test
+    @DisplayName("Should reject a key that matches several rows of the join instead of skipping rows")
+    void testStreamByKey_DuplicateKey() {
+        // Order 40 is the last row of a chunk, so its second shipment would be paged past
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () ->
+                dynamicTableRepository.streamCrossTableQueryByKey("src_orders", "split_shipments",
+                        List.of("amount"), List.of("amount"), "s.id = t.order_id", "id",
+                        "created_date", ORDER_DATE, null, row -> { }));
+
+        assertTrue(exception.getMessage().contains("not unique"));
+    }
+
+    @Test
+    @DisplayName("Should not find rows of another day")
+    void testStreamByKey_OtherDay() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+
+        dynamicTableRepository.streamCrossTableQueryByKey("src_orders", "tgt_orders",
+                List.of("amount"), List.of("amount"), "s.id = t.source_id", "id",
+                "created_date", ORDER_DATE.plusDays(1), null, rows::add);
+
+        assertTrue(rows.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should compute several aggregates of the current day in one query")
+    void testCurrentDayAggregates() {
+        List<BigDecimal> aggregates = dynamicTableRepository.executeCurrentDayAggregates("todays_orders",
+                List.of("COUNT(*)", "SUM(amount)", "SUM(CASE WHEN id > 200 THEN amount END)"), "created_date", null);
+
+        assertEquals(0, BigDecimal.valueOf(ROWS).compareTo(aggregates.get(0)));
+        assertEquals(0, BigDecimal.valueOf(ROWS * (ROWS + 1) / 2).compareTo(aggregates.get(1)));
+        assertNull(aggregates.get(2));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
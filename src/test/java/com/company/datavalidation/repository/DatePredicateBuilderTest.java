@@ -0,0 +1,125 @@
+package com.company.datavalidation.repository;
+
+import com.company.datavalidation.repository.DatePredicateBuilder.DatePredicate;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the generated date predicates and benchmarks them against the legacy
+ * CONVERT(date, col) = ? filter on a seeded, indexed H2 table.
+ */
+@Slf4j
+@DisplayName("Date Predicate Builder Tests")
+class DatePredicateBuilderTest {
+
+    private static final int DAYS = 60;
+    private static final int ROWS_PER_DAY = 2_000;
+    private static final int ITERATIONS = 20;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    private static JdbcTemplate jdbcTemplate;
+    private static DynamicTableRepository dynamicTableRepository;
+
+    @BeforeAll
+    static void seed() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:date_predicate_benchmark;MODE=MSSQLServer;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        dynamicTableRepository = new DynamicTableRepository(jdbcTemplate);
+
+        jdbcTemplate.execute("CREATE TABLE bench_orders (id BIGINT PRIMARY KEY, created_date DATETIME2, amount DECIMAL(18,4))");
+        jdbcTemplate.execute("CREATE INDEX IX_bench_orders_created_date ON bench_orders(created_date)");
+        jdbcTemplate.update("""
+                INSERT INTO bench_orders
+                SELECT X,
+                       DATEADD(SECOND, MOD(X, 86400), DATEADD(DAY, (X - 1) / ?, CAST(? AS DATETIME2))),
+                       MOD(X, 100)
+                FROM SYSTEM_RANGE(1, ?)
+                """, ROWS_PER_DAY, FIRST_DAY, DAYS * ROWS_PER_DAY);
+    }
+
+    @Test
+    @DisplayName("Should filter on a half-open range of the bare column")
+    void testOnDate() {
+        DatePredicate predicate = new DatePredicateBuilder(SqlDialect.SQL_SERVER)
+                .onDate("created_date", LocalDate.of(2024, 3, 31));
+
+        assertEquals("created_date >= ? AND created_date < ?", predicate.sql());
+        assertEquals(List.of(LocalDate.of(2024, 3, 31), LocalDate.of(2024, 4, 1)), predicate.parameters());
+    }
+
+    @Test
+    @DisplayName("Should use the server clock of the dialect for the current day")
+    void testOnCurrentDate() {
+        assertEquals("s.created_date >= CAST(GETDATE() AS date) AND s.created_date < DATEADD(day, 1, CAST(GETDATE() AS date))",
+                new DatePredicateBuilder(SqlDialect.SQL_SERVER).onCurrentDate("s.created_date").sql());
+        assertEquals("created_date >= CURRENT_DATE AND created_date < DATEADD(day, 1, CURRENT_DATE)",
+                new DatePredicateBuilder(SqlDialect.H2).onCurrentDate("created_date").sql());
+        assertTrue(new DatePredicateBuilder(SqlDialect.H2).onCurrentDate("created_date").parameters().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should seek the date index where CONVERT(date, col) scans the table")
+    void testRangePredicateSeeksIndex() {
+        LocalDate day = FIRST_DAY.plusDays(DAYS / 2);
+        assertEquals(SqlDialect.H2, dynamicTableRepository.dialect());
+        DatePredicate predicate = new DatePredicateBuilder(SqlDialect.H2).onDate("created_date", day);
+
+        String rangeQuery = "SELECT SUM(amount) FROM bench_orders WHERE " + predicate.sql();
+        String convertQuery = "SELECT SUM(amount) FROM bench_orders WHERE CONVERT(date, created_date) = ?";
+
+        // Query plans: index seek versus full table scan
+        String rangePlan = jdbcTemplate.queryForObject("EXPLAIN " + rangeQuery, String.class, predicate.parameterArray());
+        String convertPlan = jdbcTemplate.queryForObject("EXPLAIN " + convertQuery, String.class, day);
+        assertTrue(rangePlan.contains("IX_BENCH_ORDERS_CREATED_DATE"), rangePlan);
+        assertTrue(convertPlan.contains("tableScan"), convertPlan);
+
+        // Both filters select the same rows
+        BigDecimal rangeSum = jdbcTemplate.queryForObject(rangeQuery, BigDecimal.class, predicate.parameterArray());
+        BigDecimal convertSum = jdbcTemplate.queryForObject(convertQuery, BigDecimal.class, day);
+        assertEquals(0, convertSum.compareTo(rangeSum));
+        assertEquals(0, convertSum.compareTo(dynamicTableRepository.executeAggregateQuery(
+                "bench_orders", "SUM", "amount", "created_date", day, null)));
+
+        long rangeNanos = time(() -> jdbcTemplate.queryForObject(rangeQuery, BigDecimal.class, predicate.parameterArray()));
+        long convertNanos = time(() -> jdbcTemplate.queryForObject(convertQuery, BigDecimal.class, day));
+        log.info("{} rows, {} iterations: range predicate {} us/query, CONVERT predicate {} us/query",
+                DAYS * ROWS_PER_DAY, ITERATIONS, rangeNanos / ITERATIONS / 1_000, convertNanos / ITERATIONS / 1_000);
+    }
+
+    @Test
+    @DisplayName("Should aggregate two days in one grouped range scan")
+    void testDailyAggregateQuery() {
+        LocalDate yesterday = FIRST_DAY.plusDays(9);
+
+        Map<LocalDate, List<BigDecimal>> buckets = dynamicTableRepository.executeDailyAggregateQuery(
+                "bench_orders", List.of("COUNT(*)", "SUM(amount)"), "created_date",
+                yesterday, yesterday.plusDays(2), null);
+
+        assertEquals(2, buckets.size());
+        assertEquals(0, BigDecimal.valueOf(ROWS_PER_DAY).compareTo(buckets.get(yesterday).get(0)));
+        assertEquals(0, BigDecimal.valueOf(ROWS_PER_DAY).compareTo(buckets.get(yesterday.plusDays(1)).get(0)));
+        assertEquals(0, buckets.get(yesterday).get(1).compareTo(dynamicTableRepository.executeAggregateQuery(
+                "bench_orders", "SUM", "amount", "created_date", yesterday, null)));
+    }
+
+    private long time(Runnable query) {
+        query.run(); // warm up
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.run();
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,204 @@
+package com.company.datavalidation.repository;
+
+import com.company.datavalidation.config.SourceDataSourceConfig;
+import com.company.datavalidation.config.SourceDataSourceProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the sort-merge join of tables held by two different H2 databases.
+ */
+@DisplayName("Merge Join By Key Tests")
+class MergeJoinByKeyTest {
+
+    private static final SourceDataSourceConfig CONFIG = new SourceDataSourceConfig();
+
+    private static AbstractRoutingDataSource sourceDataSource;
+    private static DynamicTableRepository dynamicTableRepository;
+
+    @BeforeAll
+    static void seed() {
+        SourceDataSourceProperties properties = new SourceDataSourceProperties();
+        properties.getDatasources().put(SourceDataSource.DEFAULT, source("merge_source"));
+        properties.getDatasources().put("replica", source("merge_replica"));
+
+        sourceDataSource = (AbstractRoutingDataSource) CONFIG.sourceDataSource(properties);
+        JdbcTemplate jdbcTemplate = CONFIG.sourceJdbcTemplate(sourceDataSource);
+        dynamicTableRepository = new DynamicTableRepository(jdbcTemplate);
+
+        // The source misses key 4; the replica misses key 7, has an extra key 11 and a drifted key 5
+        jdbcTemplate.execute("CREATE TABLE orders (id BIGINT, created_date TIMESTAMP, amount DECIMAL(18,4))");
+        jdbcTemplate.update("INSERT INTO orders SELECT X, CURRENT_TIMESTAMP, X FROM SYSTEM_RANGE(1, 10) WHERE X <> 4");
+        SourceDataSource.call("replica", () -> {
+            jdbcTemplate.execute("CREATE TABLE orders_copy (order_id INT, created_date TIMESTAMP, amount DECIMAL(18,4))");
+            jdbcTemplate.update("""
+                    INSERT INTO orders_copy
+                    SELECT X, CURRENT_TIMESTAMP, CASE WHEN X = 5 THEN 50 ELSE X END
+                    FROM SYSTEM_RANGE(1, 11) WHERE X <> 7
+                    """);
+            jdbcTemplate.execute("CREATE TABLE orders_duplicated (order_id INT, created_date TIMESTAMP, amount DECIMAL(18,4))");
+            return jdbcTemplate.update("INSERT INTO orders_duplicated VALUES (1, CURRENT_TIMESTAMP, 1), (1, CURRENT_TIMESTAMP, 1)");
+        });
+    }
+
+    @AfterAll
+    static void close() throws Exception {
+        ((AutoCloseable) sourceDataSource).close();
+    }
+
+    @Test
+    @DisplayName("Should report matched, source-only and target-only keys across datasources in key order")
+    void testMergeJoinByKey() {
+        List<String> events = new ArrayList<>();
+
+        MergeJoinSummary summary = dynamicTableRepository.mergeJoinByKey(
+                new KeyedTableScan(null, "orders", "id", List.of("amount"), "created_date", null),
+                new KeyedTableScan("replica", "orders_copy", "order_id", List.of("amount"), "created_date", null),
+                new MergeJoinHandler() {
+                    @Override
+                    public void matched(Object key, Map<String, Object> sourceRow, Map<String, Object> targetRow) {
+                        BigDecimal source = (BigDecimal) sourceRow.get("amount");
+                        BigDecimal target = (BigDecimal) targetRow.get("amount");
+                        events.add((source.compareTo(target) == 0 ? "=" : "!") + key);
+                    }
+
+                    @Override
+                    public void sourceOnly(Object key, Map<String, Object> sourceRow) {
+                        events.add("s" + key);
+                    }
+
+                    @Override
+                    public void targetOnly(Object key, Map<String, Object> targetRow) {
+                        events.add("t" + key);
+                    }
+                });
+
+        assertEquals(List.of("=1", "=2", "=3", "t4", "!5", "=6", "s7", "=8", "=9", "=10", "t11"), events);
+        assertEquals(new MergeJoinSummary(8, 1, 2), summary);
+        assertFalse(summary.isComplete());
+    }
+
+    @Test
+    @DisplayName("Should read only keys and fingerprints, which differ only for drifted rows")
+    void testMergeJoinFingerprintsByKey() {
+        List<Object> differing = new ArrayList<>();
+        KeyedTableScan source = new KeyedTableScan(null, "orders", "id", List.of("amount"), "created_date", null);
+        KeyedTableScan target = new KeyedTableScan("replica", "orders_copy", "order_id", List.of("amount"),
+                "created_date", null);
+
+        MergeJoinSummary summary = dynamicTableRepository.mergeJoinFingerprintsByKey(source, target,
+                new MergeJoinHandler() {
+                    @Override
+                    public void matched(Object key, Map<String, Object> sourceRow, Map<String, Object> targetRow) {
+                        assertEquals(Set.of("row_key", "row_fingerprint"), sourceRow.keySet());
+                        if (!sourceRow.get("row_fingerprint").equals(targetRow.get("row_fingerprint"))) {
+                            differing.add(key);
+                        }
+                    }
+
+                    @Override
+                    public void sourceOnly(Object key, Map<String, Object> sourceRow) {
+                    }
+
+                    @Override
+                    public void targetOnly(Object key, Map<String, Object> targetRow) {
+                    }
+                });
+
+        assertEquals(List.of(5L), differing);
+        assertEquals(new MergeJoinSummary(8, 1, 2), summary);
+
+        List<Map<String, Object>> rows = dynamicTableRepository.findRowsByKeys(target, List.of(5, 11, 7));
+        assertEquals(2, rows.size());
+        assertEquals(Set.of(5, 11), Set.of(rows.get(0).get("row_key"), rows.get(1).get("row_key")));
+    }
+
+    @Test
+    @DisplayName("Should render a null-safe, length-prefixed 64-bit SQL Server fingerprint")
+    void testRowFingerprint_SqlServer() {
+        assertEquals("CAST(SUBSTRING(HASHBYTES('SHA2_256', CONCAT("
+                        + "CASE WHEN CAST(a AS NVARCHAR(MAX)) IS NULL THEN 'N' ELSE CONCAT("
+                        + "DATALENGTH(CAST(a AS NVARCHAR(MAX))), ':', CAST(a AS NVARCHAR(MAX))) END, "
+                        + "CASE WHEN CONVERT(NVARCHAR(MAX), b, 3) IS NULL THEN 'N' ELSE CONCAT("
+                        + "DATALENGTH(CONVERT(NVARCHAR(MAX), b, 3)), ':', CONVERT(NVARCHAR(MAX), b, 3)) END"
+                        + ")), 1, 8) AS BIGINT)",
+                SqlDialect.SQL_SERVER.rowFingerprint(List.of("a", "b"), List.of(Types.VARCHAR, Types.FLOAT)));
+    }
+
+    @Test
+    @DisplayName("Should fingerprint rows differently when values move across columns or mimic the null marker")
+    void testRowFingerprint_Unambiguous() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(sourceDataSource);
+        String fingerprint = SqlDialect.H2.rowFingerprint(List.of("a", "b"), List.of(Types.VARCHAR, Types.VARCHAR));
+        List<Long> fingerprints = jdbcTemplate.queryForList("""
+                SELECT %s FROM (VALUES ('x|', 'y'), ('x', '|y'), (NULL, 'y'), ('N', 'y'), ('', 'y')) AS v(a, b)
+                """.formatted(fingerprint), Long.class);
+
+        assertEquals(5, Set.copyOf(fingerprints).size());
+    }
+
+    @Test
+    @DisplayName("Should fingerprint floating-point values with every significant digit")
+    void testRowFingerprint_Float() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(sourceDataSource);
+        String fingerprint = SqlDialect.H2.rowFingerprint(List.of("a"), List.of(Types.DOUBLE));
+        List<Long> fingerprints = jdbcTemplate.queryForList("""
+                SELECT %s FROM (VALUES (CAST(1234567.1 AS DOUBLE)), (CAST(1234567.2 AS DOUBLE))) AS v(a)
+                """.formatted(fingerprint), Long.class);
+
+        assertNotEquals(fingerprints.get(0), fingerprints.get(1));
+    }
+
+    @Test
+    @DisplayName("Should fail rather than misreport rows when a side has duplicate keys")
+    void testMergeJoinByKey_DuplicateKeys() {
+        MergeJoinHandler ignore = new MergeJoinHandler() {
+            @Override
+            public void matched(Object key, Map<String, Object> sourceRow, Map<String, Object> targetRow) {
+            }
+
+            @Override
+            public void sourceOnly(Object key, Map<String, Object> sourceRow) {
+            }
+
+            @Override
+            public void targetOnly(Object key, Map<String, Object> targetRow) {
+            }
+        };
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () ->
+                dynamicTableRepository.mergeJoinByKey(
+                        new KeyedTableScan(null, "orders", "id", List.of("amount"), "created_date", null),
+                        new KeyedTableScan("replica", "orders_duplicated", "order_id", List.of("amount"),
+                                "created_date", null),
+                        ignore));
+
+        assertTrue(exception.getMessage().startsWith("Keys of orders_duplicated are not unique"));
+        // Both cursors returned their connections to the pools
+        sourceDataSource.getResolvedDataSources().values().forEach(dataSource ->
+                assertEquals(0, ((HikariDataSource) dataSource).getHikariPoolMXBean().getActiveConnections()));
+    }
+
+    private static SourceDataSourceProperties.Source source(String database) {
+        SourceDataSourceProperties.Source source = new SourceDataSourceProperties.Source();
+        source.setUrl("jdbc:h2:mem:" + database + ";DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1");
+        source.setUsername("sa");
+        source.setPassword("");
+        source.setMaximumPoolSize(2);
+        return source;
+    }
+}
@@ -0,0 +1,144 @@
+package com.company.datavalidation.repository;
+
+import com.company.datavalidation.model.PartitionStrategy;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that partitioned scans cover every row exactly once on a seeded H2 table.
+ */
+@DisplayName("Partition Predicate Tests")
+class PartitionPredicateTest {
+
+    private static final int ROWS_PER_DAY = 5_000;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    private static DynamicTableRepository dynamicTableRepository;
+
+    @BeforeAll
+    static void seed() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:partition_predicate;MODE=MSSQLServer;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        dynamicTableRepository = new DynamicTableRepository(jdbcTemplate);
+
+        jdbcTemplate.execute("CREATE TABLE part_orders (id BIGINT PRIMARY KEY, created_date DATETIME2, amount DECIMAL(18,4))");
+        jdbcTemplate.update("""
+                INSERT INTO part_orders
+                SELECT X - 100, DATEADD(SECOND, MOD(X, 86400), DATEADD(DAY, (X - 1) / ?, CAST(? AS DATETIME2))), MOD(X, 97)
+                FROM SYSTEM_RANGE(1, ?)
+                """, ROWS_PER_DAY, FIRST_DAY, 2 * ROWS_PER_DAY);
+    }
+
+    @Test
+    @DisplayName("Should split a key range into open-ended contiguous partitions")
+    void testRange() {
+        List<PartitionPredicate> partitions = PartitionPredicate.range("id", 1, 10, 3);
+
+        assertEquals(3, partitions.size());
+        assertEquals(new PartitionPredicate("id <= ?", List.of(4L)), partitions.get(0));
+        assertEquals(new PartitionPredicate("id >= ? AND id <= ?", List.of(5L, 8L)), partitions.get(1));
+        assertEquals(new PartitionPredicate("id >= ?", List.of(9L)), partitions.get(2));
+        assertEquals(List.of(PartitionPredicate.WHOLE_TABLE), PartitionPredicate.range("id", 7, 7, 4));
+        assertEquals(4, PartitionPredicate.range("id", Long.MIN_VALUE, Long.MAX_VALUE, 4).size());
+    }
+
+    @Test
+    @DisplayName("Should merge hash partitions into the whole-table aggregates")
+    void testHashPartitions() {
+        assertPartitionsCoverTable(PartitionStrategy.HASH);
+    }
+
+    @Test
+    @DisplayName("Should merge range partitions into the whole-table aggregates")
+    void testRangePartitions() {
+        assertPartitionsCoverTable(PartitionStrategy.RANGE);
+    }
+
+    @Test
+    @DisplayName("Should count each row of a day once across successive watermark scans")
+    void testWatermarkRanges() {
+        LocalDate toDate = FIRST_DAY.plusDays(1);
+        Long watermark = dynamicTableRepository.findMaxWatermark("part_orders", "id", "created_date", FIRST_DAY, toDate, null);
+        assertEquals(ROWS_PER_DAY - 100L, watermark);
+
+        // A first scan up to an earlier watermark and a second one past it, each split by hash
+        List<PartitionPredicate> scans = List.of(
+                PartitionPredicate.watermarkRange("id", null, 2_000L),
+                PartitionPredicate.watermarkRange("id", 2_000L, watermark));
+        List<PartitionPredicate> partitions = scans.stream()
+                .flatMap(scan -> PartitionPredicate.hash("id", 3).stream().map(partition -> partition.and(scan)))
+                .toList();
+        BigDecimal counted = dynamicTableRepository.scanPartitions(partitions,
+                        partition -> dynamicTableRepository.executeDailyAggregateQuery(
+                                "part_orders", List.of("COUNT(*)"), "created_date", FIRST_DAY, toDate, partition, null))
+                .stream()
+                .map(partial -> partial.get(FIRST_DAY).get(0))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        assertEquals(0, BigDecimal.valueOf(ROWS_PER_DAY).compareTo(counted));
+        assertNull(dynamicTableRepository.findMaxWatermark("part_orders", "id", "created_date",
+                FIRST_DAY.minusDays(1), FIRST_DAY, null));
+    }
+
+    @Test
+    @DisplayName("Should sample keys by modulo")
+    void testSampledAggregates() {
+        Map<LocalDate, List<BigDecimal>> sampled = dynamicTableRepository.executeSampledDailyAggregateQuery(
+                "part_orders", List.of("COUNT(*)"), "created_date", FIRST_DAY, FIRST_DAY.plusDays(2),
+                new TableSample(new BigDecimal("10"), "id"), null);
+
+        // Contiguous keys sample exactly one in ten rows of each day
+        assertEquals(0, BigDecimal.valueOf(ROWS_PER_DAY / 10).compareTo(sampled.get(FIRST_DAY).get(0)));
+        assertEquals(0, BigDecimal.valueOf(ROWS_PER_DAY / 10).compareTo(sampled.get(FIRST_DAY.plusDays(1)).get(0)));
+    }
+
+    @Test
+    @DisplayName("Should report the fraction of keys actually sampled and reject percentages sampling none")
+    void testSampleFraction() {
+        // 2.54% keeps remainders 0 to 24, so estimates are scaled by 2.5%
+        TableSample sample = new TableSample(new BigDecimal("2.54"), "id");
+
+        assertEquals(0.025, sample.fraction());
+        assertEquals(List.of(25), sample.keyPredicate().parameters());
+        assertEquals(0.001, new TableSample(new BigDecimal("0.05"), "id").fraction());
+        assertThrows(IllegalArgumentException.class, () -> new TableSample(new BigDecimal("0.04"), "id"));
+    }
+
+    private void assertPartitionsCoverTable(PartitionStrategy strategy) {
+        LocalDate toDate = FIRST_DAY.plusDays(2);
+        List<String> aggregates = List.of("COUNT(*)", "SUM(amount)");
+        List<PartitionPredicate> partitions = dynamicTableRepository.partitionScan(
+                "part_orders", "id", strategy, 4, "created_date", FIRST_DAY, toDate, null);
+
+        List<Map<LocalDate, List<BigDecimal>>> partials = dynamicTableRepository.scanPartitions(partitions,
+                partition -> dynamicTableRepository.executeDailyAggregateQuery(
+                        "part_orders", aggregates, "created_date", FIRST_DAY, toDate, partition, null));
+        Map<LocalDate, List<BigDecimal>> whole = dynamicTableRepository.executeDailyAggregateQuery(
+                "part_orders", aggregates, "created_date", FIRST_DAY, toDate, null);
+
+        assertEquals(4, partitions.size());
+        for (LocalDate date : List.of(FIRST_DAY, FIRST_DAY.plusDays(1))) {
+            for (int i = 0; i < aggregates.size(); i++) {
+                int position = i;
+                BigDecimal merged = partials.stream()
+                        .map(partial -> partial.get(date))
+                        .filter(Objects::nonNull)
+                        .map(values -> values.get(position))
+                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+                assertEquals(0, whole.get(date).get(i).compareTo(merged));
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.company.datavalidation.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Scaled Decimal Tests")
+class ScaledDecimalTest {
+
+    @Test
+    @DisplayName("Should scale values that fit DECIMAL(18,4) and reject the others")
+    void testOf_ScalesFittingValues() {
+        assertEquals(125_000L, ScaledDecimal.of(new BigDecimal("12.5")));
+        assertEquals(-70_000L, ScaledDecimal.of(-7));
+        assertEquals(10_000_000L, ScaledDecimal.of(new BigDecimal("1E+3")));
+        assertEquals(ScaledDecimal.NOT_SCALED, ScaledDecimal.of(new BigDecimal("1.23456")));
+        assertEquals(ScaledDecimal.NOT_SCALED, ScaledDecimal.of(new BigDecimal("123456789012345.5")));
+        assertEquals(ScaledDecimal.NOT_SCALED, ScaledDecimal.of(Long.MAX_VALUE));
+        assertEquals(ScaledDecimal.NOT_SCALED, ScaledDecimal.of(Long.MIN_VALUE));
+        assertEquals(ScaledDecimal.NOT_SCALED, ScaledDecimal.of(100_000_000_000_000L));
+        assertEquals(ScaledDecimal.NOT_SCALED, ScaledDecimal.of(-100_000_000_000_000L));
+        assertEquals(new BigDecimal("12.50"), ScaledDecimal.toDecimal(125_000L, 2));
+    }
+
+    @Test
+    @DisplayName("Should scale doubles exactly as their shortest decimal form scales")
+    void testOf_DoubleMatchesBigDecimal() {
+        assertEquals(1_000L, ScaledDecimal.of(0.1));
+        assertEquals(-1L, ScaledDecimal.of(-0.0001));
+        assertEquals(999_999_999_999_990_000L, ScaledDecimal.of(99_999_999_999_999.0));
+        assertEquals(ScaledDecimal.NOT_SCALED, ScaledDecimal.of(0.00005));
+        assertEquals(ScaledDecimal.NOT_SCALED, ScaledDecimal.of(1e14));
+        assertEquals(ScaledDecimal.NOT_SCALED, ScaledDecimal.of(Double.NaN));
+        assertEquals(ScaledDecimal.NOT_SCALED, ScaledDecimal.of(Double.NEGATIVE_INFINITY));
+
+        SplittableRandom random = new SplittableRandom(17);
+        for (int i = 0; i < 100_000; i++) {
+            // Values of up to six decimal places across the scaled range, and arbitrary doubles
+            int places = random.nextInt(7);
+            double value = switch (random.nextInt(3)) {
+                case 0 -> random.nextLong(-1_000_000_000_000L, 1_000_000_000_000L) / Math.pow(10, places);
+                case 1 -> random.nextLong(-1_000_000_000L, 1_000_000_000L) / Math.pow(10, places);
+                default -> Double.longBitsToDouble(random.nextLong());
+            };
+            if (!Double.isFinite(value)) {
+                continue;
+            }
+            long expected = ScaledDecimal.of(BigDecimal.valueOf(value));
+            long scaled = ScaledDecimal.of(value);
+            if (scaled != ScaledDecimal.NOT_SCALED || Math.abs(value) < 0x1p39 || value == Math.rint(value)) {
+                assertEquals(expected, scaled, () -> "Scaling " + value);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should compute percentages exactly as BigDecimal division rounds them")
+    void testPercentage_MatchesBigDecimal() {
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 100_000; i++) {
+            long difference = random.nextLong(-2_000_000_000L, 2_000_000_000L);
+            long expected = random.nextBoolean()
+                    ? random.nextLong(-2_000_000_000L, 2_000_000_000L)
+                    : random.nextLong(-100, 100);
+            if (expected == 0) {
+                continue;
+            }
+
+            BigDecimal exact = BigDecimal.valueOf(difference, ScaledDecimal.SCALE)
+                    .divide(BigDecimal.valueOf(expected, ScaledDecimal.SCALE).abs(), 6, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100));
+            assertEquals(exact, BigDecimal.valueOf(ScaledDecimal.percentage(difference, expected),
+                    ScaledDecimal.PERCENTAGE_SCALE), difference + " / " + expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Should report percentages too large for a long")
+    void testPercentage_Overflow() {
+        assertEquals(ScaledDecimal.NOT_SCALED, ScaledDecimal.percentage(Long.MAX_VALUE / 10, 1));
+        assertEquals(ScaledDecimal.NOT_SCALED, ScaledDecimal.percentage(1_000_000_000_000L, 1));
+    }
+}
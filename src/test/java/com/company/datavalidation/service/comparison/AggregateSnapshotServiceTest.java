@@ -0,0 +1,100 @@
+package com.company.datavalidation.service.comparison;
+
+import com.company.datavalidation.model.ColumnComparisonConfig;
+import com.company.datavalidation.model.DailyAggregateSnapshot;
+import com.company.datavalidation.repository.DailyAggregateSnapshotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Aggregate Snapshot Service Tests")
+class AggregateSnapshotServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 31);
+    // Reads five past midnight after DAY in a zone far from UTC, where the system clock may still be on DAY
+    private static final Clock CLOCK = Clock.fixed(
+            DAY.plusDays(1).atTime(0, 5).toInstant(ZoneOffset.ofHours(14)), ZoneOffset.ofHours(14));
+    private static final String DEFINITION = "orders | created_date | SUM(amount) | ";
+
+    @Mock
+    private DailyAggregateSnapshotRepository dailyAggregateSnapshotRepository;
+
+    private AggregateSnapshotService aggregateSnapshotService;
+
+    private ColumnComparisonConfig columnConfig;
+
+    @BeforeEach
+    void setup() {
+        aggregateSnapshotService = new AggregateSnapshotService(dailyAggregateSnapshotRepository, CLOCK);
+        columnConfig = ColumnComparisonConfig.builder().id(7L).columnName("amount").build();
+    }
+
+    @Test
+    @DisplayName("Should reuse a snapshot captured after its day ended")
+    void testFindFinalValues() {
+        mockSnapshot(DAY.plusDays(1).atTime(0, 5), DEFINITION);
+
+        Optional<BigDecimal[]> values = aggregateSnapshotService.findFinalValues(List.of(columnConfig), List.of(DEFINITION), DAY);
+
+        assertTrue(values.isPresent());
+        assertEquals(0, new BigDecimal("42.5").compareTo(values.get()[0]));
+    }
+
+    @Test
+    @DisplayName("Should ignore snapshots captured during the day or with another definition")
+    void testFindFinalValues_NotReusable() {
+        mockSnapshot(DAY.atTime(23, 55), DEFINITION);
+        assertTrue(aggregateSnapshotService.findFinalValues(List.of(columnConfig), List.of(DEFINITION), DAY).isEmpty());
+
+        mockSnapshot(DAY.plusDays(1).atTime(0, 5), "orders | created_date | SUM(amount) | status <> 'CANCELED'");
+        assertTrue(aggregateSnapshotService.findFinalValues(List.of(columnConfig), List.of(DEFINITION), DAY).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should replace the existing snapshot of a day")
+    void testSaveValues() {
+        DailyAggregateSnapshot existing = mockSnapshot(DAY.atTime(12, 0), DEFINITION);
+
+        aggregateSnapshotService.saveValues(List.of(columnConfig), List.of(DEFINITION), DAY, new BigDecimal[]{BigDecimal.TEN});
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<DailyAggregateSnapshot>> saved = ArgumentCaptor.forClass(List.class);
+        verify(dailyAggregateSnapshotRepository).saveAll(saved.capture());
+        assertSame(existing, saved.getValue().get(0));
+        assertEquals(BigDecimal.TEN, existing.getAggregateValue());
+        assertEquals(DAY.plusDays(1).atTime(0, 5), existing.getCapturedAt());
+        assertTrue(existing.isFinal(), "Captured after DAY ended on the shared clock");
+    }
+
+    private DailyAggregateSnapshot mockSnapshot(LocalDateTime capturedAt, String definition) {
+        DailyAggregateSnapshot snapshot = DailyAggregateSnapshot.builder()
+                .id(1L)
+                .columnComparisonConfig(columnConfig)
+                .snapshotDate(DAY)
+                .aggregateDefinition(definition)
+                .aggregateValue(new BigDecimal("42.5"))
+                .capturedAt(capturedAt)
+                .build();
+        when(dailyAggregateSnapshotRepository.findByColumnComparisonConfigIdInAndSnapshotDate(eq(List.of(7L)), eq(DAY)))
+                .thenReturn(List.of(snapshot));
+        return snapshot;
+    }
+}
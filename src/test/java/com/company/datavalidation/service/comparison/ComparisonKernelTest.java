@@ -0,0 +1,85 @@
+package com.company.datavalidation.service.comparison;
+
+import com.company.datavalidation.model.ComparisonType;
+import com.company.datavalidation.repository.ScaledDecimal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Comparison Kernel Tests")
+class ComparisonKernelTest {
+
+    // 110.0000, 90.0000, 0.0000, 5.0000, 0.0001
+    private static final long[] ACTUAL = {1_100_000L, 900_000L, 0L, 50_000L, 1L};
+    // 100.0000, 100.0000, 0.0000, 0.0000, 3.0000
+    private static final long[] EXPECTED = {1_000_000L, 1_000_000L, 0L, 0L, 30_000L};
+
+    @Test
+    @DisplayName("Should compute differences and percentages of a column")
+    void testCompare_DifferencesAndPercentages() {
+        long[] difference = new long[5];
+        long[] percentage = new long[5];
+        boolean[] exceeded = new boolean[5];
+
+        ComparisonKernel.compare(ACTUAL, EXPECTED, 5, ComparisonType.PERCENTAGE,
+                ComparisonKernel.scaledThreshold(ComparisonType.PERCENTAGE, new BigDecimal("10")),
+                difference, percentage, exceeded);
+
+        assertArrayEquals(new long[]{100_000L, -100_000L, 0L, 50_000L, -29_999L}, difference);
+        // 10%, -10%, 0%, 100% for a zero expected value, -99.996700% as the ratio is rounded before scaling
+        assertArrayEquals(new long[]{10_000_000L, -10_000_000L, 0L, 100_000_000L, -99_996_700L}, percentage);
+        assertArrayEquals(new boolean[]{false, false, false, true, true}, exceeded);
+    }
+
+    @Test
+    @DisplayName("Should compare absolute and exact differences against the threshold")
+    void testCompare_AbsoluteAndExact() {
+        long[] difference = new long[5];
+        long[] percentage = new long[5];
+        boolean[] exceeded = new boolean[5];
+
+        ComparisonKernel.compare(ACTUAL, EXPECTED, 5, ComparisonType.ABSOLUTE,
+                ComparisonKernel.scaledThreshold(ComparisonType.ABSOLUTE, new BigDecimal("9.99995")),
+                difference, percentage, exceeded);
+        assertArrayEquals(new boolean[]{true, true, false, false, false}, exceeded);
+
+        ComparisonKernel.compare(ACTUAL, EXPECTED, 5, ComparisonType.EXACT,
+                ComparisonKernel.scaledThreshold(ComparisonType.EXACT, BigDecimal.ONE),
+                difference, percentage, exceeded);
+        assertArrayEquals(new boolean[]{true, true, false, true, true}, exceeded);
+    }
+
+    @Test
+    @DisplayName("Should subtract the largest scaled integers of opposite signs without overflow")
+    void testCompare_LargestIntegers() {
+        long largest = 99_999_999_999_999L;
+        long[] actual = {ScaledDecimal.of(largest), ScaledDecimal.of(-largest)};
+        long[] expected = {ScaledDecimal.of(-largest), ScaledDecimal.of(largest)};
+        long[] difference = new long[2];
+        long[] percentage = new long[2];
+        boolean[] exceeded = new boolean[2];
+
+        ComparisonKernel.compare(actual, expected, 2, ComparisonType.ABSOLUTE,
+                ComparisonKernel.scaledThreshold(ComparisonType.ABSOLUTE, BigDecimal.ONE),
+                difference, percentage, exceeded);
+
+        BigDecimal span = BigDecimal.valueOf(largest).multiply(BigDecimal.valueOf(2));
+        assertEquals(0, span.compareTo(ScaledDecimal.toDecimal(difference[0])));
+        assertEquals(0, span.negate().compareTo(ScaledDecimal.toDecimal(difference[1])));
+        assertArrayEquals(new boolean[]{true, true}, exceeded);
+        // One more integer digit is left to BigDecimal
+        assertEquals(ScaledDecimal.NOT_SCALED, ScaledDecimal.of(largest + 1));
+    }
+
+    @Test
+    @DisplayName("Should round thresholds down and clamp them to the range of long")
+    void testThresholdAtScale() {
+        assertEquals(99_999L, ComparisonKernel.thresholdAtScale(new BigDecimal("9.99995"), 4));
+        assertEquals(-1L, ComparisonKernel.thresholdAtScale(new BigDecimal("-0.00001"), 4));
+        assertEquals(Long.MAX_VALUE, ComparisonKernel.thresholdAtScale(new BigDecimal("1E+30"), 4));
+        assertEquals(-Long.MAX_VALUE, ComparisonKernel.thresholdAtScale(new BigDecimal("-1E+30"), 4));
+    }
+}
@@ -0,0 +1,82 @@
+package com.company.datavalidation.service.comparison;
+
+import com.company.datavalidation.model.ColumnComparisonConfig;
+import com.company.datavalidation.model.ComparisonType;
+import com.company.datavalidation.model.HandlingStrategy;
+import com.company.datavalidation.model.ThresholdConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Comparison Plan Tests")
+class ComparisonPlanTest {
+
+    private static ColumnComparisonConfig column(long id, String columnName, String targetColumnName,
+                                                 ComparisonType comparisonType) {
+        return ColumnComparisonConfig.builder()
+                .id(id)
+                .columnName(columnName)
+                .targetColumnName(targetColumnName)
+                .comparisonType(comparisonType)
+                .nullHandlingStrategy(HandlingStrategy.TREAT_AS_ZERO)
+                .build();
+    }
+
+    private static ThresholdConfig threshold(String value) {
+        return ThresholdConfig.builder().thresholdValue(new BigDecimal(value)).build();
+    }
+
+    @Test
+    @DisplayName("Should compile the columns that have a threshold into plan order")
+    void testCompile_SkipsColumnsWithoutThreshold() {
+        var amount = column(1L, "amount", null, ComparisonType.PERCENTAGE);
+        var count = column(2L, "count", "total_count", ComparisonType.ABSOLUTE);
+        var unchecked = column(3L, "unchecked", null, ComparisonType.EXACT);
+        var columnConfigs = List.of(unchecked, amount, count);
+
+        ComparisonPlan plan = ComparisonPlan.compile(columnConfigs,
+                Map.of(1L, threshold("5.5"), 2L, threshold("3"))).bind(columnConfigs);
+
+        assertEquals(2, plan.size());
+        assertEquals(1, plan.index(0));
+        assertSame(amount, plan.columnConfig(0));
+        assertEquals(ComparisonType.ABSOLUTE, plan.comparisonType(1));
+        assertArrayEquals(new String[]{"s_amount", "s_count"}, plan.sourceColumns("s_"));
+        assertArrayEquals(new String[]{"amount", "total_count"}, plan.targetColumns(""));
+        assertEquals(5_500_000L, plan.scaledThreshold(0));
+        assertEquals(30_000L, plan.scaledThreshold(1));
+    }
+
+    @Test
+    @DisplayName("Should reuse a cached plan until the configuration changes")
+    void testPlanCache_RecompilesOnChangedSignature() {
+        var amount = column(1L, "amount", null, ComparisonType.PERCENTAGE);
+        var cache = new PlanCache<ComparisonPlan>();
+        var compilations = new AtomicInteger();
+        Map<Long, ThresholdConfig> thresholds = Map.of(1L, threshold("5"));
+
+        ComparisonPlan first = cache.get(7L, ComparisonPlan.signature(List.of(amount), thresholds), () -> {
+            compilations.incrementAndGet();
+            return ComparisonPlan.compile(List.of(amount), thresholds);
+        });
+        ComparisonPlan second = cache.get(7L, ComparisonPlan.signature(List.of(amount), thresholds), () -> {
+            compilations.incrementAndGet();
+            return ComparisonPlan.compile(List.of(amount), thresholds);
+        });
+        assertSame(first, second);
+
+        Map<Long, ThresholdConfig> changed = Map.of(1L, threshold("10"));
+        ComparisonPlan third = cache.get(7L, ComparisonPlan.signature(List.of(amount), changed), () -> {
+            compilations.incrementAndGet();
+            return ComparisonPlan.compile(List.of(amount), changed);
+        });
+        assertEquals(10_000_000L, third.scaledThreshold(0));
+        assertEquals(2, compilations.get());
+    }
+}
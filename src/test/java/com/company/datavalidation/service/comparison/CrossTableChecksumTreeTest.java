@@ -0,0 +1,269 @@
+package com.company.datavalidation.service.comparison;
+
+import com.company.datavalidation.config.SourceDataSourceConfig;
+import com.company.datavalidation.config.SourceDataSourceProperties;
+import com.company.datavalidation.model.*;
+import com.company.datavalidation.repository.DynamicTableRepository;
+import com.company.datavalidation.repository.SourceDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Checks that checksum-tree reconciliation finds the few differing rows of two H2 databases
+ * while merging only the key ranges around them.
+ */
+@DisplayName("Cross Table Checksum Tree Tests")
+class CrossTableChecksumTreeTest {
+
+    private static final SourceDataSourceConfig CONFIG = new SourceDataSourceConfig();
+
+    private static DataSource sourceDataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void seed() {
+        SourceDataSourceProperties properties = new SourceDataSourceProperties();
+        properties.getDatasources().put(SourceDataSource.DEFAULT, source("checksum_source"));
+        properties.getDatasources().put("replica", source("checksum_replica"));
+        sourceDataSource = CONFIG.sourceDataSource(properties);
+        jdbcTemplate = CONFIG.sourceJdbcTemplate(sourceDataSource);
+
+        // The replica drifts on keys 150 and 1733, misses key 999 and has an extra key 2001
+        jdbcTemplate.execute("CREATE TABLE orders (id BIGINT, created_date TIMESTAMP, amount DECIMAL(18,4))");
+        jdbcTemplate.update("INSERT INTO orders SELECT X, CURRENT_TIMESTAMP, X FROM SYSTEM_RANGE(1, 2000)");
+        SourceDataSource.call("replica", () -> {
+            jdbcTemplate.execute("CREATE TABLE orders (id BIGINT, created_date TIMESTAMP, amount DECIMAL(18,4))");
+            return jdbcTemplate.update("""
+                    INSERT INTO orders
+                    SELECT X, CURRENT_TIMESTAMP, CASE WHEN X IN (150, 1733) THEN X * 2 ELSE X END
+                    FROM SYSTEM_RANGE(1, 2001) WHERE X <> 999
+                    """);
+        });
+
+        // The replica swaps the amounts of payments 10 and 11, which share a bucket
+        jdbcTemplate.execute("CREATE TABLE payments (id BIGINT, created_date TIMESTAMP, amount DECIMAL(18,4))");
+        jdbcTemplate.update("INSERT INTO payments SELECT X, CURRENT_TIMESTAMP, X FROM SYSTEM_RANGE(1, 100)");
+        SourceDataSource.call("replica", () -> {
+            jdbcTemplate.execute("CREATE TABLE payments (id BIGINT, created_date TIMESTAMP, amount DECIMAL(18,4))");
+            return jdbcTemplate.update("""
+                    INSERT INTO payments
+                    SELECT X, CURRENT_TIMESTAMP, CASE X WHEN 10 THEN 11 WHEN 11 THEN 10 ELSE X END
+                    FROM SYSTEM_RANGE(1, 100)
+                    """);
+        });
+
+        // Invoices are keyed by a decimal, and the replica drifts on invoice 37
+        jdbcTemplate.execute("CREATE TABLE invoices (id DECIMAL(18,0), created_date TIMESTAMP, amount DECIMAL(18,4))");
+        jdbcTemplate.update("INSERT INTO invoices SELECT X, CURRENT_TIMESTAMP, X FROM SYSTEM_RANGE(1, 100)");
+        SourceDataSource.call("replica", () -> {
+            jdbcTemplate.execute("CREATE TABLE invoices (id DECIMAL(18,0), created_date TIMESTAMP, amount DECIMAL(18,4))");
+            return jdbcTemplate.update("""
+                    INSERT INTO invoices
+                    SELECT X, CURRENT_TIMESTAMP, CASE WHEN X = 37 THEN 74 ELSE X END
+                    FROM SYSTEM_RANGE(1, 100)
+                    """);
+        });
+
+        // Transfer keys span more than a long, and the replica drifts on transfer 7 * 10^17
+        jdbcTemplate.execute("CREATE TABLE transfers (id BIGINT, created_date TIMESTAMP, amount DECIMAL(18,4))");
+        jdbcTemplate.update("""
+                INSERT INTO transfers
+                SELECT X * 100000000000000000, CURRENT_TIMESTAMP, X FROM SYSTEM_RANGE(-90, 90)
+                """);
+        SourceDataSource.call("replica", () -> {
+            jdbcTemplate.execute("CREATE TABLE transfers (id BIGINT, created_date TIMESTAMP, amount DECIMAL(18,4))");
+            return jdbcTemplate.update("""
+                    INSERT INTO transfers
+                    SELECT X * 100000000000000000, CURRENT_TIMESTAMP, CASE WHEN X = 7 THEN 14 ELSE X END
+                    FROM SYSTEM_RANGE(-90, 90)
+                    """);
+        });
+
+        // Customers are keyed by code, and the replica drifts on customer C0042
+        jdbcTemplate.execute("CREATE TABLE customers (code VARCHAR(10), created_date TIMESTAMP, amount DECIMAL(18,4))");
+        jdbcTemplate.update("""
+                INSERT INTO customers
+                SELECT CONCAT('C', LPAD(X, 4, '0')), CURRENT_TIMESTAMP, X FROM SYSTEM_RANGE(1, 100)
+                """);
+        SourceDataSource.call("replica", () -> {
+            jdbcTemplate.execute("CREATE TABLE customers (code VARCHAR(10), created_date TIMESTAMP, amount DECIMAL(18,4))");
+            return jdbcTemplate.update("""
+                    INSERT INTO customers
+                    SELECT CONCAT('C', LPAD(X, 4, '0')), CURRENT_TIMESTAMP, CASE WHEN X = 42 THEN 84 ELSE X END
+                    FROM SYSTEM_RANGE(1, 100)
+                    """);
+        });
+    }
+
+    @AfterAll
+    static void close() throws Exception {
+        ((AutoCloseable) sourceDataSource).close();
+    }
+
+    @Test
+    @DisplayName("Should report only the differing keys, merging only the buckets that disagree")
+    void testCompareByChecksumTree() {
+        DynamicTableRepository dynamicTableRepository = spy(new DynamicTableRepository(jdbcTemplate));
+        CrossTableComparator crossTableComparator = new CrossTableComparator(dynamicTableRepository);
+        ReflectionTestUtils.setField(crossTableComparator, "checksumLeafRows", 20L);
+
+        CrossTableConfig config = CrossTableConfig.builder()
+                .id(1L)
+                .sourceComparisonConfig(ComparisonConfig.builder().id(1L).tableName("orders").build())
+                .targetTableName("orders")
+                .targetDatasourceName("replica")
+                .joinCondition("s.id = t.id")
+                .keyColumn("id")
+                .checksumFanout(4)
+                .build();
+        ColumnComparisonConfig column = ColumnComparisonConfig.builder()
+                .id(1L)
+                .crossTableConfig(config)
+                .columnName("amount")
+                .comparisonType(ComparisonType.PERCENTAGE)
+                .nullHandlingStrategy(HandlingStrategy.TREAT_AS_ZERO)
+                .build();
+        ThresholdConfig threshold = ThresholdConfig.builder()
+                .id(1L)
+                .columnComparisonConfig(column)
+                .thresholdValue(new BigDecimal("5.00"))
+                .severity(Severity.HIGH)
+                .build();
+
+        var results = crossTableComparator.compare(config, List.of(column), Map.of(1L, threshold));
+
+        assertEquals(Arrays.asList("150", "1733", null, "999", null, "2001"),
+                results.stream().map(ValidationDetailResult::getRowKey).toList());
+        assertTrue(results.stream().allMatch(ValidationDetailResult::isThresholdExceeded));
+        assertEquals(DiscrepancyType.SOURCE_ONLY, results.get(3).getDiscrepancyType(),
+                "Key 999 is missing from the replica");
+        assertEquals(0, BigDecimal.ONE.compareTo(results.get(2).getActualValue()), "One row is missing");
+        assertEquals(DiscrepancyType.TARGET_ONLY, results.get(5).getDiscrepancyType(),
+                "Key 2001 is missing from the source");
+        // Each differing key is localised to one small range instead of merging all 2001 keys
+        verify(dynamicTableRepository, atMost(4)).mergeJoinFingerprintsByKey(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should find two rows of a bucket that swapped their values")
+    void testCompareByChecksumTree_SwappedRows() {
+        DynamicTableRepository dynamicTableRepository = new DynamicTableRepository(jdbcTemplate);
+        CrossTableComparator crossTableComparator = new CrossTableComparator(dynamicTableRepository);
+        ReflectionTestUtils.setField(crossTableComparator, "checksumLeafRows", 20L);
+        CrossTableConfig config = checksumTreeConfig("payments", "id");
+
+        ColumnComparisonConfig column = amountColumn(config);
+
+        var results = crossTableComparator.compare(config, List.of(column), Map.of(2L, threshold(column)));
+
+        assertEquals(List.of("10", "11"), results.stream().map(ValidationDetailResult::getRowKey).toList());
+    }
+
+    @Test
+    @DisplayName("Should find one changed row among many in a bucket of a decimal key")
+    void testCompareByChecksumTree_DecimalKey() {
+        DynamicTableRepository dynamicTableRepository = spy(new DynamicTableRepository(jdbcTemplate));
+        CrossTableComparator crossTableComparator = new CrossTableComparator(dynamicTableRepository);
+        ReflectionTestUtils.setField(crossTableComparator, "checksumLeafRows", 20L);
+        CrossTableConfig config = checksumTreeConfig("invoices", "id");
+
+        ColumnComparisonConfig column = amountColumn(config);
+
+        var results = crossTableComparator.compare(config, List.of(column), Map.of(2L, threshold(column)));
+
+        assertEquals(List.of("37"), results.stream().map(ValidationDetailResult::getRowKey).toList());
+        verify(dynamicTableRepository, never()).mergeJoinByKey(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should bucket keys whose range spans more than a long")
+    void testCompareByChecksumTree_WideKeyRange() {
+        DynamicTableRepository dynamicTableRepository = new DynamicTableRepository(jdbcTemplate);
+        CrossTableComparator crossTableComparator = new CrossTableComparator(dynamicTableRepository);
+        ReflectionTestUtils.setField(crossTableComparator, "checksumLeafRows", 20L);
+        CrossTableConfig config = checksumTreeConfig("transfers", "id");
+
+        ColumnComparisonConfig column = amountColumn(config);
+
+        var results = crossTableComparator.compare(config, List.of(column), Map.of(2L, threshold(column)));
+
+        assertEquals(List.of("700000000000000000"), results.stream().map(ValidationDetailResult::getRowKey).toList());
+    }
+
+    @Test
+    @DisplayName("Should merge full rows instead of building a checksum tree on a non-integral key")
+    void testCompareByChecksumTree_TextKey() {
+        DynamicTableRepository dynamicTableRepository = spy(new DynamicTableRepository(jdbcTemplate));
+        CrossTableComparator crossTableComparator = new CrossTableComparator(dynamicTableRepository);
+        CrossTableConfig config = checksumTreeConfig("customers", "code");
+
+        ColumnComparisonConfig column = amountColumn(config);
+
+        var results = crossTableComparator.compare(config, List.of(column), Map.of(2L, threshold(column)));
+
+        assertEquals(100, results.size(), "Every matched row is compared in full");
+        assertEquals(List.of("C0042"), results.stream()
+                .filter(ValidationDetailResult::isThresholdExceeded)
+                .map(ValidationDetailResult::getRowKey)
+                .toList());
+        verify(dynamicTableRepository, never()).findKeyRange(any());
+        verify(dynamicTableRepository).mergeJoinByKey(any(), any(), any());
+    }
+
+    private static CrossTableConfig checksumTreeConfig(String tableName, String keyColumn) {
+        return CrossTableConfig.builder()
+                .id(2L)
+                .sourceComparisonConfig(ComparisonConfig.builder().id(2L).tableName(tableName).build())
+                .targetTableName(tableName)
+                .targetDatasourceName("replica")
+                .joinCondition("s.%s = t.%s".formatted(keyColumn, keyColumn))
+                .keyColumn(keyColumn)
+                .checksumFanout(4)
+                .build();
+    }
+
+    private static ColumnComparisonConfig amountColumn(CrossTableConfig config) {
+        return ColumnComparisonConfig.builder()
+                .id(2L)
+                .crossTableConfig(config)
+                .columnName("amount")
+                .comparisonType(ComparisonType.ABSOLUTE)
+                .nullHandlingStrategy(HandlingStrategy.TREAT_AS_ZERO)
+                .build();
+    }
+
+    private static ThresholdConfig threshold(ColumnComparisonConfig column) {
+        return ThresholdConfig.builder()
+                .id(2L)
+                .columnComparisonConfig(column)
+                .thresholdValue(new BigDecimal("0.50"))
+                .severity(Severity.HIGH)
+                .build();
+    }
+
+    private static SourceDataSourceProperties.Source source(String database) {
+        SourceDataSourceProperties.Source source = new SourceDataSourceProperties.Source();
+        source.setUrl("jdbc:h2:mem:" + database + ";DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1");
+        source.setUsername("sa");
+        source.setPassword("");
+        source.setMaximumPoolSize(2);
+        return source;
+    }
+}
@@ -2,6 +2,10 @@ package com.company.datavalidation.service.comparison;
 
 import com.company.datavalidation.model.*;
 import com.company.datavalidation.repository.DynamicTableRepository;
+import com.company.datavalidation.repository.KeyedTableScan;
+import com.company.datavalidation.repository.MergeJoinHandler;
+import com.company.datavalidation.repository.MergeJoinSummary;
+import com.company.datavalidation.repository.SqlDialect;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,15 +13,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -288,4 +299,286 @@ class CrossTableComparatorTest {
         assertEquals(0, new BigDecimal("10").compareTo(countResult.getActualValue()));
         assertEquals(0, BigDecimal.ZERO.compareTo(countResult.getExpectedValue()));
     }
+
+    @Test
+    @DisplayName("Should compare rows streamed in key order when a key column is configured")
+    void testCompareByKey() {
+        crossTableConfig.setKeyColumn("id");
+
+        Map<String, Object> row = new HashMap<>();
+        row.put("row_key", 1L);
+        row.put("s_amount", new BigDecimal("100.00"));
+        row.put("t_amount", new BigDecimal("90.00"));
+        row.put("s_count", 10);
+        row.put("t_total_count", 9);
+
+        doAnswer(invocation -> {
+            Consumer<Map<String, Object>> consumer = invocation.getArgument(8);
+            consumer.accept(row);
+            return null;
+        }).when(dynamicTableRepository).streamCrossTableQueryByKey(
+                eq("source_table"), eq("target_table"),
+                eq(List.of("amount", "count")), eq(List.of("amount", "total_count")),
+                eq("source_table.id = target_table.source_id"), eq("id"),
+                eq("created_date"), isNull(), any());
+
+        // Execute comparison
+        var results = crossTableComparator.compare(crossTableConfig, columnConfigs, thresholdConfigs);
+
+        // Verify results
+        assertEquals(2, results.size(), "Should have 2 results (2 columns x 1 row)");
+        assertTrue(results.get(0).isThresholdExceeded(), "11.11% > 5% threshold");
+        assertFalse(results.get(1).isThresholdExceeded(), "1 < 3 threshold");
+        verify(dynamicTableRepository, never()).executeCrossTableQuery(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should merge-join both sides and report rows missing from either side across datasources")
+    void testCompareAcrossDatasources() {
+        sourceConfig.setDatasourceName("orders");
+        crossTableConfig.setKeyColumn("id");
+        crossTableConfig.setTargetDatasourceName("warehouse");
+        crossTableConfig.setTargetKeyColumn("source_id");
+
+        doAnswer(invocation -> {
+            MergeJoinHandler handler = invocation.getArgument(2);
+            handler.matched(1L, Map.of("amount", new BigDecimal("100.00"), "count", 10),
+                    Map.of("amount", new BigDecimal("90.00"), "total_count", 9));
+            handler.sourceOnly(2L, Map.of("amount", new BigDecimal("5.00"), "count", 1));
+            handler.targetOnly(3L, Map.of("amount", new BigDecimal("7.00"), "total_count", 2));
+            return new MergeJoinSummary(1, 1, 1);
+        }).when(dynamicTableRepository).mergeJoinByKey(
+                eq(new KeyedTableScan("orders", "source_table", "id", List.of("amount", "count"),
+                        "created_date", null)),
+                eq(new KeyedTableScan("warehouse", "target_table", "source_id", List.of("amount", "total_count"),
+                        "created_date", null)),
+                any());
+
+        // Execute comparison
+        var results = crossTableComparator.compare(crossTableConfig, columnConfigs, thresholdConfigs);
+
+        // Verify results
+        assertEquals(6, results.size(), "Should have 2 results for key 1, and a count and a key per missing side");
+        assertEquals("1", results.get(0).getRowKey());
+        assertEquals(DiscrepancyType.VALUE_MISMATCH, results.get(0).getDiscrepancyType());
+        assertTrue(results.get(0).isThresholdExceeded(), "11.11% > 5% threshold");
+        assertFalse(results.get(1).isThresholdExceeded(), "1 < 3 threshold");
+
+        assertEquals(DiscrepancyType.SOURCE_ONLY, results.get(2).getDiscrepancyType());
+        assertNull(results.get(2).getRowKey());
+        assertEquals(0, BigDecimal.ONE.compareTo(results.get(2).getActualValue()), "One row is missing");
+        assertEquals("2", results.get(3).getRowKey());
+        assertEquals(DiscrepancyType.TARGET_ONLY, results.get(4).getDiscrepancyType());
+        assertEquals("3", results.get(5).getRowKey());
+        assertNull(results.get(5).getActualValue());
+        assertTrue(results.subList(2, 6).stream().allMatch(ValidationDetailResult::isThresholdExceeded));
+        verify(dynamicTableRepository, never()).executeCrossTableQuery(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should require a key column to compare across datasources")
+    void testCompareAcrossDatasources_RequiresKey() {
+        crossTableConfig.setTargetDatasourceName("warehouse");
+
+        assertThrows(IllegalStateException.class,
+                () -> crossTableComparator.compare(crossTableConfig, columnConfigs, thresholdConfigs));
+        verify(dynamicTableRepository, never()).mergeJoinByKey(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should join only the rows whose fingerprints differ")
+    void testCompareByFingerprint() {
+        crossTableConfig.setFingerprintComparison(true);
+        when(dynamicTableRepository.dialect()).thenReturn(SqlDialect.H2);
+        List<Integer> types = List.of(Types.DECIMAL, Types.FLOAT);
+        when(dynamicTableRepository.findColumnTypes(any(), any())).thenReturn(types);
+        when(dynamicTableRepository.executeCrossTableQuery(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        crossTableComparator.compare(crossTableConfig, columnConfigs, thresholdConfigs);
+
+        verify(dynamicTableRepository).executeCrossTableQuery(
+                eq("source_table"), eq("target_table"),
+                eq(List.of("amount", "count")), eq(List.of("amount", "total_count")),
+                eq("source_table.id = target_table.source_id"), eq("created_date"),
+                eq(SqlDialect.H2.rowFingerprint(List.of("s.amount", "s.count"), types) + " <> "
+                        + SqlDialect.H2.rowFingerprint(List.of("t.amount", "t.total_count"), types)));
+        verify(dynamicTableRepository).findColumnTypes("source_table", List.of("amount", "count"));
+        verify(dynamicTableRepository).findColumnTypes("target_table", List.of("amount", "total_count"));
+    }
+
+    @Test
+    @DisplayName("Should read in full only the rows whose fingerprints differ across datasources")
+    void testCompareByFingerprintAcrossDatasources() {
+        crossTableConfig.setKeyColumn("id");
+        crossTableConfig.setTargetDatasourceName("warehouse");
+        crossTableConfig.setFingerprintComparison(true);
+        when(dynamicTableRepository.dialect()).thenReturn(SqlDialect.SQL_SERVER);
+
+        var source = new KeyedTableScan(null, "source_table", "id", List.of("amount", "count"),
+                "created_date", null);
+        var target = new KeyedTableScan("warehouse", "target_table", "id", List.of("amount", "total_count"),
+                "created_date", null);
+        doAnswer(invocation -> {
+            MergeJoinHandler handler = invocation.getArgument(2);
+            handler.matched(1L, Map.of("row_key", 1L, "row_fingerprint", 11L),
+                    Map.of("row_key", 1, "row_fingerprint", 11L));
+            handler.matched(2L, Map.of("row_key", 2L, "row_fingerprint", 12L),
+                    Map.of("row_key", 2, "row_fingerprint", 99L));
+            handler.sourceOnly(3L, Map.of("row_key", 3L, "row_fingerprint", 13L));
+            return new MergeJoinSummary(2, 1, 0);
+        }).when(dynamicTableRepository).mergeJoinFingerprintsByKey(eq(source), eq(target), any());
+        when(dynamicTableRepository.findRowsByKeys(source, List.of(2L))).thenReturn(List.of(
+                Map.of("row_key", 2L, "amount", new BigDecimal("100.00"), "count", 10)));
+        when(dynamicTableRepository.findRowsByKeys(target, List.of(2))).thenReturn(List.of(
+                Map.of("row_key", 2, "amount", new BigDecimal("90.00"), "total_count", 9)));
+
+        // Execute comparison
+        var results = crossTableComparator.compare(crossTableConfig, columnConfigs, thresholdConfigs);
+
+        // Verify results
+        assertEquals(4, results.size(), "Row 1 has equal fingerprints and is not compared");
+        assertEquals("2", results.get(0).getRowKey());
+        assertTrue(results.get(0).isThresholdExceeded(), "11.11% > 5% threshold");
+        assertFalse(results.get(1).isThresholdExceeded(), "1 < 3 threshold");
+        assertEquals(DiscrepancyType.SOURCE_ONLY, results.get(2).getDiscrepancyType());
+        assertEquals("3", results.get(3).getRowKey());
+        assertTrue(results.get(3).isThresholdExceeded());
+        verify(dynamicTableRepository, never()).mergeJoinByKey(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should count rows missing from the join and report a bounded sample of their keys")
+    void testCompareMissingRows() {
+        crossTableConfig.setKeyColumn("id");
+        crossTableConfig.setTargetKeyColumn("source_id");
+        ReflectionTestUtils.setField(crossTableComparator, "missingRowSampleSize", 2);
+        doAnswer(invocation -> null).when(dynamicTableRepository).streamCrossTableQueryByKey(
+                any(), any(), any(), any(), any(), any(), any(), any(), any());
+        when(dynamicTableRepository.countMissingRows(eq(DiscrepancyType.SOURCE_ONLY), any(), any(), any(), any()))
+                .thenReturn(5L);
+        when(dynamicTableRepository.countMissingRows(eq(DiscrepancyType.TARGET_ONLY), any(), any(), any(), any()))
+                .thenReturn(0L);
+        doAnswer(invocation -> {
+            Consumer<Object> keyConsumer = invocation.getArgument(6);
+            for (long key = 1; key <= 5; key++) {
+                keyConsumer.accept(key);
+            }
+            return null;
+        }).when(dynamicTableRepository).streamMissingRowKeys(eq(DiscrepancyType.SOURCE_ONLY), eq("source_table"),
+                eq("target_table"), eq("source_table.id = target_table.source_id"), eq("id"), eq("created_date"),
+                any());
+
+        // Execute comparison
+        var results = crossTableComparator.compare(crossTableConfig, columnConfigs, thresholdConfigs);
+
+        // Verify results
+        assertEquals(3, results.size(), "Should have a count and 2 sampled keys");
+        assertEquals(DiscrepancyType.SOURCE_ONLY, results.get(0).getDiscrepancyType());
+        assertNull(results.get(0).getRowKey());
+        assertEquals(0, new BigDecimal("5").compareTo(results.get(0).getActualValue()));
+        assertTrue(results.stream().allMatch(ValidationDetailResult::isThresholdExceeded));
+        assertTrue(results.subList(1, 3).stream().allMatch(result -> result.getRowKey() != null
+                && result.getDiscrepancyType() == DiscrepancyType.SOURCE_ONLY));
+        verify(dynamicTableRepository, never()).streamMissingRowKeys(
+                eq(DiscrepancyType.TARGET_ONLY), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should skip the row comparison when the aggregates agree")
+    void testCompareAggregateFirst_AggregatesAgree() {
+        crossTableConfig.setAggregateFirst(true);
+        mockNumericColumns("amount", "count", "total_count");
+        when(dynamicTableRepository.executeCurrentDayAggregates(
+                "source_table", List.of("COUNT(*)", "SUM(CAST(amount AS DECIMAL(38,4)))", "COUNT(amount)",
+                        "SUM(CAST(count AS DECIMAL(38,4)))", "COUNT(count)"),
+                "created_date", null))
+                .thenReturn(List.of(new BigDecimal("3"), new BigDecimal("1000.00"), new BigDecimal("3"),
+                        new BigDecimal("30"), new BigDecimal("3")));
+        when(dynamicTableRepository.executeCurrentDayAggregates(
+                "target_table", List.of("COUNT(*)", "SUM(CAST(amount AS DECIMAL(38,4)))", "COUNT(amount)",
+                        "SUM(CAST(total_count AS DECIMAL(38,4)))", "COUNT(total_count)"),
+                "created_date", null))
+                .thenReturn(List.of(new BigDecimal("3"), new BigDecimal("1000.0000"), new BigDecimal("3"),
+                        new BigDecimal("30"), new BigDecimal("3")));
+
+        // Execute comparison
+        var results = crossTableComparator.compare(crossTableConfig, columnConfigs, thresholdConfigs);
+
+        // Verify results
+        assertEquals(2, results.size(), "Should have 1 aggregate result per column");
+        assertEquals(0, new BigDecimal("1000.00").compareTo(results.get(0).getActualValue()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(results.get(0).getDifferenceValue()));
+        assertFalse(results.get(0).isThresholdExceeded());
+        assertFalse(results.get(1).isThresholdExceeded());
+        verify(dynamicTableRepository, never()).executeCrossTableQuery(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should compare the rows when the sums differ by less than a row threshold")
+    void testCompareAggregateFirst_SumsDifferWithinThreshold() {
+        crossTableConfig.setAggregateFirst(true);
+        mockNumericColumns("amount", "count", "total_count");
+        // One row of 1,000 is off by 100%, which moves the sum by only 0.1%
+        when(dynamicTableRepository.executeCurrentDayAggregates(eq("source_table"), any(), any(), any()))
+                .thenReturn(List.of(new BigDecimal("1000"), new BigDecimal("1000.00"), new BigDecimal("1000"),
+                        new BigDecimal("30"), new BigDecimal("1000")));
+        when(dynamicTableRepository.executeCurrentDayAggregates(eq("target_table"), any(), any(), any()))
+                .thenReturn(List.of(new BigDecimal("1000"), new BigDecimal("999.00"), new BigDecimal("1000"),
+                        new BigDecimal("30"), new BigDecimal("1000")));
+        when(dynamicTableRepository.executeCrossTableQuery(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        // Execute comparison
+        crossTableComparator.compare(crossTableConfig, columnConfigs, thresholdConfigs);
+
+        // Verify the rows were compared
+        verify(dynamicTableRepository).executeCrossTableQuery(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should compare the rows without summing when a mapped column is not numeric")
+    void testCompareAggregateFirst_TextColumn() {
+        crossTableConfig.setAggregateFirst(true);
+        // total_count is a VARCHAR column on the target
+        mockNumericColumns("amount", "count");
+        when(dynamicTableRepository.executeCrossTableQuery(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        // Execute comparison
+        crossTableComparator.compare(crossTableConfig, columnConfigs, thresholdConfigs);
+
+        // Verify no aggregate was queried
+        verify(dynamicTableRepository, never()).executeCurrentDayAggregates(any(), any(), any(), any());
+        verify(dynamicTableRepository).executeCrossTableQuery(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should compare the rows when the aggregates disagree")
+    void testCompareAggregateFirst_AggregatesDisagree() {
+        crossTableConfig.setAggregateFirst(true);
+        mockNumericColumns("amount", "count", "total_count");
+        when(dynamicTableRepository.executeCurrentDayAggregates(eq("source_table"), any(), any(), any()))
+                .thenReturn(List.of(new BigDecimal("3"), new BigDecimal("1000.00"), new BigDecimal("3"),
+                        new BigDecimal("30"), new BigDecimal("3")));
+        when(dynamicTableRepository.executeCurrentDayAggregates(eq("target_table"), any(), any(), any()))
+                .thenReturn(List.of(new BigDecimal("3"), new BigDecimal("1000.00"), new BigDecimal("3"),
+                        new BigDecimal("20"), new BigDecimal("3")));
+        when(dynamicTableRepository.executeCrossTableQuery(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        // Execute comparison
+        var results = crossTableComparator.compare(crossTableConfig, columnConfigs, thresholdConfigs);
+
+        // Verify results
+        assertTrue(results.isEmpty(), "Only row-level results are returned");
+        verify(dynamicTableRepository).executeCrossTableQuery(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    /**
+     * Report the given columns as numeric on both tables
+     */
+    private void mockNumericColumns(String... numericColumns) {
+        when(dynamicTableRepository.findNumericColumns(any(), any())).thenReturn(Set.of(numericColumns));
+    }
 }
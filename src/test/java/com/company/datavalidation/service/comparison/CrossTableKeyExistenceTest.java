@@ -0,0 +1,119 @@
+package com.company.datavalidation.service.comparison;
+
+import com.company.datavalidation.config.SourceDataSourceConfig;
+import com.company.datavalidation.config.SourceDataSourceProperties;
+import com.company.datavalidation.model.*;
+import com.company.datavalidation.repository.DynamicTableRepository;
+import com.company.datavalidation.repository.SourceDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Checks that key existence checks find the keys missing from either of two H2 databases
+ * whose key columns have different integral types.
+ */
+@DisplayName("Cross Table Key Existence Tests")
+class CrossTableKeyExistenceTest {
+
+    private static final SourceDataSourceConfig CONFIG = new SourceDataSourceConfig();
+
+    private static DataSource sourceDataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void seed() {
+        SourceDataSourceProperties properties = new SourceDataSourceProperties();
+        properties.getDatasources().put(SourceDataSource.DEFAULT, source("existence_source"));
+        properties.getDatasources().put("replica", source("existence_replica"));
+        sourceDataSource = CONFIG.sourceDataSource(properties);
+        jdbcTemplate = CONFIG.sourceJdbcTemplate(sourceDataSource);
+
+        // The replica misses keys 7, 2500 and 4999, and has extra keys 5001 and 6000
+        jdbcTemplate.execute("CREATE TABLE orders (id INT, created_date TIMESTAMP, amount DECIMAL(18,4))");
+        jdbcTemplate.update("INSERT INTO orders SELECT X, CURRENT_TIMESTAMP, X FROM SYSTEM_RANGE(1, 5000)");
+        SourceDataSource.call("replica", () -> {
+            jdbcTemplate.execute("CREATE TABLE orders (order_id BIGINT, created_date TIMESTAMP, amount DECIMAL(18,4))");
+            return jdbcTemplate.update("""
+                    INSERT INTO orders
+                    SELECT X, CURRENT_TIMESTAMP, X FROM SYSTEM_RANGE(1, 6000)
+                    WHERE X NOT IN (7, 2500, 4999) AND (X <= 5001 OR X = 6000)
+                    """);
+        });
+    }
+
+    @AfterAll
+    static void close() throws Exception {
+        ((AutoCloseable) sourceDataSource).close();
+    }
+
+    @Test
+    @DisplayName("Should report the keys missing from either side without comparing rows")
+    void testCompareKeyExistence() {
+        DynamicTableRepository dynamicTableRepository = spy(new DynamicTableRepository(jdbcTemplate));
+        CrossTableComparator crossTableComparator = new CrossTableComparator(dynamicTableRepository);
+        ReflectionTestUtils.setField(crossTableComparator, "keyLookupBatchSize", 2);
+
+        CrossTableConfig config = CrossTableConfig.builder()
+                .id(1L)
+                .sourceComparisonConfig(ComparisonConfig.builder().id(1L).tableName("orders").build())
+                .targetTableName("orders")
+                .targetDatasourceName("replica")
+                .joinCondition("s.id = t.order_id")
+                .keyColumn("id")
+                .targetKeyColumn("order_id")
+                .keyExistenceCheck(true)
+                .build();
+        ColumnComparisonConfig column = ColumnComparisonConfig.builder()
+                .id(1L)
+                .crossTableConfig(config)
+                .columnName("amount")
+                .comparisonType(ComparisonType.PERCENTAGE)
+                .nullHandlingStrategy(HandlingStrategy.TREAT_AS_ZERO)
+                .build();
+        ThresholdConfig threshold = ThresholdConfig.builder()
+                .id(1L)
+                .columnComparisonConfig(column)
+                .thresholdValue(new BigDecimal("5.00"))
+                .severity(Severity.HIGH)
+                .build();
+
+        var results = crossTableComparator.compare(config, List.of(column), Map.of(1L, threshold));
+
+        assertEquals(7, results.size(), "Should have a count and the keys for each side");
+        assertEquals(DiscrepancyType.SOURCE_ONLY, results.get(0).getDiscrepancyType());
+        assertEquals(0, new BigDecimal("3").compareTo(results.get(0).getActualValue()));
+        assertEquals(List.of("2500", "4999", "7"),
+                results.subList(1, 4).stream().map(ValidationDetailResult::getRowKey).sorted().toList());
+        assertEquals(DiscrepancyType.TARGET_ONLY, results.get(4).getDiscrepancyType());
+        assertEquals(0, new BigDecimal("2").compareTo(results.get(4).getActualValue()));
+        assertEquals(List.of("5001", "6000"),
+                results.subList(5, 7).stream().map(ValidationDetailResult::getRowKey).sorted().toList());
+        assertTrue(results.stream().allMatch(ValidationDetailResult::isThresholdExceeded));
+        verify(dynamicTableRepository, never()).mergeJoinByKey(any(), any(), any());
+        verify(dynamicTableRepository, never()).findRowsByKeys(any(), any());
+    }
+
+    private static SourceDataSourceProperties.Source source(String database) {
+        SourceDataSourceProperties.Source source = new SourceDataSourceProperties.Source();
+        source.setUrl("jdbc:h2:mem:" + database + ";DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1");
+        source.setUsername("sa");
+        source.setPassword("");
+        source.setMaximumPoolSize(2);
+        return source;
+    }
+}
@@ -1,21 +1,31 @@
 package com.company.datavalidation.service.comparison;
 
 import com.company.datavalidation.model.*;
+import com.company.datavalidation.repository.ColumnarRowBatch;
 import com.company.datavalidation.repository.DynamicTableRepository;
+import com.company.datavalidation.repository.PartitionPredicate;
+import com.company.datavalidation.repository.TableSample;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,7 +34,12 @@ public class DayOverDayComparatorTest {
     @Mock
     private DynamicTableRepository dynamicTableRepository;
 
-    @InjectMocks
+    @Mock
+    private AggregateSnapshotService aggregateSnapshotService;
+
+    @Mock
+    private IncrementalAggregateService incrementalAggregateService;
+
     private DayOverDayComparator dayOverDayComparator;
 
     private ComparisonConfig comparisonConfig;
@@ -34,6 +49,9 @@ public class DayOverDayComparatorTest {
 
     @BeforeEach
     public void setup() {
+        dayOverDayComparator = new DayOverDayComparator(dynamicTableRepository, aggregateSnapshotService,
+                incrementalAggregateService, Clock.systemDefaultZone());
+
         // Setup comparison config
         comparisonConfig = new ComparisonConfig();
         comparisonConfig.setId(1L);
@@ -110,9 +128,7 @@ public class DayOverDayComparatorTest {
         yesterdayData.add(yesterdayRow);
 
         // Mock repository behavior
-        when(dynamicTableRepository.getDataForDate(
-                eq("test_table"), eq(columnNames), eq("created_date"), any(LocalDate.class), eq("status <> 'CANCELED'")))
-                .thenReturn(todayData, yesterdayData);
+        mockStreamedRows(columnNames, todayData, yesterdayData);
 
         // Execute comparison
         List<ValidationDetailResult> results = dayOverDayComparator.compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
@@ -167,9 +183,7 @@ public class DayOverDayComparatorTest {
         yesterdayData.add(yesterdayRow);
 
         // Mock repository behavior
-        when(dynamicTableRepository.getDataForDate(
-                eq("test_table"), eq(columnNames), eq("created_date"), any(LocalDate.class), eq("status <> 'CANCELED'")))
-                .thenReturn(todayData, yesterdayData);
+        mockStreamedRows(columnNames, todayData, yesterdayData);
 
         // Execute comparison
         List<ValidationDetailResult> results = dayOverDayComparator.compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
@@ -224,9 +238,7 @@ public class DayOverDayComparatorTest {
         yesterdayData.add(yesterdayRow);
 
         // Mock repository behavior
-        when(dynamicTableRepository.getDataForDate(
-                eq("test_table"), eq(columnNames), eq("created_date"), any(LocalDate.class), eq("status <> 'CANCELED'")))
-                .thenReturn(todayData, yesterdayData);
+        mockStreamedRows(columnNames, todayData, yesterdayData);
 
         // Execute comparison
         List<ValidationDetailResult> results = dayOverDayComparator.compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
@@ -259,4 +271,533 @@ public class DayOverDayComparatorTest {
         // Difference should be -18 units
         assertTrue(countResult.isThresholdExceeded()); // -18 > 5 threshold (absolute)
     }
+
+    @Test
+    public void testCompare_PushDownAggregation() {
+        enablePushDown("amount", "count");
+
+        // Both days are aggregated by the database in one scan, bucketed by date
+        when(dynamicTableRepository.executeDailyAggregateQuery(
+                eq("test_table"), eq(List.of("SUM(amount)", "SUM(count)")), eq("created_date"),
+                any(LocalDate.class), any(LocalDate.class), eq("status <> 'CANCELED'")))
+                .thenAnswer(invocation -> {
+                    LocalDate yesterday = invocation.getArgument(3);
+                    LocalDate tomorrow = invocation.getArgument(4);
+                    assertEquals(yesterday.plusDays(2), tomorrow);
+
+                    Map<LocalDate, List<BigDecimal>> buckets = new HashMap<>();
+                    buckets.put(yesterday.plusDays(1), Arrays.asList(new BigDecimal("120.00"), null));
+                    buckets.put(yesterday, List.of(new BigDecimal("95.00"), new BigDecimal("18")));
+                    return buckets;
+                });
+
+        // Execute comparison
+        List<ValidationDetailResult> results = dayOverDayComparator.compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
+
+        // Verify results
+        assertEquals(2, results.size());
+
+        ValidationDetailResult amountResult = results.stream()
+                .filter(r -> r.getColumnComparisonConfig().getColumnName().equals("amount"))
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(0, new BigDecimal("120.00").compareTo(amountResult.getActualValue()));
+        assertEquals(0, new BigDecimal("95.00").compareTo(amountResult.getExpectedValue()));
+        assertTrue(amountResult.isThresholdExceeded()); // 26.32% > 10% threshold
+
+        // A SUM over only null values comes back as NULL and is compared as zero, like a streamed sum
+        ValidationDetailResult countResult = results.stream()
+                .filter(r -> r.getColumnComparisonConfig().getColumnName().equals("count"))
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(countResult.getActualValue()));
+        assertEquals(0, new BigDecimal("18").compareTo(countResult.getExpectedValue()));
+        assertTrue(countResult.isThresholdExceeded()); // -18 > 5 threshold (absolute)
+
+        // No rows are pulled into the JVM
+        verify(dynamicTableRepository, never()).streamBatchesForDate(any(), any(), any(), any(), any(), any(), any());
+
+        // Yesterday's completed values are kept for later runs
+        verify(aggregateSnapshotService).saveValues(eq(columnConfigs),
+                eq(List.of("test_table | created_date | SUM(amount) | status <> 'CANCELED'",
+                        "test_table | created_date | SUM(count) | status <> 'CANCELED'")),
+                eq(LocalDate.now().minusDays(1)), any());
+    }
+
+    @Test
+    public void testCompare_SharedAggregates() {
+        enablePushDown("amount", "count");
+        columnConfigs.get(1).setColumnName("SUM(amount)");
+        LocalDate today = LocalDate.now();
+
+        // The pushed-down sum of amount and the configured SUM(amount) share one projection
+        when(dynamicTableRepository.executeDailyAggregateQuery(
+                eq("test_table"), eq(List.of("SUM(amount)")), eq("created_date"),
+                eq(today.minusDays(1)), eq(today.plusDays(1)), eq("status <> 'CANCELED'")))
+                .thenReturn(Map.of(
+                        today, List.of(new BigDecimal("100.00")),
+                        today.minusDays(1), List.of(new BigDecimal("95.00"))));
+
+        // Execute comparison
+        List<ValidationDetailResult> results = dayOverDayComparator.compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
+
+        // Both columns receive the shared value
+        assertEquals(2, results.size());
+        for (ValidationDetailResult result : results) {
+            assertEquals(0, new BigDecimal("100.00").compareTo(result.getActualValue()));
+            assertEquals(0, new BigDecimal("95.00").compareTo(result.getExpectedValue()));
+        }
+        assertFalse(results.get(0).isThresholdExceeded()); // 5.26% < 10% threshold
+        assertFalse(results.get(1).isThresholdExceeded()); // 5 <= 5 threshold
+    }
+
+    @Test
+    public void testCompare_Sampled() {
+        enablePushDown("amount", "count");
+        dayOverDayConfig.setSamplePercent(new BigDecimal("10"));
+        dayOverDayConfig.setSampleKeyColumn("id");
+        LocalDate today = LocalDate.now();
+
+        // Sums and sums of squares of a 10% sample: amounts of 2, counts of 1
+        when(dynamicTableRepository.executeSampledDailyAggregateQuery(
+                eq("test_table"),
+                eq(List.of("SUM(amount)", "SUM(CAST(amount AS FLOAT) * amount)", "SUM(count)", "SUM(CAST(count AS FLOAT) * count)")),
+                eq("created_date"), eq(today.minusDays(1)), eq(today.plusDays(1)),
+                eq(new TableSample(new BigDecimal("10"), "id")), eq("status <> 'CANCELED'")))
+                .thenReturn(Map.of(
+                        today, List.of(new BigDecimal("20"), new BigDecimal("40"), new BigDecimal("100"), new BigDecimal("100")),
+                        today.minusDays(1), List.of(new BigDecimal("10"), new BigDecimal("20"), new BigDecimal("10"), new BigDecimal("10"))));
+
+        // Execute comparison
+        List<ValidationDetailResult> results = dayOverDayComparator.compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
+
+        // Totals are scaled up by the sampled fraction
+        assertEquals(2, results.size());
+        ValidationDetailResult amountResult = results.get(0);
+        assertTrue(amountResult.isEstimated());
+        assertEquals(0, new BigDecimal("200").compareTo(amountResult.getActualValue()));
+        assertEquals(0, new BigDecimal("100").compareTo(amountResult.getExpectedValue()));
+        assertEquals(117.6, amountResult.getActualMarginOfError().doubleValue(), 0.01); // 1.96 * sqrt(0.9 / 0.01 * 40)
+
+        // A 100% change within the sampling error does not alert, a change well beyond it does
+        assertFalse(amountResult.isThresholdExceeded());
+        ValidationDetailResult countResult = results.get(1);
+        assertEquals(0, new BigDecimal("1000").compareTo(countResult.getActualValue()));
+        assertTrue(countResult.isThresholdExceeded());
+
+        // Estimates are never stored as snapshots
+        verify(aggregateSnapshotService, never()).saveValues(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testCompare_PartitionedScan() {
+        enablePushDown("amount", "count");
+        dayOverDayConfig.setPartitionColumn("id");
+        dayOverDayConfig.setPartitionCount(2);
+        columnConfigs.get(1).setColumnName("AVG(count)");
+
+        List<PartitionPredicate> partitions = PartitionPredicate.hash("id", 2);
+        when(dynamicTableRepository.partitionScan(eq("test_table"), eq("id"), eq(PartitionStrategy.HASH), eq(2),
+                eq("created_date"), any(LocalDate.class), any(LocalDate.class), eq("status <> 'CANCELED'")))
+                .thenReturn(partitions);
+        when(dynamicTableRepository.scanPartitions(eq(partitions), any()))
+                .thenAnswer(invocation -> {
+                    Function<PartitionPredicate, ?> scan = invocation.getArgument(1);
+                    return partitions.stream().map(scan).toList();
+                });
+
+        // Each partition returns partial sums and counts; AVG is decomposed into SUM and COUNT
+        when(dynamicTableRepository.executeDailyAggregateQuery(
+                eq("test_table"), eq(List.of("SUM(amount)", "SUM(count)", "COUNT(count)")), eq("created_date"),
+                any(LocalDate.class), any(LocalDate.class), any(PartitionPredicate.class), eq("status <> 'CANCELED'")))
+                .thenAnswer(invocation -> {
+                    LocalDate yesterday = invocation.getArgument(3);
+                    PartitionPredicate partition = invocation.getArgument(5);
+
+                    Map<LocalDate, List<BigDecimal>> buckets = new HashMap<>();
+                    if (partition.equals(partitions.get(0))) {
+                        buckets.put(yesterday.plusDays(1), List.of(new BigDecimal("70"), new BigDecimal("30"), new BigDecimal("3")));
+                        buckets.put(yesterday, List.of(new BigDecimal("50"), new BigDecimal("10"), new BigDecimal("1")));
+                    } else {
+                        buckets.put(yesterday.plusDays(1), List.of(new BigDecimal("50"), new BigDecimal("10"), new BigDecimal("2")));
+                    }
+                    return buckets;
+                });
+
+        // Execute comparison
+        List<ValidationDetailResult> results = dayOverDayComparator.compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
+
+        // Verify partials are merged across partitions
+        assertEquals(2, results.size());
+
+        ValidationDetailResult amountResult = results.get(0);
+        assertEquals(0, new BigDecimal("120").compareTo(amountResult.getActualValue()));
+        assertEquals(0, new BigDecimal("50").compareTo(amountResult.getExpectedValue()));
+        assertTrue(amountResult.isThresholdExceeded()); // 140% > 10% threshold
+
+        ValidationDetailResult averageResult = results.get(1);
+        assertEquals(0, new BigDecimal("8").compareTo(averageResult.getActualValue()));
+        assertEquals(0, new BigDecimal("10").compareTo(averageResult.getExpectedValue()));
+        assertFalse(averageResult.isThresholdExceeded()); // -2 <= 5 threshold (absolute)
+    }
+
+    @Test
+    public void testCompare_YesterdayFromSnapshot() {
+        enablePushDown("amount", "count");
+        LocalDate today = LocalDate.now();
+
+        // Yesterday was captured after it ended, so only today is scanned
+        when(aggregateSnapshotService.findFinalValues(eq(columnConfigs), any(), eq(today.minusDays(1))))
+                .thenReturn(Optional.of(new BigDecimal[]{new BigDecimal("95.00"), new BigDecimal("18")}));
+        when(dynamicTableRepository.executeDailyAggregateQuery(
+                eq("test_table"), eq(List.of("SUM(amount)", "SUM(count)")), eq("created_date"),
+                eq(today), eq(today.plusDays(1)), eq("status <> 'CANCELED'")))
+                .thenReturn(Map.of(today, List.of(new BigDecimal("100.00"), new BigDecimal("20"))));
+
+        // Execute comparison
+        List<ValidationDetailResult> results = dayOverDayComparator.compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
+
+        // Verify results
+        assertEquals(2, results.size());
+        assertEquals(0, new BigDecimal("95.00").compareTo(results.get(0).getExpectedValue()));
+        assertFalse(results.get(0).isThresholdExceeded()); // 5.26% < 10% threshold
+        assertEquals(0, new BigDecimal("18").compareTo(results.get(1).getExpectedValue()));
+        assertFalse(results.get(1).isThresholdExceeded()); // 2 < 5 threshold
+
+        // The snapshot is not written again
+        verify(aggregateSnapshotService, never()).saveValues(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testCompare_IncrementalToday() {
+        enablePushDown("amount", "count");
+        ReflectionTestUtils.setField(dayOverDayComparator, "watermarkSafetyLag", 0L);
+        dayOverDayConfig.setWatermarkColumn("id");
+        LocalDate today = LocalDate.now();
+        LocalDate yesterday = today.minusDays(1);
+
+        // Yesterday has no stored state so is scanned in full, today only past the stored watermark
+        when(incrementalAggregateService.findState(eq(dayOverDayConfig), eq(yesterday), any()))
+                .thenReturn(Optional.empty());
+        when(dynamicTableRepository.executeDailyAggregateQuery(
+                eq("test_table"), eq(List.of("SUM(amount)", "SUM(count)")), eq("created_date"),
+                eq(yesterday), eq(today), eq("status <> 'CANCELED'")))
+                .thenReturn(Map.of(yesterday, List.of(new BigDecimal("95.00"), new BigDecimal("18"))));
+        IncrementalAggregateState state = IncrementalAggregateState.builder()
+                .watermark(100L)
+                .partialValues(List.of(new BigDecimal("80.00"), new BigDecimal("15")))
+                .build();
+        when(incrementalAggregateService.findState(eq(dayOverDayConfig), eq(today), any()))
+                .thenReturn(Optional.of(state));
+        when(dynamicTableRepository.findMaxWatermark("test_table", "id", "created_date",
+                today, today.plusDays(1), "status <> 'CANCELED'"))
+                .thenReturn(120L);
+        when(dynamicTableRepository.executeDailyAggregateQuery(
+                eq("test_table"), eq(List.of("SUM(amount)", "SUM(count)")), eq("created_date"),
+                eq(today), eq(today.plusDays(1)), eq(PartitionPredicate.watermarkRange("id", 100L, 120L)),
+                eq("status <> 'CANCELED'")))
+                .thenReturn(Map.of(today, List.of(new BigDecimal("20.00"), new BigDecimal("5"))));
+
+        // Execute comparison
+        List<ValidationDetailResult> results = dayOverDayComparator.compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
+
+        // Today's values combine the stored partials and the new rows
+        assertEquals(2, results.size());
+        assertEquals(0, new BigDecimal("100.00").compareTo(results.get(0).getActualValue()));
+        assertEquals(0, new BigDecimal("95.00").compareTo(results.get(0).getExpectedValue()));
+        assertEquals(0, new BigDecimal("20").compareTo(results.get(1).getActualValue()));
+        assertEquals(0, new BigDecimal("18").compareTo(results.get(1).getExpectedValue()));
+
+        // The merged partials are stored with the new watermark
+        verify(incrementalAggregateService).saveState(eq(dayOverDayConfig), eq(today), any(), eq(120L),
+                eq(List.of(new BigDecimal("100.00"), new BigDecimal("20"))));
+    }
+
+    @Test
+    public void testCompare_IncrementalTodayCountsLateCommits() {
+        enablePushDown("amount", "count");
+        ReflectionTestUtils.setField(dayOverDayComparator, "watermarkSafetyLag", 10L);
+        dayOverDayConfig.setWatermarkColumn("id");
+        LocalDate today = LocalDate.now();
+        LocalDate yesterday = today.minusDays(1);
+        List<String> partialSql = List.of("SUM(amount)", "SUM(count)");
+
+        when(incrementalAggregateService.findState(eq(dayOverDayConfig), eq(yesterday), any()))
+                .thenReturn(Optional.empty());
+        when(dynamicTableRepository.executeDailyAggregateQuery(
+                eq("test_table"), eq(partialSql), eq("created_date"), eq(yesterday), eq(today), eq("status <> 'CANCELED'")))
+                .thenReturn(Map.of(yesterday, List.of(new BigDecimal("95.00"), new BigDecimal("18"))));
+        when(incrementalAggregateService.findState(eq(dayOverDayConfig), eq(today), any()))
+                .thenReturn(Optional.of(IncrementalAggregateState.builder()
+                        .watermark(100L)
+                        .partialValues(List.of(new BigDecimal("80.00"), new BigDecimal("15")))
+                        .build()))
+                .thenReturn(Optional.of(IncrementalAggregateState.builder()
+                        .watermark(110L)
+                        .partialValues(List.of(new BigDecimal("92.00"), new BigDecimal("18")))
+                        .build()));
+        when(dynamicTableRepository.findMaxWatermark("test_table", "id", "created_date",
+                today, today.plusDays(1), "status <> 'CANCELED'"))
+                .thenReturn(120L, 130L);
+        mockWatermarkRange(today, 100L, 110L, "12.00", "3");
+        // Row 115 of amount 5 took its ID before the first run but commits between the runs
+        mockWatermarkRange(today, 110L, 120L, "8.00", "2", "13.00", "3");
+        mockWatermarkRange(today, 120L, 130L, "10.00", "2");
+
+        // The first run stores the rows up to 110 and counts the rows within the lag without storing them
+        List<ValidationDetailResult> firstRun = dayOverDayComparator.compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
+
+        assertEquals(0, new BigDecimal("100.00").compareTo(firstRun.get(0).getActualValue()));
+        assertEquals(0, new BigDecimal("20").compareTo(firstRun.get(1).getActualValue()));
+        verify(incrementalAggregateService).saveState(eq(dayOverDayConfig), eq(today), any(), eq(110L),
+                eq(List.of(new BigDecimal("92.00"), new BigDecimal("18"))));
+
+        // The second run rescans (110, 120] and so counts the late row
+        List<ValidationDetailResult> secondRun = dayOverDayComparator.compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
+
+        assertEquals(0, new BigDecimal("115.00").compareTo(secondRun.get(0).getActualValue()));
+        assertEquals(0, new BigDecimal("23").compareTo(secondRun.get(1).getActualValue()));
+        verify(incrementalAggregateService).saveState(eq(dayOverDayConfig), eq(today), any(), eq(120L),
+                eq(List.of(new BigDecimal("105.00"), new BigDecimal("21"))));
+    }
+
+    @Test
+    public void testCompare_IncrementalConsecutiveDays() {
+        enablePushDown("amount", "count");
+        dayOverDayConfig.setWatermarkColumn("id");
+        LocalDate day = LocalDate.of(2024, 3, 15);
+        LocalDate nextDay = day.plusDays(1);
+
+        // Keep the stored state and snapshots between the runs; every snapshot is saved after its day ended
+        Map<LocalDate, IncrementalAggregateState> states = new HashMap<>();
+        Map<LocalDate, BigDecimal[]> snapshots = new HashMap<>();
+        when(incrementalAggregateService.findState(eq(dayOverDayConfig), any(), any()))
+                .thenAnswer(invocation -> Optional.ofNullable(states.get(invocation.<LocalDate>getArgument(1))));
+        doAnswer(invocation -> states.put(invocation.getArgument(1), IncrementalAggregateState.builder()
+                .watermark(invocation.getArgument(3))
+                .partialValues(invocation.getArgument(4))
+                .build()))
+                .when(incrementalAggregateService).saveState(eq(dayOverDayConfig), any(), any(), any(Long.class), any());
+        when(aggregateSnapshotService.findFinalValues(eq(columnConfigs), any(), any()))
+                .thenAnswer(invocation -> Optional.ofNullable(snapshots.get(invocation.<LocalDate>getArgument(2))));
+        doAnswer(invocation -> snapshots.put(invocation.getArgument(2), invocation.getArgument(3)))
+                .when(aggregateSnapshotService).saveValues(eq(columnConfigs), any(), any(), any());
+
+        // The run on the first day scans the day before in full and the day up to ID 100
+        when(dynamicTableRepository.executeDailyAggregateQuery(
+                eq("test_table"), eq(List.of("SUM(amount)", "SUM(count)")), eq("created_date"),
+                eq(day.minusDays(1)), eq(day), eq("status <> 'CANCELED'")))
+                .thenReturn(Map.of(day.minusDays(1), List.of(new BigDecimal("90.00"), new BigDecimal("17"))));
+        when(dynamicTableRepository.findMaxWatermark("test_table", "id", "created_date",
+                day, nextDay, "status <> 'CANCELED'"))
+                .thenReturn(100L, 110L);
+        mockWatermarkRange(day, null, 100L, "80.00", "15");
+
+        List<ValidationDetailResult> firstRun = comparatorOn(day).compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
+
+        assertEquals(0, new BigDecimal("80.00").compareTo(firstRun.get(0).getActualValue()));
+        assertEquals(0, new BigDecimal("90.00").compareTo(firstRun.get(0).getExpectedValue()));
+
+        // The run on the next day completes the first day from its state and the rows written after the first run
+        mockWatermarkRange(day, 100L, 110L, "15.00", "3");
+        when(dynamicTableRepository.findMaxWatermark("test_table", "id", "created_date",
+                nextDay, nextDay.plusDays(1), "status <> 'CANCELED'"))
+                .thenReturn(200L);
+        mockWatermarkRange(nextDay, null, 200L, "100.00", "20");
+
+        List<ValidationDetailResult> secondRun = comparatorOn(nextDay).compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
+
+        assertEquals(0, new BigDecimal("100.00").compareTo(secondRun.get(0).getActualValue()));
+        assertEquals(0, new BigDecimal("95.00").compareTo(secondRun.get(0).getExpectedValue()));
+        assertEquals(0, new BigDecimal("20").compareTo(secondRun.get(1).getActualValue()));
+        assertEquals(0, new BigDecimal("18").compareTo(secondRun.get(1).getExpectedValue()));
+
+        // The first day is saved as final and never scanned in full
+        assertEquals(0, new BigDecimal("95.00").compareTo(snapshots.get(day)[0]));
+        assertEquals(0, new BigDecimal("18").compareTo(snapshots.get(day)[1]));
+        verify(dynamicTableRepository, never()).executeDailyAggregateQuery(
+                any(), any(), any(), eq(day), eq(nextDay), any());
+    }
+
+    @Test
+    public void testCompare_PushDownSkipsTextColumns() {
+        // count is a VARCHAR column holding numbers, blanks and N/A, so only amount is summed by the database
+        enablePushDown("amount");
+        LocalDate today = LocalDate.now();
+        when(dynamicTableRepository.executeDailyAggregateQuery(
+                eq("test_table"), eq(List.of("SUM(amount)")), eq("created_date"),
+                eq(today.minusDays(1)), eq(today.plusDays(1)), eq("status <> 'CANCELED'")))
+                .thenReturn(Map.of(
+                        today, List.of(new BigDecimal("100.00")),
+                        today.minusDays(1), List.of(new BigDecimal("95.00"))));
+        mockStreamedRows(List.of("count"),
+                List.of(Map.of("count", "7"), Map.of("count", ""), Map.of("count", "N/A")),
+                List.of(Map.of("count", "5")));
+
+        // Execute comparison
+        List<ValidationDetailResult> results = dayOverDayComparator.compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
+
+        // Blank and N/A values are handled by their strategies instead of reaching SQL SUM
+        assertEquals(2, results.size());
+        assertEquals(0, new BigDecimal("100.00").compareTo(results.get(0).getActualValue()));
+        assertEquals(0, new BigDecimal("7").compareTo(results.get(1).getActualValue()));
+        assertEquals(0, new BigDecimal("5").compareTo(results.get(1).getExpectedValue()));
+    }
+
+    @Test
+    public void testCompare_ReplansWhenColumnTypeChanges() {
+        ReflectionTestUtils.setField(dayOverDayComparator, "pushDownAggregation", true);
+        LocalDate today = LocalDate.now();
+        // count is altered from INT to VARCHAR between the runs
+        when(dynamicTableRepository.findNumericColumns(eq("test_table"), any()))
+                .thenReturn(Set.of("amount", "count"), Set.of("amount"));
+        when(dynamicTableRepository.executeDailyAggregateQuery(
+                eq("test_table"), eq(List.of("SUM(amount)", "SUM(count)")), eq("created_date"),
+                eq(today.minusDays(1)), eq(today.plusDays(1)), eq("status <> 'CANCELED'")))
+                .thenReturn(Map.of(
+                        today, List.of(new BigDecimal("100.00"), new BigDecimal("20")),
+                        today.minusDays(1), List.of(new BigDecimal("95.00"), new BigDecimal("18"))));
+        when(dynamicTableRepository.executeDailyAggregateQuery(
+                eq("test_table"), eq(List.of("SUM(amount)")), eq("created_date"),
+                eq(today.minusDays(1)), eq(today.plusDays(1)), eq("status <> 'CANCELED'")))
+                .thenReturn(Map.of(
+                        today, List.of(new BigDecimal("100.00")),
+                        today.minusDays(1), List.of(new BigDecimal("95.00"))));
+        mockStreamedRows(List.of("count"), List.of(Map.of("count", "21")), List.of(Map.of("count", "18")));
+
+        List<ValidationDetailResult> firstRun = dayOverDayComparator.compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
+        List<ValidationDetailResult> secondRun = dayOverDayComparator.compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
+
+        // The second run streams count instead of summing it with the cached plan
+        assertEquals(0, new BigDecimal("20").compareTo(firstRun.get(1).getActualValue()));
+        assertEquals(0, new BigDecimal("21").compareTo(secondRun.get(1).getActualValue()));
+    }
+
+    @Test
+    public void testCompare_PushDownSkipsFailingStrategies() {
+        // A FAIL strategy for N/A values has to see every row, even of a numeric column
+        enablePushDown("amount", "count");
+        columnConfigs.get(1).setNaHandlingStrategy(HandlingStrategy.FAIL);
+        LocalDate today = LocalDate.now();
+        when(dynamicTableRepository.executeDailyAggregateQuery(
+                eq("test_table"), eq(List.of("SUM(amount)")), eq("created_date"),
+                eq(today.minusDays(1)), eq(today.plusDays(1)), eq("status <> 'CANCELED'")))
+                .thenReturn(Map.of(
+                        today, List.of(new BigDecimal("100.00")),
+                        today.minusDays(1), List.of(new BigDecimal("95.00"))));
+        mockStreamedRows(List.of("count"), List.of(Map.of("count", 7)), List.of(Map.of("count", 5)));
+
+        // Execute comparison
+        List<ValidationDetailResult> results = dayOverDayComparator.compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
+
+        assertEquals(2, results.size());
+        assertEquals(0, new BigDecimal("7").compareTo(results.get(1).getActualValue()));
+    }
+
+    @Test
+    public void testCompare_ParallelColumnsKeepConfigOrder() {
+        ReflectionTestUtils.setField(dayOverDayComparator, "parallelColumnThreshold", 1);
+
+        // A wide config whose column i changes by i units from yesterday to today
+        columnConfigs = new ArrayList<>();
+        thresholdConfigs = new HashMap<>();
+        List<String> columnNames = new ArrayList<>();
+        Map<String, Object> todayRow = new HashMap<>();
+        Map<String, Object> yesterdayRow = new HashMap<>();
+        for (int i = 0; i < 40; i++) {
+            ColumnComparisonConfig column = new ColumnComparisonConfig();
+            column.setId(100L + i);
+            column.setDayOverDayConfig(dayOverDayConfig);
+            column.setColumnName("col" + i);
+            column.setComparisonType(ComparisonType.ABSOLUTE);
+            column.setNullHandlingStrategy(HandlingStrategy.TREAT_AS_ZERO);
+            column.setBlankHandlingStrategy(HandlingStrategy.TREAT_AS_ZERO);
+            column.setNaHandlingStrategy(HandlingStrategy.TREAT_AS_ZERO);
+            columnConfigs.add(column);
+
+            ThresholdConfig threshold = new ThresholdConfig();
+            threshold.setColumnComparisonConfig(column);
+            threshold.setThresholdValue(new BigDecimal("5.00"));
+            thresholdConfigs.put(column.getId(), threshold);
+
+            columnNames.add("col" + i);
+            todayRow.put("col" + i, i * 2);
+            yesterdayRow.put("col" + i, i);
+        }
+        mockStreamedRows(columnNames, List.of(todayRow), List.of(yesterdayRow));
+
+        List<ValidationDetailResult> results = dayOverDayComparator.compare(dayOverDayConfig, columnConfigs, thresholdConfigs);
+
+        // Results follow the configuration order however the columns were scheduled
+        assertEquals(40, results.size());
+        for (int i = 0; i < 40; i++) {
+            ValidationDetailResult result = results.get(i);
+            assertSame(columnConfigs.get(i), result.getColumnComparisonConfig());
+            assertEquals(0, BigDecimal.valueOf(i).compareTo(result.getDifferenceValue()));
+            assertEquals(i > 5, result.isThresholdExceeded());
+        }
+    }
+
+    /**
+     * Return the sums of amount and count of today's rows within a watermark range, one pair per call
+     */
+    private void mockWatermarkRange(LocalDate today, Long afterWatermark, long upToWatermark, String... sums) {
+        var stubbing = when(dynamicTableRepository.executeDailyAggregateQuery(
+                eq("test_table"), eq(List.of("SUM(amount)", "SUM(count)")), eq("created_date"),
+                eq(today), eq(today.plusDays(1)),
+                eq(PartitionPredicate.watermarkRange("id", afterWatermark, upToWatermark)),
+                eq("status <> 'CANCELED'")));
+        for (int i = 0; i < sums.length; i += 2) {
+            stubbing = stubbing.thenReturn(Map.of(today, List.of(new BigDecimal(sums[i]), new BigDecimal(sums[i + 1]))));
+        }
+    }
+
+    /**
+     * Comparator pushing aggregates down and storing every row incrementally, on a clock reading noon of the given day
+     */
+    private DayOverDayComparator comparatorOn(LocalDate date) {
+        DayOverDayComparator comparator = new DayOverDayComparator(dynamicTableRepository, aggregateSnapshotService,
+                incrementalAggregateService, Clock.fixed(date.atTime(12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        ReflectionTestUtils.setField(comparator, "pushDownAggregation", true);
+        ReflectionTestUtils.setField(comparator, "watermarkSafetyLag", 0L);
+        return comparator;
+    }
+
+    /**
+     * Enable push-down aggregation for a table whose given columns are numeric
+     */
+    private void enablePushDown(String... numericColumns) {
+        ReflectionTestUtils.setField(dayOverDayComparator, "pushDownAggregation", true);
+        when(dynamicTableRepository.findNumericColumns(eq("test_table"), any()))
+                .thenReturn(Set.of(numericColumns));
+    }
+
+    /**
+     * Stream today's rows on the first repository call and yesterday's rows on the second
+     */
+    private void mockStreamedRows(List<String> columnNames, List<Map<String, Object>> todayData,
+                                  List<Map<String, Object>> yesterdayData) {
+        Iterator<List<Map<String, Object>>> days = List.of(todayData, yesterdayData).iterator();
+
+        doAnswer(invocation -> {
+            Consumer<ColumnarRowBatch> consumer = invocation.getArgument(6);
+            consumer.accept(batchFor(columnNames, days.next()));
+            return null;
+        }).when(dynamicTableRepository).streamBatchesForDate(
+                eq("test_table"), eq(columnNames), eq("created_date"), any(LocalDate.class),
+                eq(PartitionPredicate.WHOLE_TABLE), eq("status <> 'CANCELED'"), any());
+    }
+
+    private ColumnarRowBatch batchFor(List<String> columnNames, List<Map<String, Object>> rows) {
+        ColumnarRowBatch batch = new ColumnarRowBatch(columnNames.size(), ColumnarRowBatch.DEFAULT_CAPACITY);
+        for (Map<String, Object> row : rows) {
+            int index = batch.addRow();
+            for (int column = 0; column < columnNames.size(); column++) {
+                batch.set(column, index, row.get(columnNames.get(column)));
+            }
+        }
+        return batch;
+    }
 }
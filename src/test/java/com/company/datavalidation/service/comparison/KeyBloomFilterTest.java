@@ -0,0 +1,49 @@
+package com.company.datavalidation.service.comparison;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Key Bloom Filter Tests")
+class KeyBloomFilterTest {
+
+    @Test
+    @DisplayName("Should contain every added key and few others")
+    void testMightContain_NoFalseNegatives() {
+        KeyBloomFilter filter = new KeyBloomFilter(100_000, 0.01);
+        for (long key = 0; key < 100_000; key++) {
+            filter.add(key * 3);
+        }
+
+        int falsePositives = 0;
+        for (long key = 0; key < 100_000; key++) {
+            assertTrue(filter.mightContain(key * 3));
+            if (filter.mightContain(key * 3 + 1)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 1_500, falsePositives + " false positives at 1%");
+        assertTrue(filter.bitCount() < 100_000 * 10 + 64, "About 9.6 bits per key at 1%");
+    }
+
+    @Test
+    @DisplayName("Should match integral keys of any numeric type, and string keys by value")
+    void testMightContain_NormalisesKeys() {
+        KeyBloomFilter filter = new KeyBloomFilter(10, 0.001);
+        filter.add(42);
+        filter.add("ORD-1");
+        filter.add(new BigDecimal("7.50"));
+
+        assertTrue(filter.mightContain(42L));
+        assertTrue(filter.mightContain(new BigDecimal("42.000")));
+        assertTrue(filter.mightContain(BigInteger.valueOf(42)));
+        assertTrue(filter.mightContain("ORD-1"));
+        assertTrue(filter.mightContain(new BigDecimal("7.5")));
+        assertEquals(42L, RowKeys.normalise((short) 42));
+        assertEquals("7.5", RowKeys.normalise(new BigDecimal("7.50")));
+    }
+}
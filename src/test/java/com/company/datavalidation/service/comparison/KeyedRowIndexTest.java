@@ -0,0 +1,66 @@
+package com.company.datavalidation.service.comparison;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Keyed Row Index Tests")
+class KeyedRowIndexTest {
+
+    @Test
+    @DisplayName("Should find every row by an integral key of any numeric type")
+    void testGet_IntegralKeys() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (long id = -50_000; id < 50_000; id++) {
+            rows.add(Map.of("id", id, "amount", id * 2));
+        }
+
+        KeyedRowIndex index = KeyedRowIndex.of(rows, "id");
+
+        assertEquals(100_000, index.size());
+        assertEquals(-100_000L, index.get(-50_000L).get("amount"));
+        assertEquals(0L, index.get(0).get("amount"));
+        assertEquals(84L, index.get(new BigDecimal("42.00")).get("amount"));
+        assertNull(index.get("42"), "String keys do not match integral keys");
+        assertNull(index.get(50_000L));
+        assertNull(index.get(null));
+    }
+
+    @Test
+    @DisplayName("Should find rows by string keys and keep the first row of a duplicated key")
+    void testFind_StringKeysAndDuplicates() {
+        Map<String, Object> withoutKey = new HashMap<>();
+        withoutKey.put("code", null);
+        List<Map<String, Object>> rows = List.of(
+                Map.of("code", "ORD-1", "amount", 1),
+                Map.of("code", "ORD-2", "amount", 2),
+                Map.of("code", "ORD-1", "amount", 3),
+                Map.of("code", 7, "amount", 4),
+                withoutKey);
+
+        KeyedRowIndex index = KeyedRowIndex.of(rows, "code");
+
+        assertEquals(3, index.size());
+        assertEquals(Optional.of(rows.get(0)), index.find("ORD-1"));
+        assertEquals(2, index.get("ORD-2").get("amount"));
+        assertEquals(4, index.get(7L).get("amount"));
+        assertTrue(index.find("ORD-3").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should index no rows")
+    void testGet_Empty() {
+        KeyedRowIndex index = KeyedRowIndex.of(List.of(), "id");
+
+        assertEquals(0, index.size());
+        assertNull(index.get(1L));
+    }
+}
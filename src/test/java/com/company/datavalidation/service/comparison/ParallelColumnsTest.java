@@ -0,0 +1,89 @@
+package com.company.datavalidation.service.comparison;
+
+import com.company.datavalidation.model.HandlingStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Parallel Columns Tests")
+class ParallelColumnsTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should process every column exactly once when the range does not split evenly")
+    void testForEach_EveryColumnOnce() {
+        AtomicIntegerArray visits = new AtomicIntegerArray(101);
+
+        ParallelColumns.forEach(pool, 101, 1, column -> {
+            assertTrue(ForkJoinTask.inForkJoinPool());
+            visits.incrementAndGet(column);
+        });
+
+        for (int column = 0; column < visits.length(); column++) {
+            assertEquals(1, visits.get(column), "Column " + column);
+        }
+    }
+
+    @Test
+    @DisplayName("Should split the columns into ranges that run concurrently")
+    void testForEach_SplitsRanges() {
+        // The first and last columns each wait for the other, so they must run in different ranges at once
+        CountDownLatch bothEnds = new CountDownLatch(2);
+        boolean[] met = new boolean[2];
+
+        ParallelColumns.forEach(pool, 64, 1, column -> {
+            if (column == 0 || column == 63) {
+                bothEnds.countDown();
+                try {
+                    met[column == 0 ? 0 : 1] = bothEnds.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        assertTrue(met[0] && met[1]);
+    }
+
+    @Test
+    @DisplayName("Should run sequentially on the caller below the minimum column count")
+    void testForEach_SequentialBelowMinimum() {
+        Thread caller = Thread.currentThread();
+        StringBuilder order = new StringBuilder();
+
+        ParallelColumns.forEach(pool, 5, 6, column -> {
+            assertSame(caller, Thread.currentThread());
+            order.append(column);
+        });
+        ParallelColumns.forEach(pool, 3, 0, order::append);
+
+        assertEquals("01234012", order.toString());
+    }
+
+    @Test
+    @DisplayName("Should rethrow a FAIL strategy exception of any column to the caller")
+    void testForEach_FailStrategyReachesCaller() {
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                ParallelColumns.forEach(pool, 100, 1, column -> {
+                    if (column == 57) {
+                        HandlingStrategy.FAIL.handleValue("N/A");
+                    }
+                }));
+
+        assertTrue(exception.getMessage().contains("Special value encountered with FAIL strategy: N/A"));
+    }
+}
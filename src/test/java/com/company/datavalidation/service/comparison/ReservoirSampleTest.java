@@ -0,0 +1,55 @@
+package com.company.datavalidation.service.comparison;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Reservoir Sample Tests")
+class ReservoirSampleTest {
+
+    @Test
+    @DisplayName("Should keep every item while the stream fits the capacity")
+    void testSample_KeepsShortStream() {
+        ReservoirSample<String> sample = new ReservoirSample<>(3);
+        sample.offer("a");
+        sample.offer("b");
+
+        assertEquals(2, sample.count());
+        assertEquals(List.of("a", "b"), sample.sample());
+    }
+
+    @Test
+    @DisplayName("Should keep at most capacity items, in offer order")
+    void testSample_BoundsLongStream() {
+        ReservoirSample<Integer> sample = new ReservoirSample<>(5, new SplittableRandom(42));
+        IntStream.range(0, 10_000).forEach(sample::offer);
+
+        List<Integer> kept = sample.sample();
+        assertEquals(10_000, sample.count());
+        assertEquals(5, kept.size());
+        assertEquals(kept.stream().sorted().toList(), kept, "Items should be in offer order");
+        assertEquals(5, kept.stream().distinct().count());
+    }
+
+    @Test
+    @DisplayName("Should sample every item with the same probability")
+    void testSample_IsUniform() {
+        SplittableRandom random = new SplittableRandom(7);
+        int[] hits = new int[10];
+        for (int run = 0; run < 20_000; run++) {
+            ReservoirSample<Integer> sample = new ReservoirSample<>(2, random);
+            IntStream.range(0, 10).forEach(sample::offer);
+            sample.sample().forEach(item -> hits[item]++);
+        }
+
+        // Each item is expected 4000 times
+        for (int hit : hits) {
+            assertTrue(hit > 3700 && hit < 4300, "Item sampled " + hit + " times");
+        }
+    }
+}
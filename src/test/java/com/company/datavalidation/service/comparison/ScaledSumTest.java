@@ -0,0 +1,34 @@
+package com.company.datavalidation.service.comparison;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Scaled Sum Tests")
+class ScaledSumTest {
+
+    @Test
+    @DisplayName("Should sum exactly across long overflow and values that cannot be scaled")
+    void testValue_SpillsExactly() {
+        ScaledSum sum = new ScaledSum();
+        BigDecimal expected = BigDecimal.ZERO;
+        BigDecimal large = new BigDecimal("99999999999999.9999");
+        for (int i = 0; i < 1_000; i++) {
+            sum.add(large);
+            expected = expected.add(large);
+        }
+        sum.add(new BigDecimal("0.00001"));
+        sum.add(new BigDecimal("-3.25"));
+
+        assertEquals(0, expected.add(new BigDecimal("0.00001")).add(new BigDecimal("-3.25")).compareTo(sum.value()));
+    }
+
+    @Test
+    @DisplayName("Should return zero with four decimal places when nothing was added")
+    void testValue_Empty() {
+        assertEquals(new BigDecimal("0.0000"), new ScaledSum().value());
+    }
+}
@@ -0,0 +1,56 @@
+package com.company.datavalidation.service.comparison;
+
+import com.company.datavalidation.model.ColumnComparisonConfig;
+import com.company.datavalidation.model.HandlingStrategy;
+import com.company.datavalidation.repository.ColumnarRowBatch;
+import com.company.datavalidation.repository.ColumnarRowBatch.CellState;
+import com.company.datavalidation.repository.DynamicTableRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Special Value Strategies Tests")
+class SpecialValueStrategiesTest {
+
+    private final CrossTableComparator comparator = new CrossTableComparator(mock(DynamicTableRepository.class));
+
+    @Test
+    @DisplayName("Should apply the null, blank and N/A strategies to their own kind of value")
+    void testHandle_AppliesStrategyOfEachKind() {
+        var strategies = SpecialValueStrategies.of(ColumnComparisonConfig.builder()
+                .nullHandlingStrategy(HandlingStrategy.IGNORE)
+                .blankHandlingStrategy(HandlingStrategy.TREAT_AS_ZERO)
+                .naHandlingStrategy(HandlingStrategy.FAIL)
+                .build());
+
+        assertNull(comparator.handleValue(null, strategies));
+        assertEquals(BigDecimal.ZERO, comparator.handleValue(" ", strategies));
+        assertThrows(RuntimeException.class, () -> comparator.handleValue("N/A", strategies));
+        assertNull(comparator.handleValue("abc", strategies));
+
+        ColumnarRowBatch batch = new ColumnarRowBatch(1, 4);
+        for (Object value : new Object[]{null, " ", "n/a", "12.5"}) {
+            batch.set(0, batch.addRow(), value);
+        }
+        assertNull(comparator.handleCell(batch, 0, 0, strategies));
+        assertEquals(BigDecimal.ZERO, comparator.handleCell(batch, 0, 1, strategies));
+        assertThrows(RuntimeException.class, () -> comparator.handleCell(batch, 0, 2, strategies));
+        assertEquals(0, new BigDecimal("12.5").compareTo(comparator.handleCell(batch, 0, 3, strategies)));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the null strategy for blank and N/A values if theirs are not set")
+    void testOf_FallsBackToNullStrategy() {
+        var strategies = SpecialValueStrategies.of(ColumnComparisonConfig.builder()
+                .nullHandlingStrategy(HandlingStrategy.TREAT_AS_ZERO)
+                .build());
+
+        assertEquals(BigDecimal.ZERO, strategies.handle(CellState.BLANK));
+        assertEquals(BigDecimal.ZERO, strategies.handle(CellState.NOT_AVAILABLE));
+        assertEquals(HandlingStrategy.TREAT_AS_ZERO, strategies.blankStrategy());
+    }
+}
@@ -2,6 +2,7 @@ package com.company.datavalidation.service.validation;
 
 import com.company.datavalidation.model.*;
 import com.company.datavalidation.repository.ColumnComparisonConfigRepository;
+import com.company.datavalidation.repository.SourceDataSource;
 import com.company.datavalidation.repository.ThresholdConfigRepository;
 import com.company.datavalidation.repository.ValidationDetailResultRepository;
 import com.company.datavalidation.repository.ValidationResultRepository;
@@ -162,6 +163,32 @@ public class ThresholdValidatorTest {
         verify(validationDetailResultRepository).save(any(ValidationDetailResult.class));
     }
 
+    @Test
+    public void testValidateDayOverDay_ReadsNamedDatasource() {
+        comparisonConfig.setDatasourceName("warehouse");
+        List<String> datasources = new ArrayList<>();
+
+        // Mock repository behavior
+        when(columnComparisonConfigRepository.findByDayOverDayConfig(dayOverDayConfig))
+                .thenReturn(Collections.singletonList(columnConfigs.get(0)));
+
+        when(dayOverDayComparator.compare(eq(dayOverDayConfig), anyList(), anyMap()))
+                .thenAnswer(invocation -> {
+                    datasources.add(SourceDataSource.current());
+                    return Collections.emptyList();
+                });
+
+        when(validationResultRepository.save(any(ValidationResult.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Execute validation
+        thresholdValidator.validateDayOverDay(dayOverDayConfig);
+
+        // The comparison reads from the named source; the thread is reset afterwards
+        assertEquals(List.of("warehouse"), datasources);
+        assertEquals(SourceDataSource.DEFAULT, SourceDataSource.current());
+    }
+
     @Test
     public void testValidateDayOverDay_ThresholdExceeded() {
         // Prepare mock data